@@ -0,0 +1,65 @@
+package sim;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The AdvanceBenchmark class measures the latency of one call to SimplePoolSimulator.advance,
+ * which finds the next edge the ball hits. The ball is restarted whenever it comes to rest, so
+ * every measured call moves a ball. Run with -prof gc to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdvanceBenchmark {
+
+  @Param({"simple", "friction"})
+  private String mode;
+
+  @Param({"400", "4000"})
+  private int width;
+
+  @Param({"5", "20"})
+  private int radius;
+
+  @Param({"50", "500"})
+  private int speed;
+
+  private SimplePoolSimulator simulator;
+
+  /**
+   * Builds the simulator and starts the first shot.
+   */
+  @Setup
+  public void setUp() {
+    simulator = new SimplePoolSimulator(width, width / 2, mode);
+    Shots.start(simulator, radius, speed);
+  }
+
+  /**
+   * Advances the ball to its next event.
+   *
+   * @return the x of the ball, so the step is not optimized away.
+   */
+  @Benchmark
+  public double advance() {
+    if (simulator.getStatusCode() == Status.STATIONARY) {
+      Shots.start(simulator, radius, speed);
+    }
+    simulator.advance();
+    return simulator.getBallPositionX();
+  }
+}
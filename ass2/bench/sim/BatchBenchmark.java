@@ -0,0 +1,70 @@
+package sim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BatchBenchmark class measures the time ShotBatchEvaluator takes to run a batch of random
+ * shots to rest on the common pool. Divide by the batch size for the cost of a shot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BatchBenchmark {
+
+  @Param({"simple", "friction"})
+  private String mode;
+
+  @Param({"400", "4000"})
+  private int width;
+
+  @Param({"1000", "100000"})
+  private int shots;
+
+  private ShotBatch batch;
+  private ShotResults results;
+  private ShotBatchEvaluator evaluator;
+
+  /**
+   * Builds a batch of random shots that all fit on the table.
+   */
+  @Setup
+  public void setUp() {
+    int height = width / 2;
+    Random random = new Random(42);
+    batch = new ShotBatch(shots);
+    for (int i = 0; i < shots; i++) {
+      int radius = 1 + random.nextInt(20);
+      batch.add(radius + random.nextInt(width - 2 * radius),
+          radius + random.nextInt(height - 2 * radius), radius, 1 + random.nextInt(500),
+          random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+    }
+    results = new ShotResults(shots);
+    evaluator = new ShotBatchEvaluator(width, height, mode);
+  }
+
+  /**
+   * Runs the whole batch.
+   *
+   * @return the results, which are reused between calls.
+   */
+  @Benchmark
+  public ShotResults evaluate() {
+    evaluator.evaluate(batch, results);
+    return results;
+  }
+}
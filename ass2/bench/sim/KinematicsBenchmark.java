@@ -0,0 +1,144 @@
+package sim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The KinematicsBenchmark class measures the time to find the next edge of a ball, with the
+ * formulas of Kinematics and with the quadratic solve and eight sign cases the friction model
+ * used before, kept here as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KinematicsBenchmark {
+
+  private static final int BALLS = 1024;
+
+  @Param({"0", "0.98"})
+  private double deceleration;
+
+  @Param({"400", "40000"})
+  private int width;
+
+  private double[] x;
+  private double[] y;
+  private double[] dx;
+  private double[] dy;
+  private double[] speed;
+  private double radius;
+
+  /**
+   * Places balls at random, heading in random directions.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    x = new double[BALLS];
+    y = new double[BALLS];
+    dx = new double[BALLS];
+    dy = new double[BALLS];
+    speed = new double[BALLS];
+    radius = 10;
+    for (int i = 0; i < BALLS; i++) {
+      x[i] = radius + random.nextDouble() * (width - 2 * radius);
+      y[i] = radius + random.nextDouble() * (width / 2 - 2 * radius);
+      double angle = random.nextDouble() * 2 * Math.PI;
+      dx[i] = Math.cos(angle);
+      dy[i] = Math.sin(angle);
+      speed[i] = 1 + random.nextDouble() * 100;
+    }
+  }
+
+  /**
+   * Finds the next edge of every ball with Kinematics.
+   *
+   * @return a sum of the times and edges, so the work is not optimized away.
+   */
+  @Benchmark
+  public double kernel() {
+    double sum = 0;
+    int height = width / 2;
+    for (int i = 0; i < BALLS; i++) {
+      double timeX = Kinematics.timeToEdge(x[i], dx[i], width, radius, speed[i], deceleration);
+      double timeY = Kinematics.timeToEdge(y[i], dy[i], height, radius, speed[i], deceleration);
+      Edge edge = Kinematics.nearest(timeX, timeY, dx[i], dy[i]);
+      sum += Math.min(timeX, timeY) + (edge == null ? -1 : edge.ordinal());
+    }
+    return sum;
+  }
+
+  /**
+   * Finds the next edge of every ball with the old quadratic solve.
+   *
+   * @return a sum of the times and edges, so the work is not optimized away.
+   */
+  @Benchmark
+  public double legacy() {
+    double sum = 0;
+    int height = width / 2;
+    double a = deceleration / 2;
+    for (int i = 0; i < BALLS; i++) {
+      double v = speed[i];
+      double timeRight = Math.abs(solve(a * dx[i], -v * dx[i], width - radius - x[i]));
+      double timeLeft = Math.abs(solve(a * dx[i], -v * dx[i], radius - x[i]));
+      double timeBottom = Math.abs(solve(a * dy[i], -v * dy[i], y[i] - radius));
+      double timeTop = Math.abs(solve(a * dy[i], -v * dy[i], height - radius - y[i]));
+      double time = Double.MAX_VALUE;
+      Edge edge = null;
+      if (dx[i] > 0 && dy[i] > 0) {
+        time = Math.min(timeTop, timeRight);
+        edge = time - timeTop < 0.001 ? Edge.TOP : Edge.RIGHT;
+      }
+      if (dx[i] > 0 && dy[i] < 0) {
+        time = Math.min(timeRight, timeBottom);
+        edge = time - timeRight < 0.001 ? Edge.RIGHT : Edge.BOTTOM;
+      }
+      if (dx[i] < 0 && dy[i] < 0) {
+        time = Math.min(timeLeft, timeBottom);
+        edge = time - timeLeft < 0.001 ? Edge.LEFT : Edge.BOTTOM;
+      }
+      if (dx[i] < 0 && dy[i] > 0) {
+        time = Math.min(timeLeft, timeTop);
+        edge = time - timeLeft < 0.001 ? Edge.LEFT : Edge.TOP;
+      }
+      if (dx[i] == 0 && dy[i] != 0) {
+        time = dy[i] > 0 ? timeTop : timeBottom;
+        edge = dy[i] > 0 ? Edge.TOP : Edge.BOTTOM;
+      }
+      if (dy[i] == 0 && dx[i] != 0) {
+        time = dx[i] > 0 ? timeRight : timeLeft;
+        edge = dx[i] > 0 ? Edge.RIGHT : Edge.LEFT;
+      }
+      sum += time + (edge == null ? -1 : edge.ordinal());
+    }
+    return sum;
+  }
+
+  private static double solve(double a, double b, double c) {
+    double d = b * b - 4 * a * c;
+    if (d > 0) {
+      double root1 = (2 * c) / (-b + Math.sqrt(d));
+      double root2 = (2 * c) / (-b - Math.sqrt(d));
+      return Math.min(root1, root2);
+    } else if (d == 0) {
+      return (2 * c) / -b;
+    } else {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package sim;
+
+/**
+ * The Shots class starts the shot the single ball benchmarks share, so their numbers compare.
+ */
+final class Shots {
+
+  private Shots() {
+  }
+
+  /**
+   * Starts a shot from a quarter of the way across the table, heading off at an angle.
+   *
+   * @param simulator the simulator to start.
+   * @param radius    the radius of the ball.
+   * @param speed     the speed of the ball.
+   */
+  static void start(PoolSimulator simulator, int radius, int speed) {
+    int width = simulator.getTableWidth();
+    int height = simulator.getTableHeight();
+    simulator.start(Math.max(radius, width / 4), Math.max(radius, height / 4), radius, speed, 0.83,
+        -0.56);
+  }
+}
@@ -0,0 +1,75 @@
+package sim;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The StepsToRestBenchmark class measures how many shots per second run from start to rest, once
+ * by calling advance until the ball is stationary and once with runToRest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StepsToRestBenchmark {
+
+  @Param({"simple", "friction"})
+  private String mode;
+
+  @Param({"400", "4000"})
+  private int width;
+
+  @Param({"5", "20"})
+  private int radius;
+
+  @Param({"50", "500"})
+  private int speed;
+
+  private SimplePoolSimulator simulator;
+
+  /**
+   * Builds the simulator.
+   */
+  @Setup
+  public void setUp() {
+    simulator = new SimplePoolSimulator(width, width / 2, mode);
+  }
+
+  /**
+   * Runs one shot to rest an edge at a time.
+   *
+   * @return the x where the ball stopped.
+   */
+  @Benchmark
+  public double advanceToRest() {
+    Shots.start(simulator, radius, speed);
+    while (simulator.getStatusCode() != Status.STATIONARY) {
+      simulator.advance();
+    }
+    return simulator.getBallPositionX();
+  }
+
+  /**
+   * Runs one shot to rest in a single call.
+   *
+   * @return the x where the ball stopped.
+   */
+  @Benchmark
+  public double runToRest() {
+    Shots.start(simulator, radius, speed);
+    simulator.runToRest();
+    return simulator.getBallPositionX();
+  }
+}
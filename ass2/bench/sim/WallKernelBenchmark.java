@@ -0,0 +1,81 @@
+package sim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The WallKernelBenchmark class measures the time to find the nearest edge of every ball in a
+ * BallStore, with the scalar WallKernel and with the one create picks. The Vector API kernel is
+ * only picked from the multi-release jar on JDK 17 with
+ * -jvmArgsAppend --add-modules=jdk.incubator.vector.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WallKernelBenchmark {
+
+  @Param({"0", "0.98"})
+  private double deceleration;
+
+  @Param({"16", "1024"})
+  private int balls;
+
+  private BallStore store;
+  private WallKernel scalar;
+  private WallKernel created;
+  private double[] time;
+  private byte[] edge;
+
+  /**
+   * Racks balls with random positions and velocities.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    store = new BallStore(balls);
+    for (int i = 0; i < balls; i++) {
+      store.add(20 + random.nextInt(360), 20 + random.nextInt(160), 10,
+          80 * (random.nextDouble() - 0.5), 80 * (random.nextDouble() - 0.5), 0);
+    }
+    scalar = new WallKernel();
+    created = WallKernel.create();
+    time = new double[balls];
+    edge = new byte[balls];
+  }
+
+  /**
+   * Finds the nearest edges with the scalar loop.
+   *
+   * @return the times, so the work is not optimized away.
+   */
+  @Benchmark
+  public double[] scalar() {
+    scalar.nearestWalls(store, 0, balls, deceleration, 400, 200, time, edge);
+    return time;
+  }
+
+  /**
+   * Finds the nearest edges with the kernel create picks.
+   *
+   * @return the times, so the work is not optimized away.
+   */
+  @Benchmark
+  public double[] created() {
+    created.nearestWalls(store, 0, balls, deceleration, 400, 200, time, edge);
+    return time;
+  }
+}
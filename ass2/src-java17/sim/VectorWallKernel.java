@@ -0,0 +1,70 @@
+package sim;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorWallKernel class is the WallKernel built on the Vector API: each pass of the loop
+ * finds the nearest edges of as many balls as fit in a vector register, with masks and blends in
+ * place of the selects of the scalar loop. The edge codes are blended as doubles too and narrowed
+ * to bytes in one store. The balls left over at the end of the range go through
+ * the scalar loop. WallKernel.create loads it by name, so it is only used when the incubator
+ * module is present.
+ */
+final class VectorWallKernel extends WallKernel {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  //bytes of the same shape, of which the first as many lanes as SPECIES has hold the edge codes
+  private static final VectorMask<Byte> CODES =
+      SPECIES.withLanes(byte.class).indexInRange(0, SPECIES.length());
+
+  VectorWallKernel() {
+  }
+
+  @Override
+  void nearestWalls(BallStore balls, int from, int to, double deceleration, int width,
+      int height, double[] time, byte[] edge) {
+    int lanes = SPECIES.length();
+    int bound = from + SPECIES.loopBound(to - from);
+    DoubleVector infinity = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+    DoubleVector none = DoubleVector.broadcast(SPECIES, NONE);
+    DoubleVector leftCode = DoubleVector.broadcast(SPECIES, LEFT);
+    DoubleVector rightCode = DoubleVector.broadcast(SPECIES, RIGHT);
+    DoubleVector bottomCode = DoubleVector.broadcast(SPECIES, BOTTOM);
+    DoubleVector topCode = DoubleVector.broadcast(SPECIES, TOP);
+    int i = from;
+    for (; i < bound; i += lanes) {
+      DoubleVector x = DoubleVector.fromArray(SPECIES, balls.x, i);
+      DoubleVector y = DoubleVector.fromArray(SPECIES, balls.y, i);
+      DoubleVector vx = DoubleVector.fromArray(SPECIES, balls.vx, i);
+      DoubleVector vy = DoubleVector.fromArray(SPECIES, balls.vy, i);
+      DoubleVector r = DoubleVector.fromArray(SPECIES, balls.radius, i);
+      DoubleVector v = DoubleVector.fromArray(SPECIES, balls.speed, i);
+      VectorMask<Double> right = vx.compare(VectorOperators.GT, 0);
+      VectorMask<Double> top = vy.compare(VectorOperators.GT, 0);
+      DoubleVector aheadX = x.sub(r).blend(r.neg().add(width).sub(x), right);
+      DoubleVector aheadY = y.sub(r).blend(r.neg().add(height).sub(y), top);
+      DoubleVector timeX = travel(v, aheadX.max(0).div(vx.abs().div(v)), deceleration, infinity);
+      DoubleVector timeY = travel(v, aheadY.max(0).div(vy.abs().div(v)), deceleration, infinity);
+      DoubleVector t = timeX.min(timeY);
+      t.intoArray(time, i);
+      DoubleVector edgeX = leftCode.blend(rightCode, right);
+      DoubleVector edgeY = bottomCode.blend(topCode, top);
+      DoubleVector code = edgeY.blend(edgeX, timeX.compare(VectorOperators.LE, timeY))
+          .blend(none, t.compare(VectorOperators.LT, infinity).not());
+      ((ByteVector) code.convert(VectorOperators.D2B, 0)).intoArray(edge, i, CODES);
+    }
+    super.nearestWalls(balls, i, to, deceleration, width, height, time, edge);
+  }
+
+  private static DoubleVector travel(DoubleVector speed, DoubleVector length,
+      double deceleration, DoubleVector infinity) {
+    DoubleVector root = speed.mul(speed).sub(length.mul(2 * deceleration)).sqrt();
+    DoubleVector t = length.mul(2).div(speed.add(root));
+    //NaN fails the comparison too
+    return t.blend(infinity, t.compare(VectorOperators.GE, 0).not());
+  }
+}
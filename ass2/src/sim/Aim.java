@@ -0,0 +1,79 @@
+package sim;
+
+/**
+ * The Aim class is a shot found by AimOptimizer: the direction and speed to start the ball with,
+ * and how close it comes to the target.
+ */
+public final class Aim {
+
+  private final double dx;
+  private final double dy;
+  private final int speed;
+  private final int banks;
+  private final double miss;
+  private final double time;
+
+  Aim(double dx, double dy, int speed, int banks, double miss, double time) {
+    this.dx = dx;
+    this.dy = dy;
+    this.speed = speed;
+    this.banks = banks;
+    this.miss = miss;
+    this.time = time;
+  }
+
+  /**
+   * getter method to get the x of the unit direction to start the ball in.
+   *
+   * @return dx.
+   */
+  public double getDx() {
+    return dx;
+  }
+
+  /**
+   * getter method to get the y of the unit direction to start the ball in.
+   *
+   * @return dy.
+   */
+  public double getDy() {
+    return dy;
+  }
+
+  /**
+   * getter method to get the speed to start the ball at.
+   *
+   * @return speed.
+   */
+  public int getSpeed() {
+    return speed;
+  }
+
+  /**
+   * getter method to get the number of edges the ball hits before it reaches the target.
+   *
+   * @return banks.
+   */
+  public int getBanks() {
+    return banks;
+  }
+
+  /**
+   * getter method to get the distance between the target and the ball where it passes closest,
+   * or where it stops for a shot that stops at the target.
+   *
+   * @return miss.
+   */
+  public double getMiss() {
+    return miss;
+  }
+
+  /**
+   * getter method to get the time since start at which the ball is closest to the target.
+   *
+   * @return time.
+   */
+  public double getTime() {
+    return time;
+  }
+}
@@ -0,0 +1,534 @@
+package sim;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The AimOptimizer class finds the direction and speed of a shot whose ball passes through a
+ * target point, or comes to rest on it, hitting at most a given number of edges first.
+ *
+ * <p>For the models of StraightLineModel the search follows from the geometry of reflection: a
+ * ball that banks off edges travels in a straight line across mirror images of the table, so
+ * every way to reach the target with bx banks on the left and right edges and by on the bottom and
+ * top is the straight line to one image of the target. Walking the line back from the target
+ * gives the lowest speed that gets there, or that stops there, and each such shot is checked
+ * with advanceTo or runToRest of a simulator. Only (2 b + 1)^2 shots are tried for b banks.
+ *
+ * <p>Other models, or shots the geometry cannot give such as stopping without friction, are
+ * searched by a coarse sweep of directions and speeds run with advance on a ForkJoinPool, and the
+ * best shot of the sweep is refined by a local pattern search.
+ */
+public final class AimOptimizer {
+
+  /**
+   * Directions tried by the sweep.
+   */
+  public static final int SWEEP_DIRECTIONS = 720;
+
+  /**
+   * Speeds tried for every direction by the sweep, evenly spaced up to the top speed.
+   */
+  public static final int SWEEP_SPEEDS = 16;
+
+  private static final int LEAF = 32;
+  private static final int REFINE_ROUNDS = 200;
+  //misses closer than this are equal, and the shot with fewer banks and less speed wins
+  private static final double TIE = 1e-6;
+
+  private final int width;
+  private final int height;
+  private final String type;
+  private final int maxSpeed;
+  private final ForkJoinPool pool;
+  private final PhysicsModel model;
+  private final ThreadLocal<SimplePoolSimulator> simulators;
+
+  /**
+   * Constructs an AimOptimizer for the given table that runs on the common pool.
+   *
+   * @param width    The width of the pool table.
+   * @param height   The height of the pool table.
+   * @param type     The type of the simulation, as for SimplePoolSimulator.
+   * @param maxSpeed The highest speed a shot may start at.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator, or
+   *                                  the top speed is not positive.
+   */
+  public AimOptimizer(int width, int height, String type, int maxSpeed)
+      throws IllegalArgumentException {
+    this(width, height, type, maxSpeed, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs an AimOptimizer for the given table that runs on the given pool.
+   *
+   * @param width    The width of the pool table.
+   * @param height   The height of the pool table.
+   * @param type     The type of the simulation, as for SimplePoolSimulator.
+   * @param maxSpeed The highest speed a shot may start at.
+   * @param pool     The pool that runs the sweep.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator, or
+   *                                  the top speed is not positive.
+   */
+  public AimOptimizer(int width, int height, String type, int maxSpeed, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    if ((width < 0) || (height < 0)) {
+      throw new IllegalArgumentException("invalid height or width");
+    }
+    if (maxSpeed <= 0) {
+      throw new IllegalArgumentException("speed cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    this.type = type;
+    this.maxSpeed = maxSpeed;
+    this.pool = pool;
+    this.model = PhysicsModels.create(type);
+    this.simulators = ThreadLocal.withInitial(() -> new SimplePoolSimulator(width, height, type));
+  }
+
+  /**
+   * Finds the shot from a start that comes closest to a target.
+   *
+   * @param x        The X-coordinate of the ball.
+   * @param y        The Y-coordinate of the ball.
+   * @param radius   The radius of the ball.
+   * @param targetX  The X-coordinate of the target.
+   * @param targetY  The Y-coordinate of the target.
+   * @param maxBanks The most edges the ball may hit before it reaches the target.
+   * @param stop     Whether the ball has to come to rest on the target rather than pass it.
+   * @return the shot with the smallest miss, then the fewest banks, then the lowest speed, or null
+   *         if no shot up to the top speed can be made.
+   * @throws IllegalArgumentException If the ball is not inside the table, the ball cannot be
+   *                                  centred on the target or the number of banks is negative.
+   */
+  public Aim aim(int x, int y, int radius, double targetX, double targetY, int maxBanks,
+      boolean stop) throws IllegalArgumentException {
+    return aim(x, y, radius, targetX, targetY, 0, maxBanks, stop);
+  }
+
+  /**
+   * Finds the bank shot from a start that comes closest to a target.
+   *
+   * @param x        The X-coordinate of the ball.
+   * @param y        The Y-coordinate of the ball.
+   * @param radius   The radius of the ball.
+   * @param targetX  The X-coordinate of the target.
+   * @param targetY  The Y-coordinate of the target.
+   * @param minBanks The fewest edges the ball has to hit before it reaches the target.
+   * @param maxBanks The most edges the ball may hit before it reaches the target.
+   * @param stop     Whether the ball has to come to rest on the target rather than pass it.
+   * @return the shot with the smallest miss, then the fewest banks, then the lowest speed, or null
+   *         if no shot up to the top speed hits that many edges.
+   * @throws IllegalArgumentException If the radius is negative, the ball is not inside the table,
+   *                                  the ball cannot be centred on the target or the numbers of
+   *                                  banks are negative or out of order.
+   */
+  public Aim aim(int x, int y, int radius, double targetX, double targetY, int minBanks,
+      int maxBanks, boolean stop) throws IllegalArgumentException {
+    if (radius < 0) {
+      throw new IllegalArgumentException("radius cannot be negative");
+    }
+    if (x - radius < 0 || x + radius > width || y - radius < 0 || y + radius > height) {
+      throw new IllegalArgumentException("The ball is not inside the table.");
+    }
+    if (!(targetX >= radius && targetX <= width - radius && targetY >= radius
+        && targetY <= height - radius)) {
+      throw new IllegalArgumentException("The target is not inside the table.");
+    }
+    if (minBanks < 0) {
+      throw new IllegalArgumentException("number of banks cannot be negative");
+    }
+    if (maxBanks < minBanks) {
+      throw new IllegalArgumentException("maxBanks is below minBanks");
+    }
+    Query query = new Query(x, y, radius, targetX, targetY, minBanks, maxBanks, stop);
+    Aim best = null;
+    if (model instanceof StraightLineModel && width > 2 * radius && height > 2 * radius) {
+      //images (jx, jy) of the square around the table, Mirror skips those with too many banks
+      int images = (2 * maxBanks + 1) * (2 * maxBanks + 1);
+      best = pool.invoke(new Search(new Mirror(query, (StraightLineModel) model), 0, images));
+    }
+    if (best == null) {
+      best = refine(query, pool.invoke(new Search(new Sweep(query), 0,
+          SWEEP_DIRECTIONS * SWEEP_SPEEDS)));
+    }
+    return best;
+  }
+
+  /**
+   * Moves the best shot of the sweep by ever smaller steps of direction and speed while that
+   * brings it closer.
+   */
+  private Aim refine(Query query, Aim start) {
+    if (start == null) {
+      return null;
+    }
+    Aim best = start;
+    double angle = Math.atan2(best.getDy(), best.getDx());
+    double angleStep = 2 * Math.PI / SWEEP_DIRECTIONS;
+    int speedStep = Math.max(1, maxSpeed / SWEEP_SPEEDS);
+    SimplePoolSimulator simulator = simulators.get();
+    for (int round = 0; round < REFINE_ROUNDS && angleStep > 1e-12; round++) {
+      Aim next = best;
+      for (int k = -1; k <= 1; k += 2) {
+        double a = angle + k * angleStep;
+        next = better(next, shoot(query, Math.cos(a), Math.sin(a), best.getSpeed(), simulator));
+        int speed = best.getSpeed() + k * speedStep;
+        if (speed >= 1 && speed <= maxSpeed) {
+          next = better(next, shoot(query, best.getDx(), best.getDy(), speed, simulator));
+        }
+      }
+      if (next == best) {
+        angleStep /= 2;
+        speedStep = Math.max(1, speedStep / 2);
+      } else {
+        best = next;
+        angle = Math.atan2(best.getDy(), best.getDx());
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Runs a shot with advance, which works for every model, and measures its miss.
+   *
+   * @return the shot, or null if the ball does not hit the number of edges allowed.
+   */
+  private Aim shoot(Query query, double dx, double dy, int speed, SimplePoolSimulator simulator) {
+    simulator.start(query.x, query.y, query.radius, speed, dx, dy);
+    double closest = Double.POSITIVE_INFINITY;
+    double closestTime = 0;
+    int closestBanks = 0;
+    double fromX = simulator.getBallPositionX();
+    double fromY = simulator.getBallPositionY();
+    double fromTime = 0;
+    for (int step = 0; step < ShotBatchEvaluator.MAX_STEPS; step++) {
+      if (simulator.getStatusCode() == Status.STATIONARY) {
+        break;
+      }
+      int banks = simulator.getBounceCount();
+      if (banks > query.maxBanks) {
+        break;
+      }
+      simulator.advance();
+      double toX = simulator.getBallPositionX();
+      double toY = simulator.getBallPositionY();
+      double toTime = simulator.getElapsedTime();
+      if (!query.stop && banks >= query.minBanks) {
+        //the ball moves in a straight line between events
+        double sx = toX - fromX;
+        double sy = toY - fromY;
+        double length = sx * sx + sy * sy;
+        double f = length == 0 ? 0 : Math.max(0, Math.min(1,
+            ((query.targetX - fromX) * sx + (query.targetY - fromY) * sy) / length));
+        double miss = Math.hypot(fromX + f * sx - query.targetX, fromY + f * sy - query.targetY);
+        if (miss < closest) {
+          closest = miss;
+          closestTime = fromTime + f * (toTime - fromTime);
+          closestBanks = banks;
+        }
+      }
+      fromX = toX;
+      fromY = toY;
+      fromTime = toTime;
+    }
+    if (!query.stop) {
+      return closest == Double.POSITIVE_INFINITY ? null
+          : new Aim(dx, dy, speed, closestBanks, closest, closestTime);
+    }
+    if (simulator.getStatusCode() != Status.STATIONARY
+        || simulator.getBounceCount() > query.maxBanks
+        || simulator.getBounceCount() < query.minBanks) {
+      return null;
+    }
+    return new Aim(dx, dy, speed, simulator.getBounceCount(),
+        Math.hypot(fromX - query.targetX, fromY - query.targetY), fromTime);
+  }
+
+  /**
+   * Picks the better of two shots, either of which may be null.
+   */
+  private static Aim better(Aim a, Aim b) {
+    if (a == null || b == null) {
+      return a == null ? b : a;
+    }
+    if (Math.abs(a.getMiss() - b.getMiss()) > TIE) {
+      return a.getMiss() < b.getMiss() ? a : b;
+    }
+    if (a.getBanks() != b.getBanks()) {
+      return a.getBanks() < b.getBanks() ? a : b;
+    }
+    return b.getSpeed() < a.getSpeed() ? b : a;
+  }
+
+  /**
+   * getter method to get width.
+   *
+   * @return width.
+   */
+  public int getTableWidth() {
+    return this.width;
+  }
+
+  /**
+   * getter method to get height.
+   *
+   * @return height.
+   */
+  public int getTableHeight() {
+    return this.height;
+  }
+
+  /**
+   * getter method to get the simulation type.
+   *
+   * @return type.
+   */
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * getter method to get the highest speed a shot may start at.
+   *
+   * @return top speed.
+   */
+  public int getMaxSpeed() {
+    return this.maxSpeed;
+  }
+
+  /**
+   * A start and target to aim for.
+   */
+  private static final class Query {
+
+    private final int x;
+    private final int y;
+    private final int radius;
+    private final double targetX;
+    private final double targetY;
+    private final int minBanks;
+    private final int maxBanks;
+    private final boolean stop;
+
+    private Query(int x, int y, int radius, double targetX, double targetY, int minBanks,
+        int maxBanks, boolean stop) {
+      this.x = x;
+      this.y = y;
+      this.radius = radius;
+      this.targetX = targetX;
+      this.targetY = targetY;
+      this.minBanks = minBanks;
+      this.maxBanks = maxBanks;
+      this.stop = stop;
+    }
+  }
+
+  /**
+   * Shots numbered from 0 that a Search tries.
+   */
+  private interface Candidates {
+
+    /**
+     * Tries one shot on the simulator of the calling thread.
+     *
+     * @return the shot, or null if it does not count.
+     */
+    Aim shot(int i, SimplePoolSimulator simulator);
+  }
+
+  /**
+   * Shots at the images of the target in the mirrored tables, measured from the edges behind the
+   * ball as StraightLineModel does. Image j along an axis lies in the j-th mirrored table from
+   * the real one, so the ball hits |j| edges on that axis to reach it.
+   */
+  private final class Mirror implements Candidates {
+
+    private final Query query;
+    private final StraightLineModel model;
+    private final double spanX;
+    private final double spanY;
+
+    private Mirror(Query query, StraightLineModel model) {
+      this.query = query;
+      this.model = model;
+      this.spanX = width - 2.0 * query.radius;
+      this.spanY = height - 2.0 * query.radius;
+    }
+
+    @Override
+    public Aim shot(int i, SimplePoolSimulator simulator) {
+      int side = 2 * query.maxBanks + 1;
+      int jx = i % side - query.maxBanks;
+      int jy = i / side - query.maxBanks;
+      int banked = Math.abs(jx) + Math.abs(jy);
+      if (banked < query.minBanks || banked > query.maxBanks) {
+        return null;
+      }
+      double startX = query.x - query.radius;
+      double startY = query.y - query.radius;
+      double ex = image(jx, query.targetX - query.radius, spanX) - startX;
+      double ey = image(jy, query.targetY - query.radius, spanY) - startY;
+      double length = Math.hypot(ex, ey);
+      if (length == 0) {
+        return null;
+      }
+      double dx = ex / length;
+      double dy = ey / length;
+      double[] banks = new double[banked];
+      int n = crossings(jx, startX, dx, spanX, banks, 0);
+      crossings(jy, startY, dy, spanY, banks, n);
+      Arrays.sort(banks);
+
+      if (query.stop && model.getDeceleration() == 0) {
+        //without friction the ball only stops at an edge
+        return null;
+      }
+      double needed = neededSpeed(banks, length);
+      int low = Math.max(1, (int) Math.floor(needed));
+      Aim best = null;
+      for (int speed = low; speed <= low + 1 && speed <= maxSpeed; speed++) {
+        simulator.start(query.x, query.y, query.radius, speed, dx, dy);
+        if (query.stop) {
+          simulator.runToRest();
+          if (simulator.getBounceCount() != banked) {
+            continue;
+          }
+        } else {
+          double time = timeTo(speed, banks, length);
+          if (Double.isNaN(time)) {
+            continue;
+          }
+          simulator.advanceTo(time);
+        }
+        double miss = Math.hypot(simulator.getBallPositionX() - query.targetX,
+            simulator.getBallPositionY() - query.targetY);
+        best = better(best, new Aim(dx, dy, speed, simulator.getBounceCount(), miss,
+            simulator.getElapsedTime()));
+      }
+      return best;
+    }
+
+    /**
+     * Position of image j of a target on the unfolded axis.
+     */
+    private double image(int j, double target, double span) {
+      return j * span + (j % 2 == 0 ? target : span - target);
+    }
+
+    /**
+     * Writes the distances along the path at which the ball hits the edges of one axis.
+     *
+     * @return the index after the last distance written.
+     */
+    private int crossings(int j, double start, double direction, double span, double[] out,
+        int n) {
+      for (int m = 1; m <= j; m++) {
+        out[n++] = (m * span - start) / direction;
+      }
+      for (int m = 0; m > j; m--) {
+        out[n++] = (m * span - start) / direction;
+      }
+      return n;
+    }
+
+    /**
+     * Walks the path back from the target, where the ball is at rest, adding the speed lost to
+     * friction on every leg and to every edge.
+     */
+    private double neededSpeed(double[] banks, double length) {
+      double speed = 0;
+      double end = length;
+      for (int k = banks.length; k >= 0; k--) {
+        double begin = k > 0 ? banks[k - 1] : 0;
+        speed = Math.sqrt(speed * speed + 2 * model.getDeceleration() * (end - begin));
+        if (k > 0) {
+          speed += model.getHitLoss();
+        }
+        end = begin;
+      }
+      return speed;
+    }
+
+    /**
+     * Time the ball takes to reach the target along the path.
+     *
+     * @return the time, or NaN if it stops first.
+     */
+    private double timeTo(double speed, double[] banks, double length) {
+      double time = 0;
+      double begin = 0;
+      for (int k = 0; k <= banks.length; k++) {
+        double end = k < banks.length ? banks[k] : length;
+        double leg = model.timeToTravel(speed, end - begin);
+        if (Double.isInfinite(leg)) {
+          return Double.NaN;
+        }
+        time += leg;
+        speed = model.speedAfter(speed, leg);
+        if (k < banks.length) {
+          speed -= model.getHitLoss();
+          if (speed <= 0) {
+            return Double.NaN;
+          }
+        }
+        begin = end;
+      }
+      return time;
+    }
+  }
+
+  /**
+   * Shots in SWEEP_DIRECTIONS evenly spaced directions at SWEEP_SPEEDS speeds each.
+   */
+  private final class Sweep implements Candidates {
+
+    private final Query query;
+
+    private Sweep(Query query) {
+      this.query = query;
+    }
+
+    @Override
+    public Aim shot(int i, SimplePoolSimulator simulator) {
+      double angle = 2 * Math.PI * (i % SWEEP_DIRECTIONS) / SWEEP_DIRECTIONS;
+      int speed = Math.max(1, maxSpeed * (i / SWEEP_DIRECTIONS + 1) / SWEEP_SPEEDS);
+      return shoot(query, Math.cos(angle), Math.sin(angle), speed, simulator);
+    }
+  }
+
+  /**
+   * A range of candidate shots that splits in half until it is small enough to run on one thread,
+   * and gives the best shot of the range.
+   */
+  private final class Search extends RecursiveTask<Aim> {
+
+    private final Candidates candidates;
+    private final int from;
+    private final int to;
+
+    private Search(Candidates candidates, int from, int to) {
+      this.candidates = candidates;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Aim compute() {
+      if (to - from <= LEAF) {
+        SimplePoolSimulator simulator = simulators.get();
+        Aim best = null;
+        for (int i = from; i < to; i++) {
+          best = better(best, candidates.shot(i, simulator));
+        }
+        return best;
+      }
+      int mid = (from + to) >>> 1;
+      Search left = new Search(candidates, from, mid);
+      left.fork();
+      Aim right = new Search(candidates, mid, to).compute();
+      return better(left.join(), right);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package sim;
+
+/**
+ * The Ball class holds the state of the ball of a SimplePoolSimulator that a PhysicsModel moves:
+ * its position, its speed along a unit direction, its spin, the time since start, and the edges it
+ * has hit. The spin about the horizontal axes is kept as the velocity the ball would roll at with
+ * it, so it needs no radius; models without spin ignore it.
+ */
+public final class Ball {
+
+  //number of values save writes
+  static final int STATE_SIZE = 11;
+  private static final Edge[] EDGES = Edge.values();
+
+  private double x;
+  private double y;
+  private double radius;
+  private double speed;
+  private double dx;
+  private double dy;
+  private double spinX;
+  private double spinY;
+  private double time;
+  private int bounces;
+  private Edge lastEdge;
+
+  Ball() {
+    this.x = Double.NEGATIVE_INFINITY;
+    this.y = Double.NEGATIVE_INFINITY;
+    this.radius = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Places the ball at the start of a shot, without spin. The direction is scaled to unit length.
+   */
+  void reset(double x, double y, double radius, double speed, double dx, double dy) {
+    double mag = Math.sqrt(dx * dx + dy * dy);
+    this.x = x;
+    this.y = y;
+    this.radius = radius;
+    this.speed = speed;
+    this.dx = dx / mag;
+    this.dy = dy / mag;
+    this.spinX = 0;
+    this.spinY = 0;
+    this.time = 0;
+    this.bounces = 0;
+    this.lastEdge = null;
+  }
+
+  /**
+   * Moves the ball.
+   *
+   * @param x the new X-coordinate.
+   * @param y the new Y-coordinate.
+   */
+  public void moveTo(double x, double y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  /**
+   * Sets the speed of the ball. A speed of zero or less stops the ball.
+   *
+   * @param speed the new speed.
+   */
+  public void setSpeed(double speed) {
+    this.speed = Math.max(0, speed);
+  }
+
+  /**
+   * Sets the direction of the ball.
+   *
+   * @param dx the X component of a unit direction.
+   * @param dy the Y component of a unit direction.
+   */
+  public void setDirection(double dx, double dy) {
+    this.dx = dx;
+    this.dy = dy;
+  }
+
+  /**
+   * Sets the spin of the ball.
+   *
+   * @param spinX the X component of the velocity the ball would roll at with its spin.
+   * @param spinY the Y component of the velocity the ball would roll at with its spin.
+   */
+  public void setSpin(double spinX, double spinY) {
+    this.spinX = spinX;
+    this.spinY = spinY;
+  }
+
+  /**
+   * Adds to the time since start.
+   *
+   * @param time the time that passed.
+   */
+  public void addTime(double time) {
+    this.time += time;
+  }
+
+  /**
+   * Bounces the ball off an edge: reverses the direction across it and counts the hit.
+   *
+   * @param edge the edge that was hit.
+   */
+  public void hit(Edge edge) {
+    if (edge.isVertical()) {
+      this.dx = -1 * this.dx;
+    } else {
+      this.dy = -1 * this.dy;
+    }
+    this.bounces++;
+    this.lastEdge = edge;
+  }
+
+  /**
+   * Counts edges that were hit without calling hit for each of them, for models that skip over
+   * many bounces at once. The direction must be set separately.
+   *
+   * @param count the number of edges hit.
+   * @param last  the edge hit last, or null if count is zero.
+   */
+  public void countHits(long count, Edge last) {
+    if (count > 0) {
+      this.bounces = (int) Math.min(Integer.MAX_VALUE, this.bounces + count);
+      this.lastEdge = last;
+    }
+  }
+
+  /**
+   * Writes the state of the ball into a buffer.
+   */
+  void save(double[] out, int offset) {
+    out[offset] = x;
+    out[offset + 1] = y;
+    out[offset + 2] = radius;
+    out[offset + 3] = speed;
+    out[offset + 4] = dx;
+    out[offset + 5] = dy;
+    out[offset + 6] = time;
+    out[offset + 7] = bounces;
+    out[offset + 8] = lastEdge == null ? -1 : lastEdge.ordinal();
+    out[offset + 9] = spinX;
+    out[offset + 10] = spinY;
+  }
+
+  /**
+   * Reads the state of the ball back from a buffer written by save.
+   */
+  void load(double[] in, int offset) {
+    x = in[offset];
+    y = in[offset + 1];
+    radius = in[offset + 2];
+    speed = in[offset + 3];
+    dx = in[offset + 4];
+    dy = in[offset + 5];
+    time = in[offset + 6];
+    bounces = (int) in[offset + 7];
+    int edge = (int) in[offset + 8];
+    lastEdge = edge < 0 ? null : EDGES[edge];
+    spinX = in[offset + 9];
+    spinY = in[offset + 10];
+  }
+
+  /**
+   * getter method to get x.
+   *
+   * @return x.
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * getter method to get y.
+   *
+   * @return y.
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * getter method to get radius.
+   *
+   * @return radius.
+   */
+  public double getRadius() {
+    return radius;
+  }
+
+  /**
+   * getter method to get speed.
+   *
+   * @return speed.
+   */
+  public double getSpeed() {
+    return speed;
+  }
+
+  /**
+   * getter method to get the X component of the direction.
+   *
+   * @return dx.
+   */
+  public double getDx() {
+    return dx;
+  }
+
+  /**
+   * getter method to get the Y component of the direction.
+   *
+   * @return dy.
+   */
+  public double getDy() {
+    return dy;
+  }
+
+  /**
+   * getter method to get the X component of the velocity the ball would roll at with its spin.
+   *
+   * @return spin x.
+   */
+  public double getSpinX() {
+    return spinX;
+  }
+
+  /**
+   * getter method to get the Y component of the velocity the ball would roll at with its spin.
+   *
+   * @return spin y.
+   */
+  public double getSpinY() {
+    return spinY;
+  }
+
+  /**
+   * getter method to get the time since start.
+   *
+   * @return time.
+   */
+  public double getTime() {
+    return time;
+  }
+
+  /**
+   * getter method to get the number of edges hit since start.
+   *
+   * @return bounce count.
+   */
+  public int getBounces() {
+    return bounces;
+  }
+
+  /**
+   * getter method to get the edge hit last.
+   *
+   * @return the edge, or null before the first bounce.
+   */
+  public Edge getLastEdge() {
+    return lastEdge;
+  }
+}
@@ -0,0 +1,180 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * The BallStore class keeps the state of many balls as parallel primitive columns, one array per
+ * property, instead of one object per ball. Scans over a property read memory sequentially, and
+ * updating a ball does not allocate. Positions and velocities are as of the time in the time
+ * column; speed is the length of the velocity and is kept so it does not have to be recomputed.
+ */
+final class BallStore {
+
+  static final byte EMPTY = 0;
+  static final byte RESTING = 1;
+  static final byte MOVING = 2;
+
+  double[] x;
+  double[] y;
+  double[] vx;
+  double[] vy;
+  double[] radius;
+  double[] speed;
+  double[] time;
+  byte[] status;
+  private int size;
+
+  /**
+   * Constructs an empty BallStore.
+   *
+   * @param capacity number of balls to make room for.
+   */
+  BallStore(int capacity) {
+    capacity = Math.max(capacity, 1);
+    x = new double[capacity];
+    y = new double[capacity];
+    vx = new double[capacity];
+    vy = new double[capacity];
+    radius = new double[capacity];
+    speed = new double[capacity];
+    time = new double[capacity];
+    status = new byte[capacity];
+  }
+
+  /**
+   * Appends a ball, growing the columns if needed.
+   *
+   * @param x      X-coordinate of the ball.
+   * @param y      Y-coordinate of the ball.
+   * @param radius radius of the ball.
+   * @param vx     velocity in the X direction.
+   * @param vy     velocity in the Y direction.
+   * @param time   time the state is taken at.
+   * @return index of the new ball.
+   */
+  int add(double x, double y, double radius, double vx, double vy, double time) {
+    if (size == this.x.length) {
+      grow(size * 2);
+    }
+    set(size, x, y, radius, vx, vy, time);
+    return size++;
+  }
+
+  /**
+   * Replaces the state of a ball.
+   *
+   * @param i      index of the ball.
+   * @param x      X-coordinate of the ball.
+   * @param y      Y-coordinate of the ball.
+   * @param radius radius of the ball.
+   * @param vx     velocity in the X direction.
+   * @param vy     velocity in the Y direction.
+   * @param time   time the state is taken at.
+   */
+  void set(int i, double x, double y, double radius, double vx, double vy, double time) {
+    this.x[i] = x;
+    this.y[i] = y;
+    this.radius[i] = radius;
+    setVelocity(i, vx, vy);
+    this.time[i] = time;
+  }
+
+  /**
+   * Replaces the velocity of a ball and updates its speed and status to match.
+   *
+   * @param i  index of the ball.
+   * @param vx velocity in the X direction.
+   * @param vy velocity in the Y direction.
+   */
+  void setVelocity(int i, double vx, double vy) {
+    double s = Math.sqrt(vx * vx + vy * vy);
+    this.vx[i] = vx;
+    this.vy[i] = vy;
+    this.speed[i] = s;
+    this.status[i] = s > 0 ? MOVING : RESTING;
+  }
+
+  /**
+   * Changes the speed of a ball, keeping its direction. A ball slowed to zero or below rests.
+   *
+   * @param i        index of the ball.
+   * @param newSpeed the new speed.
+   */
+  void setSpeed(int i, double newSpeed) {
+    double old = speed[i];
+    if (newSpeed <= 0 || old <= 0) {
+      vx[i] = 0;
+      vy[i] = 0;
+      speed[i] = 0;
+      status[i] = RESTING;
+      return;
+    }
+    double scale = newSpeed / old;
+    vx[i] *= scale;
+    vy[i] *= scale;
+    speed[i] = newSpeed;
+  }
+
+  /**
+   * Writes every column into a buffer, one column after the other, 8 values per ball.
+   *
+   * @param out    the buffer.
+   * @param offset where the first value goes.
+   */
+  void save(double[] out, int offset) {
+    int n = size;
+    System.arraycopy(x, 0, out, offset, n);
+    System.arraycopy(y, 0, out, offset + n, n);
+    System.arraycopy(vx, 0, out, offset + 2 * n, n);
+    System.arraycopy(vy, 0, out, offset + 3 * n, n);
+    System.arraycopy(radius, 0, out, offset + 4 * n, n);
+    System.arraycopy(speed, 0, out, offset + 5 * n, n);
+    System.arraycopy(time, 0, out, offset + 6 * n, n);
+    for (int i = 0; i < n; i++) {
+      out[offset + 7 * n + i] = status[i];
+    }
+  }
+
+  /**
+   * Replaces every ball with the ones of a buffer written by save.
+   *
+   * @param in     the buffer.
+   * @param offset where the first value is.
+   * @param n      the number of balls in the buffer.
+   */
+  void load(double[] in, int offset, int n) {
+    if (n > x.length) {
+      grow(n);
+    }
+    System.arraycopy(in, offset, x, 0, n);
+    System.arraycopy(in, offset + n, y, 0, n);
+    System.arraycopy(in, offset + 2 * n, vx, 0, n);
+    System.arraycopy(in, offset + 3 * n, vy, 0, n);
+    System.arraycopy(in, offset + 4 * n, radius, 0, n);
+    System.arraycopy(in, offset + 5 * n, speed, 0, n);
+    System.arraycopy(in, offset + 6 * n, time, 0, n);
+    for (int i = 0; i < n; i++) {
+      status[i] = (byte) in[offset + 7 * n + i];
+    }
+    size = n;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  private void grow(int capacity) {
+    x = Arrays.copyOf(x, capacity);
+    y = Arrays.copyOf(y, capacity);
+    vx = Arrays.copyOf(vx, capacity);
+    vy = Arrays.copyOf(vy, capacity);
+    radius = Arrays.copyOf(radius, capacity);
+    speed = Arrays.copyOf(speed, capacity);
+    time = Arrays.copyOf(time, capacity);
+    status = Arrays.copyOf(status, capacity);
+  }
+}
@@ -1,31 +1,57 @@
 package sim;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 /**
  * The BallView class represents a graphical view of the ball positions in a pool simulation. It
  * extends JFrame and provides methods to display and navigate through ball positions using arrow
- * keys.
+ * keys, or to play them back with the space bar. A live simulation runs on a background thread
+ * that hands each step to the view through a FrameRing, so the window shows up at once and fills
+ * in as the steps arrive; a MultiBallPoolSimulator hands over every ball at each step. The view
+ * streams the steps to a temporary trajectory file and follows it with one memory-mapped reader,
+ * so a long run does not pile up in memory. The table is drawn once into an image and the trail
+ * of the balls is added to a second image a segment at a time, so a step only repaints the area
+ * around the ball that moved.
  */
 
 
 public class BallView extends JFrame {
 
-  List<Integer> ballX;
-  List<Integer> ballY;
-  List<Integer> ballRadius;
+  /**
+   * Highest number of steps per second shown during playback.
+   */
+  public static final int MAX_FRAME_RATE = 60;
+
+  private static final int RING_CAPACITY = 1024;
+  private static final int POLL_MILLIS = 15;
+  //the live file is mapped a chunk at a time as it grows
+  private static final long LIVE_CHUNK_BYTES = 1 << 20;
+  private static final int OFFSET = 20;
+
   int tableWidth;
   int tableHeight;
-  int step;
+  private Thread producer;
+  private Timer consumer;
+  private TrajectoryWriter writer;
+  private final Timer playback;
+  private final TablePanel panel;
 
   /**
    * Constructs a BallView object with the given PoolSimulator.
@@ -34,68 +60,83 @@ public class BallView extends JFrame {
    */
 
   public BallView(PoolSimulator simulator) {
-    super("Ball Viewer");
-    extractBallPositions(simulator);
-    step = 1;
-    //setSize(500,500);
-    this.add(new JPanel() {
-
-      /**
-       * overrided dimension method.
-       * @return proper table width and height.
-       */
-
-      @Override
-      public Dimension getPreferredSize() {
-        return new Dimension((int) (1.5 * tableWidth), (int) (1.5 * tableHeight));
+    this(simulator.getTableWidth(), simulator.getTableHeight(), null);
+    try {
+      Path file = Files.createTempFile("trajectory", ".bin");
+      file.toFile().deleteOnExit();
+      writer = new TrajectoryWriter(file, tableWidth, tableHeight);
+      //the header must be in the file before it is opened
+      writer.flush();
+      panel.frames = new TrajectoryReader(file, LIVE_CHUNK_BYTES);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    FrameRing ring = new FrameRing(RING_CAPACITY);
+    producer = new Thread(() -> extractBallPositions(simulator, ring), "ball-view-producer");
+    producer.setDaemon(true);
+    consumer = new Timer(POLL_MILLIS, e -> {
+      try {
+        if (ring.drainTo(writer) > 0) {
+          writer.flush();
+          panel.frames.refresh();
+          //the current step may only just have arrived
+          show(panel.step);
+        } else if (ring.isDrained()) {
+          ((Timer) e.getSource()).stop();
+          writer.close();
+        }
+      } catch (IOException ex) {
+        ((Timer) e.getSource()).stop();
+        throw new UncheckedIOException(ex);
       }
+    });
+    producer.start();
+    consumer.start();
+  }
 
-      @Override
-      protected void paintComponent(Graphics g) {
-
-        super.paintComponent(g);
-        int offset = 20;
-        Graphics2D g2d = (Graphics2D) g;
-        int height = this.getPreferredSize().height;
-        g2d.setColor(Color.BLACK);
-        g2d.drawRect(offset, offset, tableWidth, tableHeight);
-        //draw the different ball positions
-        for (int i = step - 1; i <= step; i += 1) {
-          g2d.drawOval(
-              offset + (int) ballX.get(i).doubleValue() - (int) ballRadius.get(i).doubleValue(),
-              offset + tableHeight - 1 - ((int) ballY.get(i).doubleValue() + (int) ballRadius.get(i)
-                  .doubleValue()),
-              2 * (int) ballRadius.get(i).doubleValue(),
-              2 * (int) ballRadius.get(i).doubleValue());
-        }
+  /**
+   * Constructs a BallView object that replays a recorded trajectory.
+   *
+   * @param frames The trajectory, with one record per step of a ball.
+   */
 
-        //draw lines between the ball positions
-        for (int i = step - 1; i < step; i += 1) {
-          g2d.drawLine(
-              offset + (int) ballX.get(i).doubleValue(),
-              offset + tableHeight - 1 - (int) ballY.get(i).doubleValue(),
-              offset + (int) ballX.get(i + 1).doubleValue(),
-              offset + tableHeight - 1 - (int) ballY.get(i + 1).doubleValue());
-        }
+  public BallView(TrajectoryReader frames) {
+    this(frames.getTableWidth(), frames.getTableHeight(), frames);
+  }
+
+  private BallView(int width, int height, TrajectoryReader frames) {
+    super("Ball Viewer");
+    tableWidth = width;
+    tableHeight = height;
+    panel = new TablePanel(width, height);
+    panel.frames = frames;
+    this.add(panel);
+    playback = new Timer(1000 / MAX_FRAME_RATE, e -> {
+      if (panel.step + 1 < panel.frameCount()) {
+        show(panel.step + 1);
+      } else if (consumer == null || !consumer.isRunning()) {
+        //no more steps will arrive
+        ((Timer) e.getSource()).stop();
       }
     });
+    playback.setCoalesce(true);
     this.setFocusable(true);
     this.requestFocus();
     this.addKeyListener(new KeyAdapter() {
       @Override
       public void keyReleased(KeyEvent e) {
         if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-          step -= 1;
-          if (step < 1) {
-            step = 1;
-          }
-          repaint();
+          pause();
+          show(Math.max(1, panel.step - 1));
         } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-          step += 1;
-          if (step >= ballX.size()) {
-            step = ballX.size() - 1;
+          pause();
+          show(Math.max(1, Math.min(panel.step + 1, panel.frameCount() - 1)));
+        } else if (e.getKeyCode() == KeyEvent.VK_SPACE) {
+          if (playback.isRunning()) {
+            pause();
+          } else {
+            play(MAX_FRAME_RATE);
           }
-          repaint();
         }
       }
     });
@@ -115,25 +156,250 @@ public class BallView extends JFrame {
     JFrame view = new BallView(simulator);
   }
 
-  private void extractBallPositions(PoolSimulator simulator) {
-    ballX = new ArrayList<Integer>();
-    ballY = new ArrayList<Integer>();
-    ballRadius = new ArrayList<Integer>();
-
-    tableWidth = simulator.getTableWidth();
-    tableHeight = simulator.getTableHeight();
-    while (!simulator.getStatus().equals("Status:Ball is stationary")) {
-      ballX.add((int) simulator.getBallPositionX());
-      ballY.add((int) simulator.getBallPositionY());
-      ballRadius.add((int) simulator.getBallRadius());
-      System.out.println(simulator.getStatus());
-      simulator.advance();
+  /**
+   * Plays the steps back from the current one. Must be called on the event dispatch thread.
+   *
+   * @param frameRate steps per second, capped at MAX_FRAME_RATE.
+   * @throws IllegalArgumentException If the frame rate is not positive.
+   */
+  public void play(int frameRate) throws IllegalArgumentException {
+    if (frameRate <= 0) {
+      throw new IllegalArgumentException("frame rate must be positive");
     }
-    //the final resting place of the ball
-    ballX.add((int) simulator.getBallPositionX());
-    ballY.add((int) simulator.getBallPositionY());
-    ballRadius.add((int) simulator.getBallRadius());
+    playback.setDelay(1000 / Math.min(frameRate, MAX_FRAME_RATE));
+    playback.start();
   }
 
+  /**
+   * Stops playing the steps back. Must be called on the event dispatch thread.
+   */
+  public void pause() {
+    playback.stop();
+  }
 
+  @Override
+  public void dispose() {
+    playback.stop();
+    if (consumer != null) {
+      consumer.stop();
+      producer.interrupt();
+      try {
+        writer.close();
+        if (panel.frames != null) {
+          panel.frames.close();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    super.dispose();
+  }
+
+  /**
+   * Moves the view to a step and repaints what changed.
+   */
+  private void show(long target) {
+    Rectangle dirty = panel.moveTo(target);
+    if (dirty != null) {
+      panel.repaint(dirty);
+    }
+  }
+
+  /**
+   * Runs the simulation to rest on the producer thread, handing every step to the view.
+   */
+  static void extractBallPositions(PoolSimulator simulator, FrameRing ring) {
+    try {
+      long step = 0;
+      while (simulator.getStatusCode() != Status.STATIONARY) {
+        record(simulator, step++, ring);
+        simulator.advance();
+      }
+      //the final resting place of the balls
+      record(simulator, step, ring);
+    } catch (InterruptedException e) {
+      //the view was closed
+    } finally {
+      ring.close();
+    }
+  }
+
+  private static void record(PoolSimulator simulator, long step, FrameRing ring)
+      throws InterruptedException {
+    if (simulator instanceof MultiBallPoolSimulator) {
+      MultiBallPoolSimulator balls = (MultiBallPoolSimulator) simulator;
+      for (int b = 0; b < balls.getBallCount(); b++) {
+        offer(ring, step, b, balls.getBallPositionX(b), balls.getBallPositionY(b),
+            balls.getBallRadius(b));
+      }
+    } else {
+      offer(ring, step, 0, simulator.getBallPositionX(), simulator.getBallPositionY(),
+          simulator.getBallRadius());
+    }
+  }
+
+  private static void offer(FrameRing ring, long step, int ball, double x, double y,
+      double radius) throws InterruptedException {
+    while (!ring.offer(step, ball, x, y, radius)) {
+      //the view is behind, wait for it to take some steps
+      LockSupport.parkNanos(100_000);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  /**
+   * The panel that draws the table, the trail and the balls. The trail image holds every segment
+   * up to the step drawn so far, and the last position of every ball is kept in pixels, so moving
+   * one step forward draws one segment. Moving back redraws the trail from the start. It only
+   * needs its steps, not the frame, so it also paints headless into an image.
+   */
+  static final class TablePanel extends JPanel {
+
+    //steps of a recording, or those of a live simulation refreshed so far
+    TrajectoryReader frames;
+    //the step shown, which may not have arrived yet
+    long step = 1;
+    private final int tableWidth;
+    private final int tableHeight;
+    private BufferedImage table;
+    private BufferedImage trail;
+    //last step added to the trail, and the last position of every ball in pixels
+    private long drawn = -1;
+    private int[] ballX = new int[1];
+    private int[] ballY = new int[1];
+    private int[] ballRadius = new int[1];
+    private int balls;
+
+    TablePanel(int tableWidth, int tableHeight) {
+      this.tableWidth = tableWidth;
+      this.tableHeight = tableHeight;
+      setDoubleBuffered(true);
+    }
+
+    long frameCount() {
+      //not given its steps yet
+      return frames != null ? frames.size() : 0;
+    }
+
+    /**
+     * overrided dimension method.
+     * @return proper table width and height.
+     */
+
+    @Override
+    public Dimension getPreferredSize() {
+      return new Dimension((int) (1.5 * tableWidth), (int) (1.5 * tableHeight));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+      super.paintComponent(g);
+      if (table == null) {
+        layers();
+        moveTo(step);
+      }
+      g.drawImage(table, 0, 0, null);
+      g.drawImage(trail, 0, 0, null);
+      g.setColor(Color.BLACK);
+      Rectangle clip = g.getClipBounds();
+      for (int b = 0; b < balls; b++) {
+        int r = ballRadius[b];
+        if (r < 0) {
+          continue;
+        }
+        int left = ballX[b] - r;
+        int top = ballY[b] - r;
+        if (clip == null || clip.intersects(left, top, 2 * r + 1, 2 * r + 1)) {
+          g.drawOval(left, top, 2 * r, 2 * r);
+        }
+      }
+    }
+
+    private void layers() {
+      Dimension size = getPreferredSize();
+      int width = Math.max(1, size.width);
+      int height = Math.max(1, size.height);
+      table = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g2d = table.createGraphics();
+      g2d.setColor(Color.BLACK);
+      g2d.drawRect(OFFSET, OFFSET, tableWidth, tableHeight);
+      g2d.dispose();
+      trail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Brings the trail and ball positions to a step, or to the last step that has arrived.
+     *
+     * @return the area that changed, or null if nothing did.
+     */
+    Rectangle moveTo(long target) {
+      step = target;
+      if (trail == null) {
+        //not painted yet, the first paint catches up
+        return null;
+      }
+      target = Math.min(target, frameCount() - 1);
+      if (target == drawn) {
+        return null;
+      }
+      Rectangle dirty = null;
+      if (target < drawn) {
+        Graphics2D clear = trail.createGraphics();
+        clear.setComposite(AlphaComposite.Clear);
+        clear.fillRect(0, 0, trail.getWidth(), trail.getHeight());
+        clear.dispose();
+        Arrays.fill(ballRadius, 0, balls, -1);
+        drawn = -1;
+        dirty = new Rectangle(0, 0, getWidth(), getHeight());
+      }
+      Graphics2D g2d = trail.createGraphics();
+      g2d.setColor(Color.BLACK);
+      for (long i = drawn + 1; i <= target; i++) {
+        Rectangle changed = addStep(g2d, i);
+        if (dirty == null) {
+          dirty = changed;
+        } else {
+          dirty.add(changed);
+        }
+      }
+      g2d.dispose();
+      drawn = target;
+      return dirty;
+    }
+
+    /**
+     * Draws the segment a ball travelled to reach a step and moves the ball there.
+     *
+     * @return the area around the old and new position of the ball.
+     */
+    private Rectangle addStep(Graphics2D g2d, long i) {
+      int b = frames.getBall(i);
+      if (b >= ballX.length) {
+        int length = Math.max(b + 1, 2 * ballX.length);
+        ballX = Arrays.copyOf(ballX, length);
+        ballY = Arrays.copyOf(ballY, length);
+        ballRadius = Arrays.copyOf(ballRadius, length);
+      }
+      if (b >= balls) {
+        Arrays.fill(ballRadius, balls, b + 1, -1);
+        balls = b + 1;
+      }
+      int x = OFFSET + (int) frames.getX(i);
+      int y = OFFSET + tableHeight - 1 - (int) frames.getY(i);
+      int r = (int) frames.getRadius(i);
+      Rectangle dirty = new Rectangle(x - r - 1, y - r - 1, 2 * r + 3, 2 * r + 3);
+      int old = ballRadius[b];
+      if (old >= 0) {
+        g2d.drawLine(ballX[b], ballY[b], x, y);
+        dirty.add(new Rectangle(ballX[b] - old - 1, ballY[b] - old - 1, 2 * old + 3,
+            2 * old + 3));
+      }
+      ballX[b] = x;
+      ballY[b] = y;
+      ballRadius[b] = r;
+      return dirty;
+    }
+  }
 }
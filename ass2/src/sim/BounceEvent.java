@@ -0,0 +1,110 @@
+package sim;
+
+/**
+ * The BounceEvent class is one event of a simulation run, as yielded by PoolSimulator.events or
+ * ShotBatch.events: the state of the ball involved just after it.
+ */
+public final class BounceEvent {
+
+  private final int shot;
+  private final int ball;
+  private final double time;
+  private final double x;
+  private final double y;
+  private final double vx;
+  private final double vy;
+  private final Status status;
+
+  BounceEvent(int shot, int ball, double time, double x, double y, double vx, double vy,
+      Status status) {
+    this.shot = shot;
+    this.ball = ball;
+    this.time = time;
+    this.x = x;
+    this.y = y;
+    this.vx = vx;
+    this.vy = vy;
+    this.status = status;
+  }
+
+  /**
+   * getter method to get the index of the shot in its batch.
+   *
+   * @return shot, 0 for the events of a simulator.
+   */
+  public int getShot() {
+    return shot;
+  }
+
+  /**
+   * getter method to get the ball the event happened to.
+   *
+   * @return index of the ball, or -1 if the event names no ball.
+   */
+  public int getBall() {
+    return ball;
+  }
+
+  /**
+   * getter method to get the time of the event since start.
+   *
+   * @return time.
+   */
+  public double getTime() {
+    return time;
+  }
+
+  /**
+   * getter method to get x, of ball 0 if the event names no ball.
+   *
+   * @return x.
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * getter method to get y, of ball 0 if the event names no ball.
+   *
+   * @return y.
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * getter method to get velocity vx, of ball 0 if the event names no ball.
+   *
+   * @return velocity.
+   */
+  public double getVelocityX() {
+    return vx;
+  }
+
+  /**
+   * getter method to get velocity vy, of ball 0 if the event names no ball.
+   *
+   * @return velocity.
+   */
+  public double getVelocityY() {
+    return vy;
+  }
+
+  /**
+   * getter method to get the status the simulator reported after the event.
+   *
+   * @return status.
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * getter method to get the edge hit by the event.
+   *
+   * @return the edge, or null if the event was not an edge hit.
+   */
+  public Edge getEdge() {
+    return status.getEdge();
+  }
+}
@@ -0,0 +1,63 @@
+package sim;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The BounceSpliterator class yields the events of one simulation run: every call to tryAdvance
+ * calls advance on the simulator and yields the event it moved to, until the simulator is at
+ * rest. Nothing is simulated until an event is asked for, so a stream that stops early also stops
+ * the simulation. A single run cannot be split; ShotBatchSpliterator splits many runs.
+ */
+final class BounceSpliterator implements Spliterator<BounceEvent> {
+
+  private final PoolSimulator simulator;
+  private final Supplier<BounceEvent> event;
+
+  /**
+   * Constructs a BounceSpliterator.
+   *
+   * @param simulator the simulator to advance.
+   * @param event     reads the event the simulator is at.
+   */
+  BounceSpliterator(PoolSimulator simulator, Supplier<BounceEvent> event) {
+    this.simulator = simulator;
+    this.event = event;
+  }
+
+  /**
+   * Streams the events of a simulator from where it is now.
+   */
+  static Stream<BounceEvent> stream(PoolSimulator simulator, Supplier<BounceEvent> event) {
+    return StreamSupport.stream(new BounceSpliterator(simulator, event), false);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super BounceEvent> action) {
+    Status status = simulator.getStatusCode();
+    if (status == Status.STATIONARY || status == Status.NOT_SET_UP) {
+      return false;
+    }
+    simulator.advance();
+    action.accept(event.get());
+    return true;
+  }
+
+  @Override
+  public Spliterator<BounceEvent> trySplit() {
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+}
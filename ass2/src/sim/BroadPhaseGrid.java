@@ -0,0 +1,181 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * The BroadPhaseGrid class is a uniform grid over the table that remembers which cells the path
+ * of every ball passes through. Paths can be replaced one ball at a time, and the balls sharing a
+ * cell with a given ball are its only candidates for a collision, so updating a ball after an
+ * event touches a handful of cells instead of the whole rack.
+ */
+final class BroadPhaseGrid {
+
+  /**
+   * Callback for the neighbours reported by the grid.
+   */
+  interface NeighbourVisitor {
+
+    void visit(int other);
+  }
+
+  private double cellSize;
+  private int cols;
+  private int rows;
+  private int[][] cellItems = new int[0][];
+  private int[] cellCounts = new int[0];
+  private int[] cellMarks = new int[0];
+  private int cellMark;
+
+  private int[][] idCells = new int[0][];
+  private int[] idCellCounts = new int[0];
+  private int[] idMarks = new int[0];
+  private int idMark;
+
+  /**
+   * Empties the grid and sets the area it covers.
+   *
+   * @param width    width of the table.
+   * @param height   height of the table.
+   * @param cellSize side of a cell.
+   * @param ids      number of ids that will be stored.
+   */
+  void reset(int width, int height, double cellSize, int ids) {
+    this.cellSize = Math.max(1, cellSize);
+    this.cols = Math.max(1, (int) Math.ceil(width / this.cellSize));
+    this.rows = Math.max(1, (int) Math.ceil(height / this.cellSize));
+    int cells = cols * rows;
+    if (cellItems.length < cells) {
+      cellItems = Arrays.copyOf(cellItems, cells);
+      cellMarks = new int[cells];
+      cellMark = 0;
+    }
+    cellCounts = new int[cells];
+    if (idCells.length < ids) {
+      idCells = Arrays.copyOf(idCells, ids);
+      idMarks = new int[ids];
+      idMark = 0;
+    }
+    idCellCounts = new int[idCells.length];
+  }
+
+  /**
+   * Stores the cells covered by a ball of the given radius moving along a straight segment. Any
+   * cells stored for the id before are dropped.
+   *
+   * @param id     id of the ball.
+   * @param x0     X-coordinate where the path starts.
+   * @param y0     Y-coordinate where the path starts.
+   * @param x1     X-coordinate where the path ends.
+   * @param y1     Y-coordinate where the path ends.
+   * @param radius radius of the ball.
+   */
+  void insertPath(int id, double x0, double y0, double x1, double y1, double radius) {
+    remove(id);
+    nextCellMark();
+    double length = Math.sqrt((x1 - x0) * (x1 - x0) + (y1 - y0) * (y1 - y0));
+    int samples = (int) Math.ceil(length / cellSize) + 1;
+    double spacing = samples > 1 ? length / (samples - 1) : 0;
+    //every point of the segment is within spacing / 2 of a sample
+    double half = radius + spacing / 2;
+    for (int s = 0; s < samples; s++) {
+      double t = samples > 1 ? (double) s / (samples - 1) : 0;
+      double x = x0 + (x1 - x0) * t;
+      double y = y0 + (y1 - y0) * t;
+      int cx1 = col(x + half);
+      int cy1 = row(y + half);
+      for (int cy = row(y - half); cy <= cy1; cy++) {
+        for (int cx = col(x - half); cx <= cx1; cx++) {
+          int cell = cy * cols + cx;
+          if (cellMarks[cell] != cellMark) {
+            cellMarks[cell] = cellMark;
+            addToCell(cell, id);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops every cell stored for an id.
+   *
+   * @param id id of the ball.
+   */
+  void remove(int id) {
+    int[] cells = idCells[id];
+    for (int k = 0; k < idCellCounts[id]; k++) {
+      int cell = cells[k];
+      int[] items = cellItems[cell];
+      int last = --cellCounts[cell];
+      for (int p = 0; p <= last; p++) {
+        if (items[p] == id) {
+          items[p] = items[last];
+          break;
+        }
+      }
+    }
+    idCellCounts[id] = 0;
+  }
+
+  /**
+   * Reports every other id that shares at least one cell with the given id, each one once.
+   *
+   * @param id      id of the ball.
+   * @param visitor receives the other ids.
+   */
+  void forEachNeighbour(int id, NeighbourVisitor visitor) {
+    if (++idMark == 0) {
+      Arrays.fill(idMarks, 0);
+      idMark = 1;
+    }
+    idMarks[id] = idMark;
+    int[] cells = idCells[id];
+    for (int k = 0; k < idCellCounts[id]; k++) {
+      int cell = cells[k];
+      int[] items = cellItems[cell];
+      for (int p = 0; p < cellCounts[cell]; p++) {
+        int other = items[p];
+        if (idMarks[other] != idMark) {
+          idMarks[other] = idMark;
+          visitor.visit(other);
+        }
+      }
+    }
+  }
+
+  private void addToCell(int cell, int id) {
+    int[] items = cellItems[cell];
+    if (items == null) {
+      items = new int[4];
+      cellItems[cell] = items;
+    } else if (cellCounts[cell] == items.length) {
+      items = Arrays.copyOf(items, items.length * 2);
+      cellItems[cell] = items;
+    }
+    items[cellCounts[cell]++] = id;
+
+    int[] cells = idCells[id];
+    if (cells == null) {
+      cells = new int[8];
+      idCells[id] = cells;
+    } else if (idCellCounts[id] == cells.length) {
+      cells = Arrays.copyOf(cells, cells.length * 2);
+      idCells[id] = cells;
+    }
+    cells[idCellCounts[id]++] = cell;
+  }
+
+  private void nextCellMark() {
+    if (++cellMark == 0) {
+      Arrays.fill(cellMarks, 0);
+      cellMark = 1;
+    }
+  }
+
+  private int col(double x) {
+    return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+  }
+
+  private int row(double y) {
+    return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+  }
+}
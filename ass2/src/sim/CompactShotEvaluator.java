@@ -0,0 +1,379 @@
+package sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The CompactShotEvaluator class runs every shot of a ShotBatch to rest like runToRest of
+ * SimplePoolSimulator, but in float precision, for sweeps so wide that double state is the limit.
+ * Given a ShotBatch.compact and a ShotResults.compact, a sweep holds 41 bytes a shot instead of
+ * the 61 of double columns. The shots are stepped edge to edge in blocks of float columns that
+ * each thread reuses, so a vector register holds twice as many lanes: one event of every moving
+ * shot per pass over the columns, and shots that come to rest are moved behind the moving ones so
+ * later passes stay dense. The motion is the closed form of
+ * StraightLineModel, so only its models can be run.
+ *
+ * <p>Error bound: with a float carrying 24 bits, the final position of a shot is within
+ * positionError(bounces) of where the double-precision simulator puts it, which is
+ * 2^-16 * max(width, height) * (bounces + 1), and the time to rest is within the same relative
+ * error. The bounce count and last edge are exact unless the ball stops within that distance of an
+ * edge or passes that close to a corner, where the two precisions may disagree on whether or in
+ * which order the edges are hit; the position is still within the bound. Shots the columns cannot
+ * represent, with no direction or a ball as wide as the table, run on a double-precision
+ * simulator. A shot still moving after ShotBatchEvaluator.MAX_STEPS passes is cut off and marked
+ * ShotResults.CAPPED.
+ */
+public final class CompactShotEvaluator {
+
+  private static final int BLOCK = 1024;
+  private static final double ERROR = 0x1p-16;
+
+  private final int width;
+  private final int height;
+  private final String type;
+  private final float deceleration;
+  private final float hitLoss;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+  private final ThreadLocal<SimplePoolSimulator> simulators;
+
+  /**
+   * Constructs a CompactShotEvaluator for the given table that runs on the common pool.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, the name of a StraightLineModel.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator, or
+   *                                  the model is not a StraightLineModel that stops every ball.
+   */
+  public CompactShotEvaluator(int width, int height, String type)
+      throws IllegalArgumentException {
+    this(width, height, type, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a CompactShotEvaluator for the given table that runs on the given pool.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, the name of a StraightLineModel.
+   * @param pool   The pool that runs the shots.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator, or
+   *                                  the model is not a StraightLineModel that stops every ball.
+   */
+  public CompactShotEvaluator(int width, int height, String type, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    new SimplePoolSimulator(width, height, type);
+    PhysicsModel model = PhysicsModels.create(type);
+    if (!(model instanceof StraightLineModel)) {
+      throw new IllegalArgumentException("not a straight line model");
+    }
+    StraightLineModel line = (StraightLineModel) model;
+    if (line.getDeceleration() == 0 && line.getHitLoss() == 0) {
+      throw new IllegalArgumentException("the ball never comes to rest");
+    }
+    this.width = width;
+    this.height = height;
+    this.type = type;
+    this.deceleration = (float) line.getDeceleration();
+    this.hitLoss = (float) line.getHitLoss();
+    this.pool = pool;
+    this.simulators = ThreadLocal.withInitial(() -> new SimplePoolSimulator(width, height, type));
+  }
+
+  /**
+   * Gives the bound on the distance between the final position of a shot and the one the
+   * double-precision simulator gives, see the class comment.
+   *
+   * @param bounces the number of edges the shot hit.
+   * @return the distance.
+   */
+  public double positionError(int bounces) {
+    return ERROR * Math.max(width, height) * (bounces + 1);
+  }
+
+  /**
+   * Gives the bound on the relative difference between the time to rest of a shot and the one the
+   * double-precision simulator gives.
+   *
+   * @param bounces the number of edges the shot hit.
+   * @return the relative difference.
+   */
+  public double timeError(int bounces) {
+    return ERROR * (bounces + 1);
+  }
+
+  /**
+   * Runs every shot of the batch to rest.
+   *
+   * @param shots the shots to run.
+   * @return the outcome of every shot, in the order of the batch.
+   */
+  public ShotResults evaluate(ShotBatch shots) {
+    ShotResults results = new ShotResults(shots.size());
+    evaluate(shots, results);
+    return results;
+  }
+
+  /**
+   * Runs every shot of the batch to rest and writes the outcomes into an existing ShotResults.
+   *
+   * @param shots   the shots to run.
+   * @param results receives the outcomes, must hold at least as many shots as the batch.
+   */
+  public void evaluate(ShotBatch shots, ShotResults results) {
+    if (results.size() < shots.size()) {
+      throw new IllegalArgumentException("results are smaller than the batch");
+    }
+    pool.invoke(new Range(shots, results, 0, shots.size()));
+  }
+
+  /**
+   * Runs the shots of one block to rest.
+   */
+  private void run(ShotBatch shots, ShotResults results, int from, int to) {
+    Block block = blocks.get();
+    int n = 0;
+    for (int i = from; i < to; i++) {
+      if (!block.load(n, shots, i, width, height)) {
+        runDouble(shots, results, i);
+        continue;
+      }
+      block.shot[n++] = i;
+    }
+    int moving = n;
+    for (int pass = 0; moving > 0 && pass < ShotBatchEvaluator.MAX_STEPS; pass++) {
+      block.step(moving, width, height, deceleration, hitLoss);
+      moving = block.compact(moving);
+    }
+    //rows still moving after MAX_STEPS passes are cut off, and stay at the front
+    for (int k = 0; k < n; k++) {
+      results.set(block.shot[k], block.x(k, width), block.y(k, height), block.bounces[k],
+          block.time[k], k < moving ? ShotResults.CAPPED : block.edge[k]);
+    }
+  }
+
+  /**
+   * Runs a shot on the double-precision simulator of the calling thread.
+   */
+  private void runDouble(ShotBatch shots, ShotResults results, int i) {
+    SimplePoolSimulator simulator = simulators.get();
+    try {
+      shots.startShot(i, simulator);
+      simulator.runToRest();
+    } catch (IllegalArgumentException e) {
+      results.set(i, Double.NaN, Double.NaN, -1, Double.NaN, ShotResults.INVALID);
+      return;
+    }
+    results.set(i, simulator.getBallPositionX(), simulator.getBallPositionY(),
+        simulator.getBounceCount(), simulator.getElapsedTime(),
+        ShotResults.edgeCode(simulator.getLastEdge()));
+  }
+
+  /**
+   * getter method to get width.
+   *
+   * @return width.
+   */
+  public int getTableWidth() {
+    return this.width;
+  }
+
+  /**
+   * getter method to get height.
+   *
+   * @return height.
+   */
+  public int getTableHeight() {
+    return this.height;
+  }
+
+  /**
+   * getter method to get the simulation type.
+   *
+   * @return type.
+   */
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * The float columns of up to BLOCK shots, kept by each thread and reused for every block. A
+   * position is kept as the distance to the edge ahead on each axis rather than as a coordinate,
+   * so a short leg next to a far edge of a large table keeps the precision of its own length.
+   */
+  private static final class Block {
+
+    private final int[] shot = new int[BLOCK];
+    private final float[] aheadX = new float[BLOCK];
+    private final float[] aheadY = new float[BLOCK];
+    private final float[] dx = new float[BLOCK];
+    private final float[] dy = new float[BLOCK];
+    private final float[] radius = new float[BLOCK];
+    private final float[] speed = new float[BLOCK];
+    private final float[] time = new float[BLOCK];
+    private final int[] bounces = new int[BLOCK];
+    private final byte[] edge = new byte[BLOCK];
+
+    /**
+     * Loads a shot into a row, with the checks of SimplePoolSimulator.start.
+     *
+     * @return false if the row cannot hold the shot and it must run in double precision.
+     */
+    private boolean load(int k, ShotBatch shots, int i, int width, int height) {
+      int r = shots.getRadius(i);
+      int px = shots.getX(i);
+      int py = shots.getY(i);
+      double mag = Math.sqrt(shots.getDx(i) * shots.getDx(i) + shots.getDy(i) * shots.getDy(i));
+      if (r < 0 || shots.getSpeed(i) <= 0 || px - r < 0 || px + r > width || py - r < 0
+          || py + r > height || !(mag > 0) || Double.isInfinite(mag)
+          || 2 * r >= width || 2 * r >= height) {
+        //rejected shots go to the simulator as well, which marks them
+        return false;
+      }
+      radius[k] = r;
+      speed[k] = shots.getSpeed(i);
+      dx[k] = (float) (shots.getDx(i) / mag);
+      dy[k] = (float) (shots.getDy(i) / mag);
+      aheadX[k] = dx[k] > 0 ? width - r - px : px - r;
+      aheadY[k] = dy[k] > 0 ? height - r - py : py - r;
+      time[k] = 0;
+      bounces[k] = 0;
+      edge[k] = ShotResults.NO_EDGE;
+      return true;
+    }
+
+    /**
+     * Moves every shot of the first rows to its next edge, or to rest if it stops before reaching
+     * one.
+     */
+    private void step(int n, int width, int height, float deceleration, float hitLoss) {
+      for (int k = 0; k < n; k++) {
+        float v = speed[k];
+        float r = radius[k];
+        float ux = dx[k];
+        float uy = dy[k];
+        boolean right = ux > 0;
+        boolean top = uy > 0;
+        //length along the path to the edge ahead on each axis
+        float lengthX = ux == 0 ? Float.POSITIVE_INFINITY : aheadX[k] / Math.abs(ux);
+        float lengthY = uy == 0 ? Float.POSITIVE_INFINITY : aheadY[k] / Math.abs(uy);
+        float length = Math.min(lengthX, lengthY);
+        float t = Kinematics.travel(v, length, deceleration);
+        if (t == Float.POSITIVE_INFINITY) {
+          //the ball stops before the edge
+          float stop = v * v / (2 * deceleration);
+          aheadX[k] = Math.max(0, aheadX[k] - Math.abs(ux) * stop);
+          aheadY[k] = Math.max(0, aheadY[k] - Math.abs(uy) * stop);
+          time[k] += v / deceleration;
+          speed[k] = 0;
+          continue;
+        }
+        boolean hitX = lengthX <= lengthY;
+        //land on the edge exactly, so the error of a pass does not carry over to the next
+        if (hitX) {
+          aheadX[k] = width - 2 * r;
+          aheadY[k] = Math.max(0, aheadY[k] - Math.abs(uy) * length);
+          dx[k] = -ux;
+          edge[k] = right ? ShotResults.RIGHT : ShotResults.LEFT;
+        } else {
+          aheadX[k] = Math.max(0, aheadX[k] - Math.abs(ux) * length);
+          aheadY[k] = height - 2 * r;
+          dy[k] = -uy;
+          edge[k] = top ? ShotResults.TOP : ShotResults.BOTTOM;
+        }
+        time[k] += t;
+        bounces[k]++;
+        speed[k] = Math.max(0, v - deceleration * t) - hitLoss;
+      }
+    }
+
+    private double x(int k, int width) {
+      return dx[k] > 0 ? width - radius[k] - (double) aheadX[k] : radius[k] + (double) aheadX[k];
+    }
+
+    private double y(int k, int height) {
+      return dy[k] > 0 ? height - radius[k] - (double) aheadY[k] : radius[k] + (double) aheadY[k];
+    }
+
+    /**
+     * Moves the shots that came to rest behind the moving ones, so the next pass only reads rows
+     * that move.
+     *
+     * @param n the number of rows that moved in the last pass.
+     * @return the number of rows still moving.
+     */
+    private int compact(int n) {
+      int k = 0;
+      while (k < n) {
+        if (speed[k] > 0) {
+          k++;
+        } else {
+          swap(k, --n);
+        }
+      }
+      return n;
+    }
+
+    private void swap(int a, int b) {
+      int s = shot[a];
+      shot[a] = shot[b];
+      shot[b] = s;
+      float f = aheadX[a];
+      aheadX[a] = aheadX[b];
+      aheadX[b] = f;
+      f = aheadY[a];
+      aheadY[a] = aheadY[b];
+      aheadY[b] = f;
+      f = dx[a];
+      dx[a] = dx[b];
+      dx[b] = f;
+      f = dy[a];
+      dy[a] = dy[b];
+      dy[b] = f;
+      f = radius[a];
+      radius[a] = radius[b];
+      radius[b] = f;
+      f = speed[a];
+      speed[a] = speed[b];
+      speed[b] = f;
+      f = time[a];
+      time[a] = time[b];
+      time[b] = f;
+      int c = bounces[a];
+      bounces[a] = bounces[b];
+      bounces[b] = c;
+      byte e = edge[a];
+      edge[a] = edge[b];
+      edge[b] = e;
+    }
+  }
+
+  /**
+   * A range of shots that splits in half until it fits in a block.
+   */
+  private final class Range extends RecursiveAction {
+
+    private final ShotBatch shots;
+    private final ShotResults results;
+    private final int from;
+    private final int to;
+
+    private Range(ShotBatch shots, ShotResults results, int from, int to) {
+      this.shots = shots;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= BLOCK) {
+        run(shots, results, from, to);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new Range(shots, results, from, mid), new Range(shots, results, mid, to));
+    }
+  }
+}
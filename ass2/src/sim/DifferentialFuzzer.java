@@ -0,0 +1,432 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The DifferentialFuzzer class checks an engine under test against a reference engine on random
+ * tables and shots. Every table gets a random size, from a single unit to 100000, and a batch of
+ * shots with random positions, radii, speeds and directions, including shots off the table, along
+ * an axis and along a diagonal. Speeds grow with the square root of the short side of the table,
+ * so a shot crosses it some tens of times, and shrinking keeps to the same speeds. A wide ball on
+ * a table barely larger than it still bounces millions of times, which finds the engines that cut
+ * a shot off.
+ *
+ * <p>Both engines run every batch, and a shot diverges when only one of them rejects it, when the
+ * final positions or times differ by more than tolerance * (bounces + 1), relative to the larger
+ * side of the table for positions and to the time for times, or when the bounce counts or last
+ * edges differ and bounces are compared. The report gives the worst divergences in the same
+ * scale, so they are the smallest tolerance the run would pass. A shot either engine cut off at
+ * ShotBatchEvaluator.MAX_STEPS is counted as capped; it diverges when only the candidate was cut
+ * off, and is not compared when the reference was, as there is no outcome to trust.
+ *
+ * <p>Tables are generated from the seed and their index alone and run in parallel on a
+ * ForkJoinPool, so a run is reproducible on any number of threads. The first divergent shot, in
+ * the order of the tables, is shrunk: its table, speed, radius, position and direction are made
+ * smaller or rounder while it still diverges, and the report shows the result as code.
+ */
+public final class DifferentialFuzzer {
+
+  private static final int MAX_SIZE_DIGITS = 5;
+  private static final int SPEED_PER_ROOT_SIZE = 10;
+  private static final int SHRINK_ROUNDS = 10000;
+
+  private final ShotEngine reference;
+  private final ShotEngine candidate;
+  private final String type;
+  private final double tolerance;
+  private final boolean compareBounces;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a DifferentialFuzzer that runs on the common pool.
+   *
+   * @param reference      the engine trusted to be right.
+   * @param candidate      the engine under test.
+   * @param type           The type of the simulation, as for SimplePoolSimulator.
+   * @param tolerance      the divergence allowed per bounce, see the class comment.
+   * @param compareBounces whether the bounce counts and last edges must be equal.
+   * @throws IllegalArgumentException If the type is invalid or the tolerance is negative.
+   */
+  public DifferentialFuzzer(ShotEngine reference, ShotEngine candidate, String type,
+      double tolerance, boolean compareBounces) throws IllegalArgumentException {
+    this(reference, candidate, type, tolerance, compareBounces, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a DifferentialFuzzer that runs the tables on the given pool.
+   *
+   * @param reference      the engine trusted to be right.
+   * @param candidate      the engine under test.
+   * @param type           The type of the simulation, as for SimplePoolSimulator.
+   * @param tolerance      the divergence allowed per bounce, see the class comment.
+   * @param compareBounces whether the bounce counts and last edges must be equal.
+   * @param pool           The pool that runs the tables.
+   * @throws IllegalArgumentException If the type is invalid or the tolerance is negative.
+   */
+  public DifferentialFuzzer(ShotEngine reference, ShotEngine candidate, String type,
+      double tolerance, boolean compareBounces, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    PhysicsModels.create(type);
+    if (!(tolerance >= 0)) {
+      throw new IllegalArgumentException("tolerance cannot be negative");
+    }
+    this.reference = reference;
+    this.candidate = candidate;
+    this.type = type;
+    this.tolerance = tolerance;
+    this.compareBounces = compareBounces;
+    this.pool = pool;
+  }
+
+  /**
+   * Compares an engine with advance on the command line.
+   *
+   * @param args engine, type, tables, shots per table, seed and tolerance, by default compact
+   *             friction 10000 100 1 1e-4.
+   */
+  public static void main(String[] args) {
+    String engine = args.length > 0 ? args[0] : "compact";
+    String type = args.length > 1 ? args[1] : "friction";
+    int tables = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+    int shots = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+    double tolerance = args.length > 5 ? Double.parseDouble(args[5]) : 1e-4;
+    DifferentialFuzzer fuzzer = new DifferentialFuzzer(ShotEngine.engine("advance"),
+        ShotEngine.engine(engine), type, tolerance, false);
+    long start = System.nanoTime();
+    FuzzReport report = fuzzer.run(seed, tables, shots);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.print(report);
+    System.out.println("shotsPerSecond " + report.getShots() / seconds);
+  }
+
+  /**
+   * Runs both engines on random tables.
+   *
+   * @param seed   the seed the tables are generated from.
+   * @param tables the number of tables.
+   * @param shots  the number of shots on every table.
+   * @return the report.
+   */
+  public FuzzReport run(long seed, int tables, int shots) {
+    Stats total = new Stats();
+    int leaf = Math.max(1, tables / (8 * pool.getParallelism()));
+    pool.invoke(new Range(seed, 0, tables, shots, leaf, total));
+    String reproducer = null;
+    if (total.first != null) {
+      reproducer = describe(shrink(total.first));
+    }
+    return new FuzzReport(total.shots, total.invalid, total.capped, total.mismatches,
+        total.worstPosition, total.worstTime, reproducer);
+  }
+
+  /**
+   * Generates the shots of one table.
+   */
+  private static ShotBatch generate(SplittableRandom random, int width, int height, int count) {
+    ShotBatch shots = new ShotBatch(count);
+    int maxSpeed = maxSpeed(width, height);
+    int digits = (int) Math.ceil(Math.log10(maxSpeed + 1));
+    for (int i = 0; i < count; i++) {
+      int radius = random.nextInt(8) == 0 ? 0 : random.nextInt(1 + Math.min(width, height) / 2);
+      //one shot in 16 anywhere, likely off the table, the others on it
+      boolean anywhere = random.nextInt(16) == 0;
+      int x = anywhere ? random.nextInt(width + 1)
+          : radius + random.nextInt(width - 2 * radius + 1);
+      int y = anywhere ? random.nextInt(height + 1)
+          : radius + random.nextInt(height - 2 * radius + 1);
+      int speed = random.nextInt(50) == 0 ? 0 : Math.min(maxSpeed, logUniform(random, digits));
+      double dx;
+      double dy;
+      switch (random.nextInt(8)) {
+        case 0:
+          dx = random.nextBoolean() ? 1 : -1;
+          dy = 0;
+          break;
+        case 1:
+          dx = 0;
+          dy = random.nextBoolean() ? 1 : -1;
+          break;
+        case 2:
+          dx = random.nextBoolean() ? 1 : -1;
+          dy = random.nextBoolean() ? 1 : -1;
+          break;
+        default:
+          dx = random.nextDouble() * 2 - 1;
+          dy = random.nextDouble() * 2 - 1;
+      }
+      shots.add(x, y, radius, speed, dx, dy);
+    }
+    return shots;
+  }
+
+  /**
+   * Gives the highest speed of a shot on a table: fast enough to cross the short side some tens
+   * of times.
+   */
+  private static int maxSpeed(int width, int height) {
+    return (int) (SPEED_PER_ROOT_SIZE * Math.sqrt(Math.min(width, height)));
+  }
+
+  /**
+   * Gives a number from 1 to 10^digits whose number of digits is uniform.
+   */
+  private static int logUniform(SplittableRandom random, int digits) {
+    return (int) Math.pow(10, random.nextDouble() * digits) + random.nextInt(2);
+  }
+
+  /**
+   * Runs one shot on both engines.
+   *
+   * @return whether it diverges.
+   */
+  private boolean diverges(Case shot) {
+    ShotBatch one = new ShotBatch(1);
+    one.add(shot.x, shot.y, shot.radius, shot.speed, shot.dx, shot.dy);
+    ShotResults expected = reference.run(shot.width, shot.height, type, one);
+    ShotResults actual = candidate.run(shot.width, shot.height, type, one);
+    return compare(expected, actual, 0, shot.width, shot.height, null);
+  }
+
+  /**
+   * Compares the outcomes of a shot and adds the divergence to the stats.
+   *
+   * @return whether the shot diverges.
+   */
+  private boolean compare(ShotResults expected, ShotResults actual, int i, int width, int height,
+      Stats stats) {
+    boolean expectedInvalid = expected.getLastEdge(i) == ShotResults.INVALID;
+    boolean actualInvalid = actual.getLastEdge(i) == ShotResults.INVALID;
+    if (expectedInvalid && actualInvalid) {
+      if (stats != null) {
+        stats.invalid++;
+      }
+      return false;
+    }
+    boolean expectedCapped = expected.getLastEdge(i) == ShotResults.CAPPED;
+    boolean actualCapped = actual.getLastEdge(i) == ShotResults.CAPPED;
+    if ((expectedCapped || actualCapped) && stats != null) {
+      stats.capped++;
+    }
+    if (expectedCapped) {
+      return false;
+    }
+    double position = Double.POSITIVE_INFINITY;
+    double time = Double.POSITIVE_INFINITY;
+    if (expectedInvalid == actualInvalid) {
+      position = Math.hypot(gap(expected.getFinalX(i), actual.getFinalX(i)),
+          gap(expected.getFinalY(i), actual.getFinalY(i)));
+      time = gap(expected.getTimeToRest(i), actual.getTimeToRest(i));
+    }
+    //in the scale of the tolerance, so a shot diverges when either is above it
+    int scale = expected.getBounces(i) + 1;
+    position /= scale * (double) Math.max(width, height);
+    time /= scale * Math.max(1, expected.getTimeToRest(i));
+    boolean diverges = actualCapped || !(position <= tolerance) || !(time <= tolerance)
+        || (compareBounces && (expected.getBounces(i) != actual.getBounces(i)
+        || expected.getLastEdge(i) != actual.getLastEdge(i)));
+    if (stats != null) {
+      //NaN counts as the worst divergence
+      stats.worstPosition = Math.max(stats.worstPosition,
+          Double.isNaN(position) ? Double.POSITIVE_INFINITY : position);
+      stats.worstTime = Math.max(stats.worstTime,
+          Double.isNaN(time) ? Double.POSITIVE_INFINITY : time);
+    }
+    return diverges;
+  }
+
+  /**
+   * Gives the difference of two outcomes, 0 when both are the same NaN or infinity.
+   */
+  private static double gap(double expected, double actual) {
+    return Double.compare(expected, actual) == 0 ? 0 : Math.abs(expected - actual);
+  }
+
+  /**
+   * Makes a divergent shot smaller and rounder while it still diverges.
+   */
+  private Case shrink(Case shot) {
+    for (int round = 0; round < SHRINK_ROUNDS; round++) {
+      Case smaller = null;
+      for (Case next : simpler(shot)) {
+        if (next.speed <= maxSpeed(next.width, next.height) && diverges(next)) {
+          smaller = next;
+          break;
+        }
+      }
+      if (smaller == null) {
+        break;
+      }
+      shot = smaller;
+    }
+    return shot;
+  }
+
+  /**
+   * Gives the cases one step simpler than a shot, each changing one thing.
+   */
+  private static List<Case> simpler(Case c) {
+    List<Case> cases = new ArrayList<>();
+    if (c.width > 1) {
+      cases.add(new Case(c.width / 2, c.height, c.x / 2, c.y, c.radius, c.speed, c.dx, c.dy));
+      cases.add(new Case(c.width - 1, c.height, c.x, c.y, c.radius, c.speed, c.dx, c.dy));
+    }
+    if (c.height > 1) {
+      cases.add(new Case(c.width, c.height / 2, c.x, c.y / 2, c.radius, c.speed, c.dx, c.dy));
+      cases.add(new Case(c.width, c.height - 1, c.x, c.y, c.radius, c.speed, c.dx, c.dy));
+    }
+    if (c.speed > 1) {
+      cases.add(new Case(c.width, c.height, c.x, c.y, c.radius, c.speed / 2, c.dx, c.dy));
+      cases.add(new Case(c.width, c.height, c.x, c.y, c.radius, c.speed - 1, c.dx, c.dy));
+    }
+    if (c.radius > 0) {
+      cases.add(new Case(c.width, c.height, c.x, c.y, c.radius / 2, c.speed, c.dx, c.dy));
+      cases.add(new Case(c.width, c.height, c.x, c.y, c.radius - 1, c.speed, c.dx, c.dy));
+    }
+    if (c.x > 0) {
+      cases.add(new Case(c.width, c.height, c.x / 2, c.y, c.radius, c.speed, c.dx, c.dy));
+      cases.add(new Case(c.width, c.height, c.x - 1, c.y, c.radius, c.speed, c.dx, c.dy));
+    }
+    if (c.y > 0) {
+      cases.add(new Case(c.width, c.height, c.x, c.y / 2, c.radius, c.speed, c.dx, c.dy));
+      cases.add(new Case(c.width, c.height, c.x, c.y - 1, c.radius, c.speed, c.dx, c.dy));
+    }
+    //fewer digits in the direction, the fewest first
+    for (double scale = 1; scale <= 1000; scale *= 10) {
+      double dx = Math.round(c.dx * scale) / scale;
+      double dy = Math.round(c.dy * scale) / scale;
+      if (dx != c.dx || dy != c.dy) {
+        cases.add(new Case(c.width, c.height, c.x, c.y, c.radius, c.speed, dx, dy));
+      }
+    }
+    return cases;
+  }
+
+  private String describe(Case c) {
+    ShotBatch one = new ShotBatch(1);
+    one.add(c.x, c.y, c.radius, c.speed, c.dx, c.dy);
+    return "new SimplePoolSimulator(" + c.width + ", " + c.height + ", \"" + type + "\").start("
+        + c.x + ", " + c.y + ", " + c.radius + ", " + c.speed + ", " + c.dx + ", " + c.dy + ")"
+        + " reference " + outcome(reference.run(c.width, c.height, type, one))
+        + " candidate " + outcome(candidate.run(c.width, c.height, type, one));
+  }
+
+  private static String outcome(ShotResults results) {
+    return "(" + results.getFinalX(0) + ", " + results.getFinalY(0) + ", bounces "
+        + results.getBounces(0) + ", time " + results.getTimeToRest(0) + ", edge "
+        + results.getLastEdge(0) + ")";
+  }
+
+  /**
+   * A shot on a table of its own, as it is shrunk.
+   */
+  private static final class Case {
+
+    private final int width;
+    private final int height;
+    private final int x;
+    private final int y;
+    private final int radius;
+    private final int speed;
+    private final double dx;
+    private final double dy;
+
+    private Case(int width, int height, int x, int y, int radius, int speed, double dx,
+        double dy) {
+      this.width = width;
+      this.height = height;
+      this.x = x;
+      this.y = y;
+      this.radius = radius;
+      this.speed = speed;
+      this.dx = dx;
+      this.dy = dy;
+    }
+  }
+
+  /**
+   * Counts of a range of tables, and its first divergent shot.
+   */
+  private static final class Stats {
+
+    private long shots;
+    private long invalid;
+    private long capped;
+    private long mismatches;
+    private double worstPosition;
+    private double worstTime;
+    private Case first;
+    //table of the first divergent shot, so merging keeps the first in table order
+    private int firstTable = Integer.MAX_VALUE;
+
+    private synchronized void add(Stats other) {
+      shots += other.shots;
+      invalid += other.invalid;
+      capped += other.capped;
+      mismatches += other.mismatches;
+      worstPosition = Math.max(worstPosition, other.worstPosition);
+      worstTime = Math.max(worstTime, other.worstTime);
+      if (other.firstTable < firstTable) {
+        firstTable = other.firstTable;
+        first = other.first;
+      }
+    }
+  }
+
+  /**
+   * A range of tables that splits in half until it is small enough to run on one thread.
+   */
+  private final class Range extends RecursiveAction {
+
+    private final long seed;
+    private final int from;
+    private final int to;
+    private final int shots;
+    private final int leaf;
+    private final Stats total;
+
+    private Range(long seed, int from, int to, int shots, int leaf, Stats total) {
+      this.seed = seed;
+      this.from = from;
+      this.to = to;
+      this.shots = shots;
+      this.leaf = leaf;
+      this.total = total;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > leaf) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new Range(seed, from, mid, shots, leaf, total),
+            new Range(seed, mid, to, shots, leaf, total));
+        return;
+      }
+      Stats stats = new Stats();
+      for (int table = from; table < to; table++) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9e3779b97f4a7c15L + table);
+        int width = logUniform(random, MAX_SIZE_DIGITS);
+        int height = logUniform(random, MAX_SIZE_DIGITS);
+        ShotBatch batch = generate(random, width, height, shots);
+        ShotResults expected = reference.run(width, height, type, batch);
+        ShotResults actual = candidate.run(width, height, type, batch);
+        for (int i = 0; i < batch.size(); i++) {
+          stats.shots++;
+          if (compare(expected, actual, i, width, height, stats)) {
+            stats.mismatches++;
+            if (stats.first == null) {
+              stats.first = new Case(width, height, batch.getX(i), batch.getY(i),
+                  batch.getRadius(i), batch.getSpeed(i), batch.getDx(i), batch.getDy(i));
+              stats.firstTable = table;
+            }
+          }
+        }
+      }
+      total.add(stats);
+    }
+  }
+}
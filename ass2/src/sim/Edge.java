@@ -0,0 +1,35 @@
+package sim;
+
+/**
+ * The Edge enum names the four edges of the table.
+ */
+public enum Edge {
+  LEFT("left"),
+  RIGHT("right"),
+  BOTTOM("bottom"),
+  TOP("top");
+
+  private final String label;
+
+  Edge(String label) {
+    this.label = label;
+  }
+
+  /**
+   * getter method to get the name used in status messages.
+   *
+   * @return "left", "right", "bottom" or "top".
+   */
+  public String getLabel() {
+    return label;
+  }
+
+  /**
+   * Tells whether hitting this edge reverses the velocity in the X direction.
+   *
+   * @return true for the left and right edges.
+   */
+  public boolean isVertical() {
+    return this == LEFT || this == RIGHT;
+  }
+}
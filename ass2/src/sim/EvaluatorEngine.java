@@ -0,0 +1,91 @@
+package sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The EvaluatorEngine class is a ShotEngine backed by a batch evaluator such as
+ * ShotBatchEvaluator. The evaluator runs on the pool of the thread that calls the engine, or on
+ * the common pool outside a ForkJoinPool, so an engine called from the tasks of a pool forks into
+ * that pool instead of starting the threads of another one. Every thread keeps the last evaluator
+ * it built and reuses it while the table, type and pool stay the same, as they do for most of the
+ * calls of a shrinking DifferentialFuzzer.
+ *
+ * @param <E> the type of the evaluator.
+ */
+final class EvaluatorEngine<E> implements ShotEngine {
+
+  /**
+   * Builds an evaluator for a table.
+   *
+   * @param <E> the type of the evaluator.
+   */
+  interface Factory<E> {
+    E create(int width, int height, String type, ForkJoinPool pool);
+  }
+
+  /**
+   * Runs a batch on an evaluator.
+   *
+   * @param <E> the type of the evaluator.
+   */
+  interface Evaluation<E> {
+    ShotResults evaluate(E evaluator, ShotBatch shots);
+  }
+
+  private final Factory<E> factory;
+  private final Evaluation<E> evaluation;
+  private final ThreadLocal<Last<E>> last = new ThreadLocal<>();
+
+  /**
+   * Constructs an EvaluatorEngine.
+   *
+   * @param factory    builds the evaluator of a table.
+   * @param evaluation runs a batch on an evaluator.
+   */
+  EvaluatorEngine(Factory<E> factory, Evaluation<E> evaluation) {
+    this.factory = factory;
+    this.evaluation = evaluation;
+  }
+
+  @Override
+  public ShotResults run(int width, int height, String type, ShotBatch shots) {
+    return evaluation.evaluate(evaluator(width, height, type), shots);
+  }
+
+  /**
+   * Gives the evaluator of the calling thread for a table, building it if the last one was for
+   * another table, type or pool.
+   */
+  E evaluator(int width, int height, String type) {
+    ForkJoinPool pool =
+        ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+    Last<E> cached = last.get();
+    if (cached == null || cached.width != width || cached.height != height
+        || !cached.type.equals(type) || cached.pool != pool) {
+      cached = new Last<>(width, height, type, pool, factory.create(width, height, type, pool));
+      last.set(cached);
+    }
+    return cached.evaluator;
+  }
+
+  /**
+   * The last evaluator a thread built, with what it was built for.
+   */
+  private static final class Last<E> {
+
+    private final int width;
+    private final int height;
+    private final String type;
+    private final ForkJoinPool pool;
+    private final E evaluator;
+
+    private Last(int width, int height, String type, ForkJoinPool pool, E evaluator) {
+      this.width = width;
+      this.height = height;
+      this.type = type;
+      this.pool = pool;
+      this.evaluator = evaluator;
+    }
+  }
+}
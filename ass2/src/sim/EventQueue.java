@@ -0,0 +1,188 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * The EventQueue class is a binary min-heap of predicted events keyed by the time they happen.
+ * An event names one or two balls together with the collision counts they had when it was
+ * predicted; once either ball takes part in another event its count moves on and the stale event
+ * is skipped when it reaches the top. Events are kept in parallel primitive arrays so pushing and
+ * popping does not allocate.
+ */
+final class EventQueue {
+
+  /**
+   * Decides which events survive a compaction.
+   */
+  interface EventFilter {
+
+    boolean keep(int ball, int other, int ballCount, int otherCount);
+  }
+
+  private double[] times = new double[64];
+  private int[] balls = new int[64];
+  private int[] others = new int[64];
+  private int[] ballCounts = new int[64];
+  private int[] otherCounts = new int[64];
+  private int[] kinds = new int[64];
+  private int size;
+
+  //the event removed by the last call to poll
+  private double time;
+  private int ball;
+  private int other;
+  private int ballCount;
+  private int otherCount;
+  private int kind;
+
+  /**
+   * Adds a predicted event.
+   *
+   * @param time       when the event happens.
+   * @param ball       the ball the event belongs to.
+   * @param other      the second ball of a collision, or -1.
+   * @param ballCount  collision count of the ball at prediction time.
+   * @param otherCount collision count of the second ball at prediction time.
+   * @param kind       what kind of event it is.
+   */
+  void push(double time, int ball, int other, int ballCount, int otherCount, int kind) {
+    if (size == times.length) {
+      int capacity = size * 2;
+      times = Arrays.copyOf(times, capacity);
+      balls = Arrays.copyOf(balls, capacity);
+      others = Arrays.copyOf(others, capacity);
+      ballCounts = Arrays.copyOf(ballCounts, capacity);
+      otherCounts = Arrays.copyOf(otherCounts, capacity);
+      kinds = Arrays.copyOf(kinds, capacity);
+    }
+    set(size, time, ball, other, ballCount, otherCount, kind);
+    siftUp(size++);
+  }
+
+  /**
+   * Removes the earliest event, which can then be read with the accessors.
+   *
+   * @return false if the queue was empty.
+   */
+  boolean poll() {
+    if (size == 0) {
+      return false;
+    }
+    time = times[0];
+    ball = balls[0];
+    other = others[0];
+    ballCount = ballCounts[0];
+    otherCount = otherCounts[0];
+    kind = kinds[0];
+    size--;
+    if (size > 0) {
+      move(size, 0);
+      siftDown(0);
+    }
+    return true;
+  }
+
+  /**
+   * Drops every event the filter rejects and restores the heap order.
+   *
+   * @param filter decides which events to keep.
+   */
+  void compact(EventFilter filter) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (filter.keep(balls[i], others[i], ballCounts[i], otherCounts[i])) {
+        move(i, kept++);
+      }
+    }
+    size = kept;
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(i);
+    }
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  double time() {
+    return time;
+  }
+
+  int ball() {
+    return ball;
+  }
+
+  int other() {
+    return other;
+  }
+
+  int ballCount() {
+    return ballCount;
+  }
+
+  int otherCount() {
+    return otherCount;
+  }
+
+  int kind() {
+    return kind;
+  }
+
+  private void siftUp(int i) {
+    double t = times[i];
+    int b = balls[i];
+    int o = others[i];
+    int bc = ballCounts[i];
+    int oc = otherCounts[i];
+    int k = kinds[i];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (times[parent] <= t) {
+        break;
+      }
+      move(parent, i);
+      i = parent;
+    }
+    set(i, t, b, o, bc, oc, k);
+  }
+
+  private void siftDown(int i) {
+    double t = times[i];
+    int b = balls[i];
+    int o = others[i];
+    int bc = ballCounts[i];
+    int oc = otherCounts[i];
+    int k = kinds[i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && times[child + 1] < times[child]) {
+        child++;
+      }
+      if (t <= times[child]) {
+        break;
+      }
+      move(child, i);
+      i = child;
+    }
+    set(i, t, b, o, bc, oc, k);
+  }
+
+  private void move(int from, int to) {
+    set(to, times[from], balls[from], others[from], ballCounts[from], otherCounts[from],
+        kinds[from]);
+  }
+
+  private void set(int i, double t, int b, int o, int bc, int oc, int k) {
+    times[i] = t;
+    balls[i] = b;
+    others[i] = o;
+    ballCounts[i] = bc;
+    otherCounts[i] = oc;
+    kinds[i] = k;
+  }
+}
@@ -0,0 +1,99 @@
+package sim;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The FrameRing class is a bounded queue of ball frames between exactly one producer thread and
+ * one consumer thread. Frames live in preallocated primitive columns used as a ring. Each side
+ * only writes its own counter and publishes it with an ordered store after touching the columns,
+ * so neither side takes a lock or allocates.
+ */
+final class FrameRing {
+
+  private final double[] time;
+  private final int[] ball;
+  private final double[] x;
+  private final double[] y;
+  private final double[] radius;
+  private final int mask;
+  //frames taken by the consumer, and frames published by the producer
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+  private volatile boolean closed;
+
+  /**
+   * Constructs an empty FrameRing.
+   *
+   * @param capacity the number of frames it holds, rounded up to a power of two.
+   */
+  FrameRing(int capacity) {
+    int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    time = new double[size];
+    ball = new int[size];
+    x = new double[size];
+    y = new double[size];
+    radius = new double[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Adds the frame of a ball if there is room. Only the producer calls this.
+   *
+   * @return false if the ring is full.
+   */
+  boolean offer(double time, int ball, double x, double y, double radius) {
+    long t = tail.get();
+    if (t - head.get() > mask) {
+      return false;
+    }
+    int slot = (int) t & mask;
+    this.time[slot] = time;
+    this.ball[slot] = ball;
+    this.x[slot] = x;
+    this.y[slot] = y;
+    this.radius[slot] = radius;
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /**
+   * Marks the end of the frames. Only the producer calls this, after its last offer.
+   */
+  void close() {
+    closed = true;
+  }
+
+  /**
+   * Moves the frames that have arrived into a trajectory file, one record per frame. Only the
+   * consumer calls this.
+   *
+   * @param writer receives the frames.
+   * @return the number of frames moved.
+   * @throws IOException If the file cannot be written; the frames are taken all the same.
+   */
+  int drainTo(TrajectoryWriter writer) throws IOException {
+    long h = head.get();
+    long t = tail.get();
+    try {
+      for (long i = h; i < t; i++) {
+        int slot = (int) i & mask;
+        writer.write(time[slot], ball[slot], x[slot], y[slot], 0, 0, radius[slot],
+            ShotResults.NO_EDGE);
+      }
+    } finally {
+      head.lazySet(t);
+    }
+    return (int) (t - h);
+  }
+
+  /**
+   * Tells whether the producer is done and every frame has been taken.
+   *
+   * @return true once no more frames will arrive.
+   */
+  boolean isDrained() {
+    //closed is read first, so a frame offered before close is always seen by the tail read
+    return closed && head.get() == tail.get();
+  }
+}
@@ -0,0 +1,15 @@
+package sim;
+
+/**
+ * The FrictionModel class is the "friction" physics model: the ball slows down at f * g while
+ * rolling and keeps its speed at the edges.
+ */
+final class FrictionModel extends StraightLineModel {
+
+  private static final double F = 0.1;
+  private static final double G = 9.8;
+
+  FrictionModel() {
+    super(F * G, 0);
+  }
+}
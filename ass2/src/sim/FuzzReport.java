@@ -0,0 +1,107 @@
+package sim;
+
+/**
+ * The FuzzReport class is the outcome of a run of the DifferentialFuzzer: how many shots were
+ * compared, how many diverged beyond the tolerance, how many an engine cut off before rest, the
+ * largest divergence seen, and the first divergent shot shrunk to a small case that still
+ * diverges.
+ */
+public final class FuzzReport {
+
+  private final long shots;
+  private final long invalid;
+  private final long capped;
+  private final long mismatches;
+  private final double worstPosition;
+  private final double worstTime;
+  private final String reproducer;
+
+  FuzzReport(long shots, long invalid, long capped, long mismatches, double worstPosition,
+      double worstTime, String reproducer) {
+    this.shots = shots;
+    this.invalid = invalid;
+    this.capped = capped;
+    this.mismatches = mismatches;
+    this.worstPosition = worstPosition;
+    this.worstTime = worstTime;
+    this.reproducer = reproducer;
+  }
+
+  /**
+   * getter method to get the number of shots compared.
+   *
+   * @return shots.
+   */
+  public long getShots() {
+    return shots;
+  }
+
+  /**
+   * getter method to get the number of shots both engines rejected.
+   *
+   * @return invalid shots.
+   */
+  public long getInvalid() {
+    return invalid;
+  }
+
+  /**
+   * getter method to get the number of shots either engine cut off at
+   * ShotBatchEvaluator.MAX_STEPS.
+   *
+   * @return capped shots.
+   */
+  public long getCapped() {
+    return capped;
+  }
+
+  /**
+   * getter method to get the number of shots that diverged beyond the tolerance.
+   *
+   * @return mismatches.
+   */
+  public long getMismatches() {
+    return mismatches;
+  }
+
+  /**
+   * getter method to get the largest distance between the final positions of a shot, over the
+   * larger side of its table and its bounces + 1.
+   *
+   * @return distance, or positive infinity if only one engine rejected a shot.
+   */
+  public double getWorstPosition() {
+    return worstPosition;
+  }
+
+  /**
+   * getter method to get the largest difference between the times to rest of a shot, over its
+   * time to rest, at least 1, and its bounces + 1.
+   *
+   * @return time, or positive infinity if only one engine rejected a shot.
+   */
+  public double getWorstTime() {
+    return worstTime;
+  }
+
+  /**
+   * getter method to get the shrunk case of the first divergent shot.
+   *
+   * @return code that starts the shot and the outcomes of both engines, or null without a
+   *     mismatch.
+   */
+  public String getReproducer() {
+    return reproducer;
+  }
+
+  @Override
+  public String toString() {
+    return "shots " + shots + "\n"
+        + "invalid " + invalid + "\n"
+        + "capped " + capped + "\n"
+        + "mismatches " + mismatches + "\n"
+        + "worstPosition " + worstPosition + "\n"
+        + "worstTime " + worstTime + "\n"
+        + (reproducer == null ? "" : "reproducer " + reproducer + "\n");
+  }
+}
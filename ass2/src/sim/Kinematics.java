@@ -0,0 +1,90 @@
+package sim;
+
+/**
+ * The Kinematics class holds the motion formulas every engine uses to find when a ball reaches an
+ * edge. A ball that rolls a length L along its path at speed v and deceleration a gets there after
+ * 2 L / (v + sqrt(v^2 - 2 a L)). This form has no cancellation for short lengths or small
+ * decelerations, and is L / v without deceleration. A length that is not ahead, or that the ball
+ * stops short of, makes the square root or the quotient NaN or negative, and the time comes out as
+ * positive infinity rather than a made-up root, so the nearest edge is a plain minimum.
+ */
+final class Kinematics {
+
+  private Kinematics() {
+  }
+
+  /**
+   * Time to roll a length along the path.
+   *
+   * @param speed        the speed at the start.
+   * @param length       the length along the path.
+   * @param deceleration the deceleration, 0 for none.
+   * @return the time, or positive infinity if the length is not ahead or not reached.
+   */
+  static double travel(double speed, double length, double deceleration) {
+    double t = 2 * length / (speed + Math.sqrt(speed * speed - 2 * deceleration * length));
+    //NaN fails the comparison too
+    return t >= 0 ? t : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Time to roll a length along the path, in float precision.
+   *
+   * @param speed        the speed at the start.
+   * @param length       the length along the path.
+   * @param deceleration the deceleration, 0 for none.
+   * @return the time, or positive infinity if the length is not ahead or not reached.
+   */
+  static float travel(float speed, float length, float deceleration) {
+    float t = 2 * length / (speed + (float) Math.sqrt(speed * speed - 2 * deceleration * length));
+    return t >= 0 ? t : Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Length along the path to the edge ahead on one axis. A ball that rounding put slightly past
+   * the edge is at it.
+   *
+   * @param position  the position of the ball on the axis.
+   * @param direction the component of the unit direction on the axis.
+   * @param size      the size of the table on the axis.
+   * @param radius    the radius of the ball.
+   * @return the length, positive infinity if the ball does not move on the axis, or NaN if it
+   *     does not move on the axis and touches an edge.
+   */
+  static double lengthToEdge(double position, double direction, int size, double radius) {
+    double ahead = direction > 0 ? size - radius - position : position - radius;
+    return Math.max(0, ahead) / Math.abs(direction);
+  }
+
+  /**
+   * Time to the edge ahead on one axis.
+   *
+   * @param position     the position of the ball on the axis.
+   * @param direction    the component of the unit direction on the axis.
+   * @param size         the size of the table on the axis.
+   * @param radius       the radius of the ball.
+   * @param speed        the speed of the ball.
+   * @param deceleration the deceleration, 0 for none.
+   * @return the time, or positive infinity if the ball does not reach the edge.
+   */
+  static double timeToEdge(double position, double direction, int size, double radius,
+      double speed, double deceleration) {
+    return travel(speed, lengthToEdge(position, direction, size, radius), deceleration);
+  }
+
+  /**
+   * Picks the edge hit first from the times to the edges ahead on each axis, the x axis on a tie.
+   *
+   * @param timeX time to the edge ahead on the x axis.
+   * @param timeY time to the edge ahead on the y axis.
+   * @param dx    the x component of the direction.
+   * @param dy    the y component of the direction.
+   * @return the edge, or null if neither edge is reached.
+   */
+  static Edge nearest(double timeX, double timeY, double dx, double dy) {
+    if (Math.min(timeX, timeY) == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+    return timeX <= timeY ? (dx > 0 ? Edge.RIGHT : Edge.LEFT) : (dy > 0 ? Edge.TOP : Edge.BOTTOM);
+  }
+}
@@ -0,0 +1,119 @@
+package sim;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts durations in nanoseconds in log-linear buckets, the layout of
+ * HDR histograms: every power of two is split into 8 buckets of equal width, so a bucket is at
+ * most 12.5% wider than the values in it, from 1 ns up to about 18 minutes. Recording is one
+ * increment of a preallocated array, so any number of threads can record at once without locks
+ * or allocation. Like a LongAdder, the counts are striped: a thread records into the stripe its id
+ * picks, twice as many stripes as processors, so threads recording at once rarely share a cache
+ * line, and the stripes are summed when the counts are read.
+ */
+final class LatencyHistogram {
+
+  //bits of a value that pick the bucket within its power of two
+  private static final int SUB_BITS = 3;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int MAX_BIT = 40;
+  static final int BUCKETS = (MAX_BIT - SUB_BITS + 2) * SUB_COUNT;
+
+  private final AtomicLongArray[] stripes;
+
+  LatencyHistogram() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  LatencyHistogram(int threads) {
+    stripes = new AtomicLongArray[Integer.highestOneBit(Math.max(1, threads)) << 1];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new AtomicLongArray(BUCKETS);
+    }
+  }
+
+  /**
+   * Counts a duration. Negative durations count as 0 and very long ones go to the last bucket.
+   *
+   * @param nanos the duration.
+   */
+  void record(long nanos) {
+    int stripe = (int) Thread.currentThread().getId() & (stripes.length - 1);
+    stripes[stripe].incrementAndGet(bucket(nanos));
+  }
+
+  /**
+   * Copies the counts of every bucket, summed over the stripes. Counts recorded meanwhile may or
+   * may not be included.
+   *
+   * @return the counts, indexed like bucket.
+   */
+  long[] counts() {
+    long[] copy = new long[BUCKETS];
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        copy[i] += stripe.get(i);
+      }
+    }
+    return copy;
+  }
+
+  void reset() {
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        stripe.set(i, 0);
+      }
+    }
+  }
+
+  /**
+   * Gives the duration a fraction of the counted durations took at most, rounded up to the highest
+   * duration of its bucket.
+   *
+   * @param counts   counts of every bucket, as returned by counts.
+   * @param fraction the fraction, from 0 to 1.
+   * @return the duration in nanoseconds, or 0 if nothing was counted.
+   */
+  static long percentile(long[] counts, double fraction) {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return highest(i);
+      }
+    }
+    return 0;
+  }
+
+  static int bucket(long nanos) {
+    if (nanos < SUB_COUNT) {
+      return nanos < 0 ? 0 : (int) nanos;
+    }
+    int top = 63 - Long.numberOfLeadingZeros(nanos);
+    if (top > MAX_BIT) {
+      return BUCKETS - 1;
+    }
+    int sub = (int) (nanos >>> (top - SUB_BITS)) & (SUB_COUNT - 1);
+    return (top - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  /**
+   * Gives the largest duration that goes into a bucket.
+   *
+   * @param bucket the index of the bucket.
+   * @return the duration in nanoseconds.
+   */
+  static long highest(int bucket) {
+    if (bucket < SUB_COUNT) {
+      return bucket;
+    }
+    int top = bucket / SUB_COUNT + SUB_BITS - 1;
+    long sub = bucket % SUB_COUNT;
+    return ((SUB_COUNT + sub + 1) << (top - SUB_BITS)) - 1;
+  }
+}
@@ -0,0 +1,95 @@
+package sim;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The LiveState class lets other threads read the state of a simulator while it runs, for a UI
+ * or telemetry. The thread running the simulator publishes the position, velocity, time and
+ * status of the ball after every step, and readers always get the values of one step, never a
+ * new x with an old y.
+ *
+ * <p>It is a sequence lock: the writer makes the version odd, writes the values and makes it even
+ * again, and a reader copies the values and keeps them only if the version was the same even
+ * number before and after. Neither side takes a lock, the writer never waits for readers, and a
+ * reader only tries again if it overlapped a step being published.
+ */
+public final class LiveState {
+
+  /**
+   * Number of values read writes into a buffer: x, y, vx, vy and time.
+   */
+  public static final int SIZE = 5;
+
+  private static final Status[] STATUSES = Status.values();
+
+  //even while the values are of one step, odd while the writer changes them
+  private final AtomicLong version = new AtomicLong();
+  private double x;
+  private double y;
+  private double vx;
+  private double vy;
+  private double time;
+  private int status;
+
+  LiveState() {
+    this.status = Status.NOT_SET_UP.ordinal();
+  }
+
+  /**
+   * Publishes the state after a step. Only the thread running the simulator calls this.
+   */
+  void publish(double x, double y, double vx, double vy, double time, Status status) {
+    long v = version.get();
+    version.setOpaque(v + 1);
+    //the values must not be seen before the version turns odd
+    VarHandle.storeStoreFence();
+    this.x = x;
+    this.y = y;
+    this.vx = vx;
+    this.vy = vy;
+    this.time = time;
+    this.status = status.ordinal();
+    version.setRelease(v + 2);
+  }
+
+  /**
+   * Copies the state of the last step published.
+   *
+   * @param buffer receives x, y, vx, vy and time, in that order.
+   * @return the status after that step.
+   */
+  public Status read(double[] buffer) {
+    while (true) {
+      long before = version.getAcquire();
+      if ((before & 1) == 0) {
+        double x = this.x;
+        double y = this.y;
+        double vx = this.vx;
+        double vy = this.vy;
+        double time = this.time;
+        int status = this.status;
+        //the values must be read before the version is checked again
+        VarHandle.loadLoadFence();
+        if (version.getOpaque() == before) {
+          buffer[0] = x;
+          buffer[1] = y;
+          buffer[2] = vx;
+          buffer[3] = vy;
+          buffer[4] = time;
+          return STATUSES[status];
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * getter method to get the number of steps published.
+   *
+   * @return version, which only grows.
+   */
+  public long getVersion() {
+    return version.get() >>> 1;
+  }
+}
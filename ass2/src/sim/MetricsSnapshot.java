@@ -0,0 +1,73 @@
+package sim;
+
+/**
+ * The MetricsSnapshot class is an immutable copy of the counters and step latencies of
+ * SimMetrics, taken by SimMetrics.snapshot.
+ */
+public final class MetricsSnapshot {
+
+  private final long steps;
+  private final long complexRoots;
+  private final long tieBreaks;
+  private final long[] latencies;
+
+  MetricsSnapshot(long steps, long complexRoots, long tieBreaks, long[] latencies) {
+    this.steps = steps;
+    this.complexRoots = complexRoots;
+    this.tieBreaks = tieBreaks;
+    this.latencies = latencies;
+  }
+
+  /**
+   * getter method to get the number of calls to advance.
+   *
+   * @return steps.
+   */
+  public long getSteps() {
+    return steps;
+  }
+
+  /**
+   * getter method to get the number of times a step found the edge ahead on an axis out of reach,
+   * where the quadratic for the time to it has no real root.
+   *
+   * @return complex roots.
+   */
+  public long getComplexRoots() {
+    return complexRoots;
+  }
+
+  /**
+   * getter method to get the number of times a step found the edges ahead on both axes at the
+   * same time, and picked the x axis by the tie rule.
+   *
+   * @return tie-breaks.
+   */
+  public long getTieBreaks() {
+    return tieBreaks;
+  }
+
+  /**
+   * Gives the step latency a fraction of the steps took at most, rounded up to the bucket of the
+   * histogram it falls in, so at most 12.5% above the exact value.
+   *
+   * @param fraction the fraction of the steps, from 0 to 1, such as 0.99.
+   * @return the latency in nanoseconds, or 0 if no step was timed.
+   * @throws IllegalArgumentException If the fraction is not between 0 and 1.
+   */
+  public long getStepNanos(double fraction) throws IllegalArgumentException {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("fraction must be between 0 and 1");
+    }
+    return LatencyHistogram.percentile(latencies, fraction);
+  }
+
+  /**
+   * getter method to get the longest step latency, rounded up like getStepNanos.
+   *
+   * @return latency in nanoseconds, or 0 if no step was timed.
+   */
+  public long getStepNanosMax() {
+    return getStepNanos(1);
+  }
+}
@@ -0,0 +1,759 @@
+package sim;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * The MultiBallPoolSimulator class simulates a whole rack of balls on one table. Ball 0 is the cue
+ * ball placed by start, the other balls are racked with addBall. Every call to advance moves the
+ * simulation to the next event: a ball hitting an edge, two balls colliding, or a ball coming to
+ * rest. Events are predicted ahead of time and kept in a queue keyed by time. Each ball remembers
+ * its state at the time of its last event in a column of a BallStore, and is only moved forward
+ * when it is read, so an event
+ * costs O(log n) plus the balls near the ones involved. Candidate collisions come from a uniform
+ * grid of the paths of the balls, and paths are predicted at most one cell ahead so that they
+ * only meet nearby balls. The nearest edge of every ball comes from a WallKernel, run over the
+ * whole store when every ball is predicted at once. The single ball getters of PoolSimulator
+ * report ball 0.
+ */
+public class MultiBallPoolSimulator implements PoolSimulator {
+
+  //kinds of events, the edges being the edge codes of WallKernel
+  private static final int LEFT = WallKernel.LEFT;
+  private static final int RIGHT = WallKernel.RIGHT;
+  private static final int BOTTOM = WallKernel.BOTTOM;
+  private static final int TOP = WallKernel.TOP;
+  private static final int REST = 4;
+  private static final int CONTACT = 5;
+  private static final int RENEW = 6;
+  private static final Edge[] EDGES = Edge.values();
+  private static final Status[] STATUSES = Status.values();
+  //values ahead of the columns of the balls in a snapshot
+  private static final int HEADER = 8;
+
+  private final int width;
+  private final int height;
+  private final StraightLineModel model;
+  private final BallStore balls;
+  private final WallKernel walls;
+  private final BroadPhaseGrid grid;
+  private final EventQueue queue;
+  private final Roots roots;
+  private final double[] coefficients;
+  private final BroadPhaseGrid.NeighbourVisitor contactFinder;
+  private final EventQueue.EventFilter liveEvent;
+  private Status status;
+  //balls named in the status, and its text, which is only built when it is asked for
+  private int statusBall;
+  private int statusOther;
+  private String report;
+  private boolean started;
+  private boolean dirty;
+  private double now;
+  private double cellSize;
+  private int moving;
+  //time of the next own event of each ball, and how many events each ball has taken part in
+  private double[] horizons;
+  private int[] counts;
+  //time to the nearest edge of each ball and its edge code, as found by the kernel
+  private double[] wallTimes;
+  private byte[] wallEdges;
+
+  //ball whose collisions are being predicted, and whether every ball is being predicted at once
+  private int predicting;
+  private boolean rebuilding;
+
+  /**
+   * Constructs a MultiBallPoolSimulator with the specified width, height, and simulation type.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, "simple", "friction" or another name registered with
+   *               PhysicsModels whose model is a StraightLineModel.
+   * @throws IllegalArgumentException If the width or height is negative, or the simulation type is
+   *                                  invalid.
+   */
+  public MultiBallPoolSimulator(int width, int height, String type)
+      throws IllegalArgumentException {
+    if ((width < 0) || (height < 0)) {
+      throw new IllegalArgumentException("invalid height or width");
+    }
+    PhysicsModel model = PhysicsModels.create(type);
+    if (!(model instanceof StraightLineModel)) {
+      throw new IllegalArgumentException("type does not support multiple balls: " + type);
+    }
+    this.width = width;
+    this.height = height;
+    this.model = (StraightLineModel) model;
+    setStatus(Status.NOT_SET_UP, -1, -1);
+    this.balls = new BallStore(16);
+    this.horizons = new double[16];
+    this.counts = new int[16];
+    this.walls = WallKernel.create();
+    this.wallTimes = new double[16];
+    this.wallEdges = new byte[16];
+    this.grid = new BroadPhaseGrid();
+    this.queue = new EventQueue();
+    this.roots = new Roots(4);
+    this.coefficients = new double[5];
+    this.contactFinder = this::checkContact;
+    this.liveEvent = (ball, other, ballCount, otherCount) ->
+        counts[ball] == ballCount && (other < 0 || counts[other] == otherCount);
+
+    balls.add(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0,
+        0);
+    balls.status[0] = BallStore.EMPTY;
+  }
+
+  /**
+   * Starts the simulation by placing the cue ball (ball 0) with the specified parameters.
+   *
+   * @param x      The initial X-coordinate of the ball.
+   * @param y      The initial Y-coordinate of the ball.
+   * @param radius The initial radius of the ball.
+   * @param speed  The initial speed of the ball.
+   * @param dx     The initial velocity in the X direction.
+   * @param dy     The initial velocity in the Y direction.
+   * @throws IllegalArgumentException If the radius is negative, speed is non-positive, the ball is
+   *                                  not inside the table or it overlaps a racked ball.
+   */
+  @Override
+  public void start(int x, int y, int radius, int speed, double dx, double dy)
+      throws IllegalArgumentException {
+    if (speed <= 0) {
+      throw new IllegalArgumentException("speed cannot be negative");
+    }
+    check(x, y, radius, speed, dx, dy, 0);
+    double mag = Math.sqrt(dx * dx + dy * dy);
+    balls.set(0, x, y, radius, speed * dx / mag, speed * dy / mag, now);
+    this.started = true;
+    this.dirty = true;
+    setStatus(Status.STARTED, -1, -1);
+  }
+
+  /**
+   * Racks a ball at rest.
+   *
+   * @param x      The X-coordinate of the ball.
+   * @param y      The Y-coordinate of the ball.
+   * @param radius The radius of the ball.
+   * @return the index of the new ball.
+   * @throws IllegalArgumentException If the ball is not inside the table or overlaps another ball.
+   */
+  public int addBall(int x, int y, int radius) throws IllegalArgumentException {
+    return addBall(x, y, radius, 0, 0, 0);
+  }
+
+  /**
+   * Racks a ball that may already be moving.
+   *
+   * @param x      The X-coordinate of the ball.
+   * @param y      The Y-coordinate of the ball.
+   * @param radius The radius of the ball.
+   * @param speed  The speed of the ball, zero for a ball at rest.
+   * @param dx     The direction of the ball in the X direction.
+   * @param dy     The direction of the ball in the Y direction.
+   * @return the index of the new ball.
+   * @throws IllegalArgumentException If the radius or speed is negative, the ball is not inside
+   *                                  the table or it overlaps another ball.
+   */
+  public int addBall(int x, int y, int radius, int speed, double dx, double dy)
+      throws IllegalArgumentException {
+    if (speed < 0) {
+      throw new IllegalArgumentException("speed cannot be negative");
+    }
+    check(x, y, radius, speed, dx, dy, balls.size());
+    double mag = speed > 0 ? Math.sqrt(dx * dx + dy * dy) : 1;
+    int index = balls.add(x, y, radius, speed * dx / mag, speed * dy / mag, now);
+    if (index == horizons.length) {
+      horizons = Arrays.copyOf(horizons, index * 2);
+      counts = Arrays.copyOf(counts, index * 2);
+    }
+    this.dirty = true;
+    return index;
+  }
+
+  private void check(int x, int y, int radius, int speed, double dx, double dy, int index) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("radius cannot be negative");
+    }
+    if (x - radius < 0 || x + radius > width || y - radius < 0 || y + radius > height) {
+      throw new IllegalArgumentException("The ball is not inside the table.");
+    }
+    if (speed > 0 && dx == 0 && dy == 0) {
+      throw new IllegalArgumentException("a moving ball needs a direction");
+    }
+    for (int i = 0; i < balls.size(); i++) {
+      if (i == index || balls.status[i] == BallStore.EMPTY) {
+        continue;
+      }
+      double sx = positionX(i) - x;
+      double sy = positionY(i) - y;
+      double reach = balls.radius[i] + radius;
+      if (sx * sx + sy * sy < reach * reach) {
+        throw new IllegalArgumentException("The ball overlaps another ball.");
+      }
+    }
+  }
+
+  /**
+   * Advances the simulation to the next event: a ball hitting an edge, a ball coming to rest, or
+   * two balls colliding. Predicted events wait in a queue keyed by time, so this only pops the
+   * earliest one and predicts again for the balls it involved.
+   */
+  @Override
+  public void advance() {
+    if (!started) {
+      return;
+    }
+    long start = SimMetrics.stepStart();
+    nextEvent();
+    SimMetrics.stepEnd(start);
+  }
+
+  private void nextEvent() {
+    if (dirty) {
+      schedule();
+    }
+    while (queue.poll()) {
+      int index = queue.ball();
+      int other = queue.other();
+      if (counts[index] != queue.ballCount()
+          || (other >= 0 && counts[other] != queue.otherCount())) {
+        continue;
+      }
+      now = Math.max(now, queue.time());
+      materialize(index);
+      int kind = queue.kind();
+      if (kind == RENEW) {
+        //the path is unchanged, so earlier predictions stay valid and only new ones are added
+        predictOwn(index);
+        predictContacts(index);
+        continue;
+      }
+      if (kind == CONTACT) {
+        materialize(other);
+        moving -= movingCount(index) + movingCount(other);
+        collide(index, other);
+        moving += movingCount(index) + movingCount(other);
+        counts[index]++;
+        counts[other]++;
+        predictOwn(index);
+        predictOwn(other);
+        predictContacts(index);
+        predictContacts(other);
+        setStatus(Status.HIT_BALL, index, other);
+      } else if (kind == REST) {
+        balls.setSpeed(index, 0);
+        moving--;
+        counts[index]++;
+        predictOwn(index);
+        predictContacts(index);
+        setStatus(Status.STOPPED, index, -1);
+      } else {
+        if (kind == TOP || kind == BOTTOM) {
+          balls.vy[index] = -1 * balls.vy[index];
+        } else {
+          balls.vx[index] = -1 * balls.vx[index];
+        }
+        if (model.getHitLoss() > 0) {
+          slow(index);
+          moving -= 1 - movingCount(index);
+        }
+        counts[index]++;
+        predictOwn(index);
+        predictContacts(index);
+        setStatus(Status.hit(EDGES[kind]), index, -1);
+      }
+      if (queue.size() > 8 * balls.size() + 64) {
+        queue.compact(liveEvent);
+      }
+      if (moving == 0) {
+        setStatus(Status.STATIONARY, -1, -1);
+      }
+      return;
+    }
+    setStatus(Status.STATIONARY, -1, -1);
+  }
+
+  /**
+   * Copies the state of the simulation into an immutable value.
+   *
+   * @return the snapshot.
+   */
+  @Override
+  public Snapshot snapshot() {
+    double[] state = new double[getStateSize()];
+    snapshot(state, 0);
+    return new Snapshot(MultiBallPoolSimulator.class, model.getClass(), state);
+  }
+
+  /**
+   * Copies the state of the simulation into a buffer, without allocating. Predicted events are
+   * not copied, they are predicted again after a restore.
+   *
+   * @param buffer receives getStateSize values.
+   * @param offset where the first value goes.
+   */
+  public void snapshot(double[] buffer, int offset) {
+    buffer[offset] = width;
+    buffer[offset + 1] = height;
+    buffer[offset + 2] = now;
+    buffer[offset + 3] = started ? 1 : 0;
+    buffer[offset + 4] = status.ordinal();
+    buffer[offset + 5] = statusBall;
+    buffer[offset + 6] = statusOther;
+    buffer[offset + 7] = balls.size();
+    balls.save(buffer, offset + HEADER);
+  }
+
+  /**
+   * Puts the simulation back in the state of a snapshot. The next events are predicted again from
+   * the state of the balls, so the simulation goes on through the same events as it did after the
+   * snapshot was taken, up to rounding in their times.
+   *
+   * @param snapshot a snapshot of a simulator with the same table and model.
+   * @throws IllegalArgumentException If the snapshot was taken from a different simulator.
+   */
+  @Override
+  public void restore(Snapshot snapshot) throws IllegalArgumentException {
+    restore(snapshot.stateFor(MultiBallPoolSimulator.class, model.getClass()), 0);
+  }
+
+  /**
+   * Puts the simulation back in the state written to a buffer by snapshot. See restore.
+   *
+   * @param buffer holds the values written by snapshot.
+   * @param offset where the first value is.
+   * @throws IllegalArgumentException If the state is of a different table.
+   */
+  public void restore(double[] buffer, int offset) throws IllegalArgumentException {
+    if (buffer[offset] != width || buffer[offset + 1] != height) {
+      throw new IllegalArgumentException("snapshot of a different table");
+    }
+    int n = (int) buffer[offset + 7];
+    balls.load(buffer, offset + HEADER, n);
+    if (n > horizons.length) {
+      horizons = Arrays.copyOf(horizons, n);
+      counts = Arrays.copyOf(counts, n);
+    }
+    this.now = buffer[offset + 2];
+    this.started = buffer[offset + 3] != 0;
+    setStatus(STATUSES[(int) buffer[offset + 4]], (int) buffer[offset + 5],
+        (int) buffer[offset + 6]);
+    this.dirty = true;
+  }
+
+  /**
+   * getter method to get the number of values snapshot writes into a buffer.
+   *
+   * @return state size.
+   */
+  public int getStateSize() {
+    return HEADER + 8 * balls.size();
+  }
+
+  /**
+   * Drops every prediction and predicts the next events of all balls from the current state. This
+   * is needed when balls are added or replaced.
+   */
+  private void schedule() {
+    int n = balls.size();
+    double largest = 0;
+    moving = 0;
+    for (int i = 0; i < n; i++) {
+      materialize(i);
+      largest = Math.max(largest, balls.radius[i]);
+      moving += movingCount(i);
+    }
+    //cells of a few ball widths, or more when the rack is sparse
+    cellSize = Math.max(4 * largest, Math.sqrt((double) width * height / n));
+    grid.reset(width, height, cellSize, n);
+    queue.clear();
+    findWalls(0, n);
+    for (int i = 0; i < n; i++) {
+      predict(i);
+    }
+    rebuilding = true;
+    for (int i = 0; i < n; i++) {
+      if (balls.status[i] == BallStore.MOVING) {
+        predictContacts(i);
+      }
+    }
+    rebuilding = false;
+    dirty = false;
+  }
+
+  /**
+   * Finds the nearest edge of a range of balls from their states at the current time.
+   */
+  private void findWalls(int from, int to) {
+    if (wallTimes.length < to) {
+      wallTimes = Arrays.copyOf(wallTimes, balls.size());
+      wallEdges = Arrays.copyOf(wallEdges, balls.size());
+    }
+    walls.nearestWalls(balls, from, to, model.getDeceleration(), width, height, wallTimes,
+        wallEdges);
+  }
+
+  /**
+   * Predicts the edge hit or rest of a ball from its state at the current time, and stores its
+   * path up to that event in the grid.
+   */
+  private void predictOwn(int index) {
+    findWalls(index, index + 1);
+    predict(index);
+  }
+
+  /**
+   * Predicts the next own event of a ball whose nearest edge was found at the current time.
+   */
+  private void predict(int index) {
+    double speed = balls.speed[index];
+    horizons[index] = Double.POSITIVE_INFINITY;
+    double scale = 0;
+    if (speed > 0) {
+      double time = model.timeToRest(speed);
+      int kind = REST;
+      //the x axis wins a tie, and rest wins a tie with an edge
+      if (wallTimes[index] < time) {
+        time = wallTimes[index];
+        kind = wallEdges[index];
+      }
+      //long paths would share cells with most of the table, so they are predicted in pieces
+      double piece = model.timeToTravel(speed, cellSize);
+      if (piece < time) {
+        time = piece;
+        kind = RENEW;
+      }
+      horizons[index] = now + time;
+      queue.push(horizons[index], index, -1, counts[index], 0, kind);
+      scale = model.distance(speed, time) / speed;
+    }
+    double x = balls.x[index];
+    double y = balls.y[index];
+    grid.insertPath(index, x, y, x + balls.vx[index] * scale, y + balls.vy[index] * scale,
+        balls.radius[index]);
+  }
+
+  /**
+   * Predicts the collisions of a ball with the balls whose paths share a cell with its own.
+   */
+  private void predictContacts(int index) {
+    predicting = index;
+    grid.forEachNeighbour(index, contactFinder);
+  }
+
+  private void checkContact(int other) {
+    int index = predicting;
+    boolean otherMoving = balls.status[other] == BallStore.MOVING;
+    if (!otherMoving && balls.status[index] != BallStore.MOVING) {
+      return;
+    }
+    if (rebuilding && other < index && otherMoving) {
+      //both balls are moving, the pair was already predicted from the other ball
+      return;
+    }
+    materialize(other);
+    double window = Math.min(horizons[index], horizons[other]) - now;
+    double time = contactTime(index, other, window);
+    if (time <= window) {
+      int first = Math.min(index, other);
+      int last = Math.max(index, other);
+      queue.push(now + time, first, last, counts[first], counts[last], CONTACT);
+    }
+  }
+
+  /**
+   * Finds when two balls first touch while approaching each other. Every ball moves along a
+   * straight line with a polynomial displacement, so the squared distance between the centres is
+   * a polynomial in time of degree 2 (simple) or 4 (friction). Both balls must be materialized.
+   */
+  private double contactTime(int a, int b, double horizon) {
+    double reach = balls.radius[a] + balls.radius[b];
+    double px = balls.x[b] - balls.x[a];
+    double py = balls.y[b] - balls.y[a];
+    double vx = balls.vx[b] - balls.vx[a];
+    double vy = balls.vy[b] - balls.vy[a];
+    double gap = px * px + py * py - reach * reach;
+    if (gap <= 0) {
+      return (px * vx + py * vy < 0) ? 0 : Double.POSITIVE_INFINITY;
+    }
+    double travel =
+        model.distance(balls.speed[a], horizon) + model.distance(balls.speed[b], horizon);
+    if (px * px + py * py > (reach + travel) * (reach + travel)) {
+      return Double.POSITIVE_INFINITY;
+    }
+    //relative acceleration, only some models slow balls down between events
+    double ax = 0;
+    double ay = 0;
+    double decel = model.getDeceleration();
+    if (decel > 0) {
+      ax = -decel * (direction(b, balls.vx) - direction(a, balls.vx));
+      ay = -decel * (direction(b, balls.vy) - direction(a, balls.vy));
+    }
+    //|p + v t + a t^2 / 2|^2 - reach^2
+    double[] c = coefficients;
+    c[0] = gap;
+    c[1] = 2 * (px * vx + py * vy);
+    c[2] = vx * vx + vy * vy + px * ax + py * ay;
+    c[3] = vx * ax + vy * ay;
+    c[4] = 0.25 * (ax * ax + ay * ay);
+    return roots.firstNonPositive(c, 4, horizon);
+  }
+
+  private double direction(int i, double[] velocity) {
+    return balls.speed[i] > 0 ? velocity[i] / balls.speed[i] : 0;
+  }
+
+  private void collide(int a, int b) {
+    double px = balls.x[b] - balls.x[a];
+    double py = balls.y[b] - balls.y[a];
+    double avx = balls.vx[a];
+    double avy = balls.vy[a];
+    double bvx = balls.vx[b];
+    double bvy = balls.vy[b];
+    //same sum as contactTime, so both always agree on whether a grazing pair is approaching
+    double closing = -(px * (bvx - avx) + py * (bvy - avy));
+    double len = Math.sqrt(px * px + py * py);
+    if (closing <= 0 || len == 0) {
+      return;
+    }
+    double nx = px / len;
+    double ny = py / len;
+    //equal masses swap the components of their velocities along the line of centres
+    double exchange = closing / len;
+    balls.setVelocity(a, avx - exchange * nx, avy - exchange * ny);
+    balls.setVelocity(b, bvx + exchange * nx, bvy + exchange * ny);
+    if (model.getHitLoss() > 0) {
+      slow(a);
+      slow(b);
+    }
+  }
+
+  private int movingCount(int i) {
+    return balls.status[i] == BallStore.MOVING ? 1 : 0;
+  }
+
+  private void slow(int i) {
+    balls.setSpeed(i, balls.speed[i] - model.getHitLoss());
+  }
+
+  /**
+   * Moves the state of a ball forward to the current time.
+   */
+  private void materialize(int i) {
+    double elapsed = now - balls.time[i];
+    balls.time[i] = now;
+    double speed = balls.speed[i];
+    if (speed <= 0 || elapsed <= 0) {
+      return;
+    }
+    double scale = model.distance(speed, elapsed) / speed;
+    balls.x[i] += balls.vx[i] * scale;
+    balls.y[i] += balls.vy[i] * scale;
+    if (model.getDeceleration() > 0) {
+      balls.setSpeed(i, model.speedAfter(speed, elapsed));
+    }
+  }
+
+  private double positionX(int i) {
+    double speed = balls.speed[i];
+    if (speed <= 0) {
+      return balls.x[i];
+    }
+    return balls.x[i] + balls.vx[i] * model.distance(speed, now - balls.time[i]) / speed;
+  }
+
+  private double positionY(int i) {
+    double speed = balls.speed[i];
+    if (speed <= 0) {
+      return balls.y[i];
+    }
+    return balls.y[i] + balls.vy[i] * model.distance(speed, now - balls.time[i]) / speed;
+  }
+
+  private double speedFactor(int i) {
+    double speed = balls.speed[i];
+    if (speed <= 0) {
+      return 1;
+    }
+    return model.speedAfter(speed, now - balls.time[i]) / speed;
+  }
+
+  /**
+   * Streams the events of the simulation from where it is now: each element advances the
+   * simulation by one event, so nothing is simulated beyond what the stream consumes. The stream
+   * ends when every ball is at rest and can be consumed once.
+   *
+   * @return the events, with shot 0 and the state of the event ball, or of the cue ball with
+   *     ball -1 if the event names no ball.
+   */
+  @Override
+  public Stream<BounceEvent> events() {
+    return BounceSpliterator.stream(this, () -> {
+      int i = Math.max(statusBall, 0);
+      return new BounceEvent(0, statusBall, now, getBallPositionX(i), getBallPositionY(i),
+          getBallVelocityX(i), getBallVelocityY(i), status);
+    });
+  }
+
+  /**
+   * getter method to get the time of the last event since the first start.
+   *
+   * @return time.
+   */
+  public double getTime() {
+    return now;
+  }
+
+  /**
+   * getter method to get the ball that took part in the last event.
+   *
+   * @return index of the ball, or -1 if the last event involved no single ball.
+   */
+  public int getEventBall() {
+    return statusBall;
+  }
+
+  /**
+   * getter method to get the second ball of the last event when two balls collided.
+   *
+   * @return index of the ball, or -1 if the last event was not a collision.
+   */
+  public int getEventOther() {
+    return statusOther;
+  }
+
+  /**
+   * getter method to get the number of balls, including the cue ball.
+   *
+   * @return number of balls.
+   */
+  public int getBallCount() {
+    return balls.size();
+  }
+
+  /**
+   * getter method to get x of a ball.
+   *
+   * @param index index of the ball.
+   * @return x.
+   */
+  public double getBallPositionX(int index) {
+    return positionX(index);
+  }
+
+  /**
+   * getter method to get y of a ball.
+   *
+   * @param index index of the ball.
+   * @return y.
+   */
+  public double getBallPositionY(int index) {
+    return positionY(index);
+  }
+
+  /**
+   * getter method to get radius of a ball.
+   *
+   * @param index index of the ball.
+   * @return radius.
+   */
+  public double getBallRadius(int index) {
+    return balls.radius[index];
+  }
+
+  /**
+   * getter method to get velocity vx of a ball.
+   *
+   * @param index index of the ball.
+   * @return velocity.
+   */
+  public double getBallVelocityX(int index) {
+    return balls.vx[index] * speedFactor(index);
+  }
+
+  /**
+   * getter method to get velocity vy of a ball.
+   *
+   * @param index index of the ball.
+   * @return velocity.
+   */
+  public double getBallVelocityY(int index) {
+    return balls.vy[index] * speedFactor(index);
+  }
+
+  @Override
+  public int getTableWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getTableHeight() {
+    return this.height;
+  }
+
+  @Override
+  public double getBallPositionX() {
+    return getBallPositionX(0);
+  }
+
+  @Override
+  public double getBallPositionY() {
+    return getBallPositionY(0);
+  }
+
+  @Override
+  public double getBallRadius() {
+    return getBallRadius(0);
+  }
+
+  @Override
+  public double getBallVelocityX() {
+    return getBallVelocityX(0);
+  }
+
+  @Override
+  public double getBallVelocityY() {
+    return getBallVelocityY(0);
+  }
+
+  /**
+   * getter method to return status of the simulation.
+   *
+   * @return status.
+   */
+  @Override
+  public String getStatus() {
+    if (report == null) {
+      if (status == Status.HIT_BALL) {
+        report = "Status: Ball " + statusBall + " hit ball " + statusOther;
+      } else if (status == Status.STOPPED) {
+        report = "Status: Ball " + statusBall + " stopped";
+      } else {
+        report = "Status: Ball " + statusBall + " hit " + status.getEdge().getLabel() + " edge";
+      }
+    }
+    return report;
+  }
+
+  /**
+   * getter method to return status of the simulation as a code. The balls involved in the last
+   * event are only named by getStatus.
+   *
+   * @return status.
+   */
+  @Override
+  public Status getStatusCode() {
+    return this.status;
+  }
+
+  private void setStatus(Status status, int ball, int other) {
+    this.status = status;
+    this.statusBall = ball;
+    this.statusOther = other;
+    //states that name no ball have a constant text
+    this.report = ball < 0 ? status.getReport() : null;
+  }
+}
@@ -0,0 +1,48 @@
+package sim;
+
+/**
+ * The PhysicsModel interface is the strategy a SimplePoolSimulator uses to move its ball. A model
+ * is chosen once when the simulator is built, usually by name through PhysicsModels, and each
+ * simulator gets an instance of its own, so a model may keep extra state about the ball.
+ */
+public interface PhysicsModel {
+
+  /**
+   * Moves a moving ball to its next event on the table, such as the next edge it hits, and
+   * updates its speed, direction, time and bounce count.
+   *
+   * @param ball   the ball to move, which isMoving.
+   * @param width  the width of the table.
+   * @param height the height of the table.
+   * @return the edge the ball hit, or null if the event was not an edge hit: the ball came to
+   *     rest, or it is still moving and started to roll.
+   */
+  Edge step(Ball ball, int width, int height);
+
+  /**
+   * Tells whether the ball has not come to rest. This implementation checks that its speed is
+   * positive; models that keep a ball moving at zero speed override it.
+   *
+   * @param ball the ball.
+   * @return true if the ball is still moving.
+   */
+  default boolean isMoving(Ball ball) {
+    return ball.getSpeed() > 0;
+  }
+
+  /**
+   * Moves the ball to the given time since start, or until it comes to rest. This implementation
+   * calls step until the time is reached, so it stops at the first event at or after the time;
+   * models that can stop between events override it.
+   *
+   * @param ball   the ball to move.
+   * @param width  the width of the table.
+   * @param height the height of the table.
+   * @param time   the time since start to move to.
+   */
+  default void advanceTo(Ball ball, int width, int height, double time) {
+    while (isMoving(ball) && ball.getTime() < time) {
+      step(ball, width, height);
+    }
+  }
+}
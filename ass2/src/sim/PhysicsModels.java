@@ -0,0 +1,68 @@
+package sim;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The PhysicsModels class is the registry of the physics models simulators can be built with,
+ * keyed by the type name passed to their constructors. "simple", "friction" and "spin" are always
+ * registered; new models are added with register and need no change to the simulators.
+ */
+public final class PhysicsModels {
+
+  private static final Map<String, Supplier<? extends PhysicsModel>> FACTORIES =
+      new ConcurrentHashMap<>();
+
+  static {
+    register("simple", SimpleModel::new);
+    register("friction", FrictionModel::new);
+    register("spin", SpinModel::new);
+  }
+
+  private PhysicsModels() {
+  }
+
+  /**
+   * Registers a model under a type name.
+   *
+   * @param name    the type name.
+   * @param factory makes a new instance of the model for every simulator.
+   * @throws IllegalArgumentException If the name is already registered.
+   */
+  public static void register(String name, Supplier<? extends PhysicsModel> factory)
+      throws IllegalArgumentException {
+    if (name == null || factory == null) {
+      throw new IllegalArgumentException("name and factory cannot be null");
+    }
+    if (FACTORIES.putIfAbsent(name, factory) != null) {
+      throw new IllegalArgumentException("model already registered: " + name);
+    }
+  }
+
+  /**
+   * Makes a new instance of a registered model.
+   *
+   * @param name the type name.
+   * @return a new model.
+   * @throws IllegalArgumentException If no model is registered under the name.
+   */
+  public static PhysicsModel create(String name) throws IllegalArgumentException {
+    Supplier<? extends PhysicsModel> factory = name == null ? null : FACTORIES.get(name);
+    if (factory == null) {
+      throw new IllegalArgumentException("invalid type");
+    }
+    return factory.get();
+  }
+
+  /**
+   * getter method to get the registered type names.
+   *
+   * @return a read-only view of the names.
+   */
+  public static Set<String> names() {
+    return Collections.unmodifiableSet(FACTORIES.keySet());
+  }
+}
@@ -1,5 +1,7 @@
 package sim;
 
+import java.util.stream.Stream;
+
 /**
  * The PoolSimulator interface represents a contract for a pool simulation system. It defines
  * methods to manage the simulation, retrieve ball and table information, and get the simulation
@@ -28,5 +30,13 @@ public interface PoolSimulator {
 
   String getStatus();
 
+  Status getStatusCode();
+
+  Snapshot snapshot();
+
+  void restore(Snapshot snapshot) throws IllegalArgumentException;
+
+  Stream<BounceEvent> events();
+
 
 }
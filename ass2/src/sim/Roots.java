@@ -0,0 +1,156 @@
+package sim;
+
+/**
+ * The Roots class finds the real roots of small polynomials inside an interval. Roots of the
+ * derivative split the interval into monotone pieces, and each piece holds at most one root which
+ * is found by bisection. Coefficients are given lowest power first. An instance keeps scratch
+ * space for the derivatives so finding roots does not allocate; it is not thread safe.
+ */
+final class Roots {
+
+  private static final int BISECTIONS = 80;
+
+  //derivative coefficients and turning points for every degree below the largest one
+  private final double[][] derivatives;
+  private final double[][] turns;
+  private final double[] found;
+
+  /**
+   * Constructs a Roots for polynomials up to the given degree.
+   *
+   * @param maxDegree the largest degree that will be solved.
+   */
+  Roots(int maxDegree) {
+    derivatives = new double[maxDegree + 1][];
+    turns = new double[maxDegree + 1][];
+    for (int n = 0; n <= maxDegree; n++) {
+      derivatives[n] = new double[n + 1];
+      turns[n] = new double[Math.max(n, 1)];
+    }
+    found = new double[Math.max(maxDegree, 1)];
+  }
+
+  /**
+   * Evaluates a polynomial.
+   *
+   * @param c coefficients, lowest power first.
+   * @param n degree of the polynomial.
+   * @param t point to evaluate at.
+   * @return value of the polynomial at t.
+   */
+  static double eval(double[] c, int n, double t) {
+    double value = c[n];
+    for (int i = n - 1; i >= 0; i--) {
+      value = value * t + c[i];
+    }
+    return value;
+  }
+
+  /**
+   * Finds the first point in [0, hi] where a polynomial that is positive at 0 drops to zero.
+   *
+   * @param c  coefficients, lowest power first.
+   * @param n  degree of the polynomial.
+   * @param hi end of the interval.
+   * @return the first root, or positive infinity if the polynomial stays positive.
+   */
+  double firstNonPositive(double[] c, int n, double hi) {
+    if (realRoots(c, n, 0, hi, found) > 0) {
+      return found[0];
+    }
+    return eval(c, n, hi) <= 0 ? hi : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Collects the real roots of a polynomial strictly inside (lo, hi) in increasing order.
+   *
+   * @param c   coefficients, lowest power first.
+   * @param n   degree of the polynomial.
+   * @param lo  start of the interval.
+   * @param hi  end of the interval.
+   * @param out receives the roots, must hold at least n values.
+   * @return the number of roots found.
+   */
+  int realRoots(double[] c, int n, double lo, double hi, double[] out) {
+    while (n > 0 && c[n] == 0) {
+      n--;
+    }
+    if (n == 0) {
+      return 0;
+    }
+    if (n == 1) {
+      double root = -c[0] / c[1];
+      if (root > lo && root < hi) {
+        out[0] = root;
+        return 1;
+      }
+      return 0;
+    }
+    if (n == 2) {
+      return quadraticRoots(c[2], c[1], c[0], lo, hi, out);
+    }
+    double[] derivative = derivatives[n - 1];
+    for (int i = 0; i < n; i++) {
+      derivative[i] = (i + 1) * c[i + 1];
+    }
+    double[] turns = this.turns[n - 1];
+    int turnCount = realRoots(derivative, n - 1, lo, hi, turns);
+    int count = 0;
+    double u = lo;
+    double pu = eval(c, n, u);
+    for (int k = 0; k <= turnCount; k++) {
+      double v = k < turnCount ? turns[k] : hi;
+      double pv = eval(c, n, v);
+      if (pv == 0 && k < turnCount) {
+        out[count++] = v;
+      } else if ((pu < 0 && pv > 0) || (pu > 0 && pv < 0)) {
+        out[count++] = bisect(c, n, u, v, pu);
+      }
+      u = v;
+      pu = pv;
+    }
+    return count;
+  }
+
+  private static int quadraticRoots(double a, double b, double c, double lo, double hi,
+      double[] out) {
+    double d = b * b - 4 * a * c;
+    if (d < 0) {
+      return 0;
+    }
+    //this form avoids the cancellation of -b + sqrt(d) when b is large
+    double q = -0.5 * (b + Math.copySign(Math.sqrt(d), b));
+    double r1 = q / a;
+    double r2 = q == 0 ? r1 : c / q;
+    double first = Math.min(r1, r2);
+    double second = Math.max(r1, r2);
+    int found = 0;
+    if (first > lo && first < hi) {
+      out[found++] = first;
+    }
+    if (second > lo && second < hi && second != first) {
+      out[found++] = second;
+    }
+    return found;
+  }
+
+  private static double bisect(double[] c, int n, double lo, double hi, double plo) {
+    for (int i = 0; i < BISECTIONS; i++) {
+      double mid = 0.5 * (lo + hi);
+      if (mid <= lo || mid >= hi) {
+        break;
+      }
+      double pm = eval(c, n, mid);
+      if (pm == 0) {
+        return mid;
+      }
+      if ((pm < 0) == (plo < 0)) {
+        lo = mid;
+        plo = pm;
+      } else {
+        hi = mid;
+      }
+    }
+    return 0.5 * (lo + hi);
+  }
+}
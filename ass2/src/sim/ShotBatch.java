@@ -0,0 +1,197 @@
+package sim;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The ShotBatch class holds the start parameters of many shots as parallel primitive columns, in
+ * the same units as PoolSimulator.start. A compact batch keeps the directions as floats, 24 bytes
+ * a shot instead of 32, for sweeps too wide to hold in double precision.
+ */
+public class ShotBatch {
+
+  private int[] x;
+  private int[] y;
+  private int[] radius;
+  private int[] speed;
+  //double columns, or null when the float columns are used instead
+  private double[] dx;
+  private double[] dy;
+  private float[] compactDx;
+  private float[] compactDy;
+  private int size;
+
+  /**
+   * Constructs an empty ShotBatch.
+   *
+   * @param capacity number of shots to make room for.
+   */
+  public ShotBatch(int capacity) {
+    this(capacity, false);
+  }
+
+  private ShotBatch(int capacity, boolean compact) {
+    capacity = Math.max(capacity, 1);
+    x = new int[capacity];
+    y = new int[capacity];
+    radius = new int[capacity];
+    speed = new int[capacity];
+    if (compact) {
+      compactDx = new float[capacity];
+      compactDy = new float[capacity];
+    } else {
+      dx = new double[capacity];
+      dy = new double[capacity];
+    }
+  }
+
+  /**
+   * Constructs an empty ShotBatch that keeps the directions as floats. CompactShotEvaluator runs
+   * the shots in float precision anyway; any other engine runs the rounded directions.
+   *
+   * @param capacity number of shots to make room for.
+   * @return the batch.
+   */
+  public static ShotBatch compact(int capacity) {
+    return new ShotBatch(capacity, true);
+  }
+
+  /**
+   * Appends a shot.
+   *
+   * @param x      The initial X-coordinate of the ball.
+   * @param y      The initial Y-coordinate of the ball.
+   * @param radius The radius of the ball.
+   * @param speed  The initial speed of the ball.
+   * @param dx     The initial velocity in the X direction.
+   * @param dy     The initial velocity in the Y direction.
+   * @return the index of the shot.
+   */
+  public int add(int x, int y, int radius, int speed, double dx, double dy) {
+    if (size == this.x.length) {
+      int capacity = size * 2;
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.radius = Arrays.copyOf(this.radius, capacity);
+      this.speed = Arrays.copyOf(this.speed, capacity);
+      if (this.dx != null) {
+        this.dx = Arrays.copyOf(this.dx, capacity);
+        this.dy = Arrays.copyOf(this.dy, capacity);
+      } else {
+        compactDx = Arrays.copyOf(compactDx, capacity);
+        compactDy = Arrays.copyOf(compactDy, capacity);
+      }
+    }
+    this.x[size] = x;
+    this.y[size] = y;
+    this.radius[size] = radius;
+    this.speed[size] = speed;
+    if (this.dx != null) {
+      this.dx[size] = dx;
+      this.dy[size] = dy;
+    } else {
+      compactDx[size] = (float) dx;
+      compactDy[size] = (float) dy;
+    }
+    return size++;
+  }
+
+  /**
+   * Starts a simulator with one of the shots.
+   *
+   * @param i         index of the shot.
+   * @param simulator the simulator to start.
+   * @throws IllegalArgumentException If the simulator rejects the shot.
+   */
+  public void startShot(int i, PoolSimulator simulator) throws IllegalArgumentException {
+    simulator.start(x[i], y[i], radius[i], speed[i], getDx(i), getDy(i));
+  }
+
+  /**
+   * Streams the events of every shot in order, running each shot on its own SimplePoolSimulator
+   * only as its events are consumed. The stream splits between shots, so a parallel stream runs
+   * them on several threads. Shots the simulator rejects yield no events.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, as for SimplePoolSimulator.
+   * @return the events, with the index of their shot and ball 0.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator.
+   */
+  public Stream<BounceEvent> events(int width, int height, String type)
+      throws IllegalArgumentException {
+    new SimplePoolSimulator(width, height, type);
+    return StreamSupport.stream(
+        new ShotBatchSpliterator(this, 0, size, width, height, type), false);
+  }
+
+  /**
+   * getter method to get the number of shots.
+   *
+   * @return number of shots.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * getter method to get the start x of a shot.
+   *
+   * @param i index of the shot.
+   * @return x.
+   */
+  public int getX(int i) {
+    return x[i];
+  }
+
+  /**
+   * getter method to get the start y of a shot.
+   *
+   * @param i index of the shot.
+   * @return y.
+   */
+  public int getY(int i) {
+    return y[i];
+  }
+
+  /**
+   * getter method to get the radius of a shot.
+   *
+   * @param i index of the shot.
+   * @return radius.
+   */
+  public int getRadius(int i) {
+    return radius[i];
+  }
+
+  /**
+   * getter method to get the start speed of a shot.
+   *
+   * @param i index of the shot.
+   * @return speed.
+   */
+  public int getSpeed(int i) {
+    return speed[i];
+  }
+
+  /**
+   * getter method to get the x direction of a shot.
+   *
+   * @param i index of the shot.
+   * @return dx.
+   */
+  public double getDx(int i) {
+    return dx != null ? dx[i] : compactDx[i];
+  }
+
+  /**
+   * getter method to get the y direction of a shot.
+   *
+   * @param i index of the shot.
+   * @return dy.
+   */
+  public double getDy(int i) {
+    return dy != null ? dy[i] : compactDy[i];
+  }
+}
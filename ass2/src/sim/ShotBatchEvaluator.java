@@ -0,0 +1,220 @@
+package sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ShotBatchEvaluator class runs every shot of a ShotBatch to rest on a SimplePoolSimulator and
+ * records the outcome in a ShotResults. The batch is split into ranges that run in parallel on a
+ * ForkJoinPool. Each worker thread keeps one simulator that is restarted for every shot, so the
+ * loop over shots does not allocate. An evaluator built on a ShotCache looks every shot up in the
+ * cache first and only runs the ones it does not hold.
+ */
+public class ShotBatchEvaluator {
+
+  /**
+   * Upper bound on the calls to advance for one shot. The evaluator runs a shot still moving by
+   * then to rest with runToRest; the engines that only step mark it ShotResults.CAPPED.
+   */
+  public static final int MAX_STEPS = 100000;
+
+  private final int width;
+  private final int height;
+  private final String type;
+  private final ForkJoinPool pool;
+  private final ShotCache cache;
+  private final ThreadLocal<SimplePoolSimulator> simulators;
+
+  /**
+   * Constructs a ShotBatchEvaluator for the given table that runs on the common pool.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, either "simple" or "friction".
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator.
+   */
+  public ShotBatchEvaluator(int width, int height, String type) throws IllegalArgumentException {
+    this(width, height, type, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a ShotBatchEvaluator for the given table that runs on the given pool.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, either "simple" or "friction".
+   * @param pool   The pool that runs the shots.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator.
+   */
+  public ShotBatchEvaluator(int width, int height, String type, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    this(width, height, type, pool, null);
+  }
+
+  /**
+   * Constructs a ShotBatchEvaluator for the table and type of a cache that runs on the given pool.
+   * The outcome of a shot is the outcome of the shot with its direction rounded by the cache.
+   *
+   * @param cache The cache of outcomes, which may be shared with other evaluators.
+   * @param pool  The pool that runs the shots.
+   */
+  public ShotBatchEvaluator(ShotCache cache, ForkJoinPool pool) {
+    this(cache.getTableWidth(), cache.getTableHeight(), cache.getType(), pool, cache);
+  }
+
+  private ShotBatchEvaluator(int width, int height, String type, ForkJoinPool pool,
+      ShotCache cache) throws IllegalArgumentException {
+    //fail here rather than on a worker thread
+    new SimplePoolSimulator(width, height, type);
+    this.width = width;
+    this.height = height;
+    this.type = type;
+    this.pool = pool;
+    this.cache = cache;
+    this.simulators = ThreadLocal.withInitial(() -> new SimplePoolSimulator(width, height, type));
+  }
+
+  /**
+   * Runs every shot of the batch to rest.
+   *
+   * @param shots the shots to run.
+   * @return the outcome of every shot, in the order of the batch.
+   */
+  public ShotResults evaluate(ShotBatch shots) {
+    ShotResults results = new ShotResults(shots.size());
+    evaluate(shots, results);
+    return results;
+  }
+
+  /**
+   * Runs every shot of the batch to rest and writes the outcomes into an existing ShotResults.
+   *
+   * @param shots   the shots to run.
+   * @param results receives the outcomes, must hold at least as many shots as the batch.
+   */
+  public void evaluate(ShotBatch shots, ShotResults results) {
+    if (results.size() < shots.size()) {
+      throw new IllegalArgumentException("results are smaller than the batch");
+    }
+    int leaf = Math.max(64, shots.size() / (8 * pool.getParallelism()));
+    pool.invoke(new Range(shots, results, 0, shots.size(), leaf));
+  }
+
+  /**
+   * Gives the outcome of one shot, from the cache if there is one and it holds the shot.
+   */
+  private void run(ShotBatch shots, ShotResults results, int i) {
+    if (cache == null) {
+      run(shots.getX(i), shots.getY(i), shots.getRadius(i), shots.getSpeed(i), shots.getDx(i),
+          shots.getDy(i), results, i);
+      return;
+    }
+    double dx = shots.getDx(i);
+    double dy = shots.getDy(i);
+    double mag = Math.sqrt(dx * dx + dy * dy);
+    int x = shots.getX(i);
+    int y = shots.getY(i);
+    int radius = shots.getRadius(i);
+    int speed = shots.getSpeed(i);
+    int stepsX = cache.quantize(dx / mag);
+    int stepsY = cache.quantize(dy / mag);
+    if (!cache.get(x, y, radius, speed, stepsX, stepsY, results, i)) {
+      run(x, y, radius, speed, cache.direction(stepsX), cache.direction(stepsY), results, i);
+      cache.put(x, y, radius, speed, stepsX, stepsY, results, i);
+    }
+  }
+
+  /**
+   * Runs one shot to rest on the simulator of the calling thread, an edge at a time so the outcome
+   * matches stepping the shot, and in one call for a shot with more than MAX_STEPS bounces.
+   */
+  private void run(int x, int y, int radius, int speed, double dx, double dy,
+      ShotResults results, int i) {
+    SimplePoolSimulator simulator = simulators.get();
+    try {
+      simulator.start(x, y, radius, speed, dx, dy);
+    } catch (IllegalArgumentException e) {
+      results.set(i, Double.NaN, Double.NaN, -1, Double.NaN, ShotResults.INVALID);
+      return;
+    }
+    for (int step = 0; step < MAX_STEPS; step++) {
+      if (simulator.getStatusCode() == Status.STATIONARY) {
+        break;
+      }
+      simulator.advance();
+    }
+    simulator.runToRest();
+    results.set(i, simulator.getBallPositionX(), simulator.getBallPositionY(),
+        simulator.getBounceCount(), simulator.getElapsedTime(),
+        ShotResults.edgeCode(simulator.getLastEdge()));
+  }
+
+  /**
+   * getter method to get width.
+   *
+   * @return width.
+   */
+  public int getTableWidth() {
+    return this.width;
+  }
+
+  /**
+   * getter method to get height.
+   *
+   * @return height.
+   */
+  public int getTableHeight() {
+    return this.height;
+  }
+
+  /**
+   * getter method to get the simulation type.
+   *
+   * @return type.
+   */
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * getter method to get the cache of outcomes.
+   *
+   * @return the cache, or null if every shot is run.
+   */
+  public ShotCache getCache() {
+    return this.cache;
+  }
+
+  /**
+   * A range of shots that splits in half until it is small enough to run on one thread.
+   */
+  private final class Range extends RecursiveAction {
+
+    private final ShotBatch shots;
+    private final ShotResults results;
+    private final int from;
+    private final int to;
+    private final int leaf;
+
+    private Range(ShotBatch shots, ShotResults results, int from, int to, int leaf) {
+      this.shots = shots;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+      this.leaf = leaf;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= leaf) {
+        for (int i = from; i < to; i++) {
+          run(shots, results, i);
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new Range(shots, results, from, mid, leaf),
+          new Range(shots, results, mid, to, leaf));
+    }
+  }
+}
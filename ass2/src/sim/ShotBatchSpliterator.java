@@ -0,0 +1,106 @@
+package sim;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The ShotBatchSpliterator class yields the events of every shot of a ShotBatch in order, running
+ * each shot on a SimplePoolSimulator only as its events are asked for. It splits by halving the
+ * shots it has not started yet, and each part builds its own simulator, so a parallel stream runs
+ * the shots on as many threads with no shared state. A shot the simulator rejects yields no
+ * events, and every other shot yields all its events up to rest, like events of the simulator, so
+ * a stream that must stop early limits itself.
+ */
+final class ShotBatchSpliterator implements Spliterator<BounceEvent> {
+
+  //a guess at the events of a shot, for the splitting decisions of streams
+  private static final int EVENTS_PER_SHOT = 8;
+
+  private final ShotBatch shots;
+  private final int width;
+  private final int height;
+  private final String type;
+  private SimplePoolSimulator simulator;
+  //the shot being run, or the next one to start, and whether it is running
+  private int next;
+  private int end;
+  private boolean running;
+
+  /**
+   * Constructs a ShotBatchSpliterator over a range of shots.
+   *
+   * @param shots  the shots.
+   * @param from   the first shot.
+   * @param to     one past the last shot.
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation.
+   */
+  ShotBatchSpliterator(ShotBatch shots, int from, int to, int width, int height, String type) {
+    this.shots = shots;
+    this.next = from;
+    this.end = to;
+    this.width = width;
+    this.height = height;
+    this.type = type;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super BounceEvent> action) {
+    while (true) {
+      if (!running) {
+        if (next >= end) {
+          return false;
+        }
+        if (simulator == null) {
+          simulator = new SimplePoolSimulator(width, height, type);
+        }
+        try {
+          shots.startShot(next, simulator);
+          running = true;
+        } catch (IllegalArgumentException e) {
+          next++;
+          continue;
+        }
+      }
+      if (simulator.getStatusCode() == Status.STATIONARY) {
+        running = false;
+        next++;
+        continue;
+      }
+      simulator.advance();
+      action.accept(new BounceEvent(next, 0, simulator.getElapsedTime(),
+          simulator.getBallPositionX(), simulator.getBallPositionY(),
+          simulator.getBallVelocityX(), simulator.getBallVelocityY(),
+          simulator.getStatusCode()));
+      return true;
+    }
+  }
+
+  @Override
+  public Spliterator<BounceEvent> trySplit() {
+    int from = running ? next + 1 : next;
+    if (end - from < 2) {
+      return null;
+    }
+    //an ORDERED spliterator gives away its prefix, so the running shot goes with it
+    int mid = (from + end) >>> 1;
+    ShotBatchSpliterator prefix = new ShotBatchSpliterator(shots, next, mid, width, height, type);
+    prefix.simulator = simulator;
+    prefix.running = running;
+    simulator = null;
+    running = false;
+    next = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return (long) (end - next) * EVENTS_PER_SHOT;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+}
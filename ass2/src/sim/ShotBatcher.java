@@ -0,0 +1,188 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The ShotBatcher class gathers the shots of many small concurrent requests into one ShotBatch, so
+ * a ShotBatchEvaluator runs them together on its pool. A batch is run once it holds maxShots shots,
+ * or maxDelay after its first request arrived. One dispatcher thread runs the batches; callers
+ * wait for their part of the results. The lock is a ReentrantLock rather than synchronized, so a
+ * waiting virtual thread does not pin its carrier.
+ */
+final class ShotBatcher {
+
+  private final ShotBatchEvaluator evaluator;
+  private final int maxShots;
+  private final long maxDelayNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition arrived = lock.newCondition();
+  private final Thread dispatcher;
+  private ShotBatch pending;
+  private List<Request> waiting = new ArrayList<>();
+  private long firstArrival;
+  private boolean closed;
+  private long batches;
+  private long shots;
+
+  /**
+   * Constructs a ShotBatcher and starts its dispatcher thread.
+   *
+   * @param evaluator     runs the batches.
+   * @param maxShots      the number of shots that makes a batch run at once.
+   * @param maxDelayNanos the longest a request waits for other requests to join its batch.
+   */
+  ShotBatcher(ShotBatchEvaluator evaluator, int maxShots, long maxDelayNanos) {
+    this.evaluator = evaluator;
+    this.maxShots = maxShots;
+    this.maxDelayNanos = maxDelayNanos;
+    this.pending = new ShotBatch(maxShots);
+    this.dispatcher = new Thread(this::dispatch, "shot-batcher");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+  }
+
+  /**
+   * Runs shots as part of the next batch and waits for their outcomes.
+   *
+   * @param request the shots.
+   * @return the outcome of every shot, in the order of the request.
+   * @throws InterruptedException If the caller is interrupted while waiting.
+   * @throws IllegalStateException If the batcher is closed.
+   */
+  ShotResults run(ShotBatch request) throws InterruptedException, IllegalStateException {
+    Request entry = new Request(request.size());
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("batcher is closed");
+      }
+      if (waiting.isEmpty()) {
+        firstArrival = System.nanoTime();
+      }
+      entry.offset = pending.size();
+      for (int i = 0; i < request.size(); i++) {
+        pending.add(request.getX(i), request.getY(i), request.getRadius(i), request.getSpeed(i),
+            request.getDx(i), request.getDy(i));
+      }
+      waiting.add(entry);
+      arrived.signal();
+    } finally {
+      lock.unlock();
+    }
+    entry.done.await();
+    return entry.results;
+  }
+
+  /**
+   * Stops the dispatcher once the batch it is running is done. Requests still waiting for a batch
+   * are run first.
+   */
+  void close() {
+    lock.lock();
+    try {
+      closed = true;
+      arrived.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * getter method to get the number of batches run.
+   *
+   * @return batches.
+   */
+  long getBatches() {
+    lock.lock();
+    try {
+      return batches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * getter method to get the number of shots run.
+   *
+   * @return shots.
+   */
+  long getShots() {
+    lock.lock();
+    try {
+      return shots;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void dispatch() {
+    while (true) {
+      ShotBatch batch;
+      List<Request> requests;
+      lock.lock();
+      try {
+        while (!closed && (waiting.isEmpty() || (pending.size() < maxShots
+            && System.nanoTime() - firstArrival < maxDelayNanos))) {
+          if (waiting.isEmpty()) {
+            arrived.awaitUninterruptibly();
+          } else {
+            long left = maxDelayNanos - (System.nanoTime() - firstArrival);
+            arrived.await(left, TimeUnit.NANOSECONDS);
+          }
+        }
+        if (waiting.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        requests = waiting;
+        pending = new ShotBatch(maxShots);
+        waiting = new ArrayList<>();
+        batches++;
+        shots += batch.size();
+      } catch (InterruptedException e) {
+        //only close stops the dispatcher
+        continue;
+      } finally {
+        lock.unlock();
+      }
+      ShotResults results = null;
+      try {
+        results = evaluator.evaluate(batch);
+      } catch (RuntimeException e) {
+        //the callers get invalid shots rather than waiting forever
+      }
+      for (Request request : requests) {
+        for (int i = 0; i < request.results.size(); i++) {
+          int from = request.offset + i;
+          if (results == null) {
+            request.results.set(i, Double.NaN, Double.NaN, -1, Double.NaN, ShotResults.INVALID);
+          } else {
+            request.results.set(i, results.getFinalX(from), results.getFinalY(from),
+                results.getBounces(from), results.getTimeToRest(from),
+                results.getLastEdge(from));
+          }
+        }
+        request.done.countDown();
+      }
+    }
+  }
+
+  /**
+   * The shots of one caller within a batch.
+   */
+  private static final class Request {
+
+    private final ShotResults results;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private int offset;
+
+    private Request(int size) {
+      this.results = new ShotResults(size);
+    }
+  }
+}
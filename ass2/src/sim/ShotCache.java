@@ -0,0 +1,380 @@
+package sim;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ShotCache class remembers the outcome of shots on one table and model, so a
+ * ShotBatchEvaluator built on it runs a shot only the first time it is asked for. The position,
+ * radius and speed of a shot are integers and taken as they are; the direction is normalized and
+ * rounded to a multiple of the resolution, so nearly the same shots share an entry. A shot is run
+ * with its rounded direction, so an entry does not depend on which of its shots came first.
+ *
+ * <p>Entries live in primitive columns split into segments by the hash of their key, each with its
+ * own lock, open addressed table and least recently used list, so concurrent lookups in different
+ * segments do not wait for each other and the cache does not allocate once full. The counts of
+ * hits, misses and evictions help choose the resolution.
+ */
+public final class ShotCache {
+
+  private static final int MAX_SEGMENTS = 16;
+  private static final int MIN_SEGMENT_CAPACITY = 8;
+
+  private final int width;
+  private final int height;
+  private final String type;
+  private final double resolution;
+  private final Segment[] segments;
+  private final int segmentShift;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs an empty ShotCache.
+   *
+   * @param width      The width of the pool table.
+   * @param height     The height of the pool table.
+   * @param type       The type of the simulation, as for SimplePoolSimulator.
+   * @param capacity   The number of outcomes kept, rounded up to a multiple of the segments.
+   * @param resolution The step the components of the direction are rounded to, from 1e-9 to 0.5.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator, the
+   *                                  capacity is not positive or the resolution is out of range.
+   */
+  public ShotCache(int width, int height, String type, int capacity, double resolution)
+      throws IllegalArgumentException {
+    new SimplePoolSimulator(width, height, type);
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    if (!(resolution >= 1e-9 && resolution <= 0.5)) {
+      throw new IllegalArgumentException("resolution must be between 1e-9 and 0.5");
+    }
+    this.width = width;
+    this.height = height;
+    this.type = type;
+    this.resolution = resolution;
+    int count = 1;
+    while (count < MAX_SEGMENTS && capacity / (count * 2) >= MIN_SEGMENT_CAPACITY) {
+      count *= 2;
+    }
+    segments = new Segment[count];
+    for (int s = 0; s < count; s++) {
+      segments[s] = new Segment((capacity + count - 1) / count);
+    }
+    segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+  }
+
+  /**
+   * Rounds a component of a unit direction to the resolution.
+   *
+   * @return the number of resolution steps.
+   */
+  int quantize(double component) {
+    return (int) Math.round(component / resolution);
+  }
+
+  /**
+   * Gives the component of the direction a shot of the cache is run with.
+   *
+   * @param steps a value returned by quantize.
+   * @return the component.
+   */
+  double direction(int steps) {
+    return steps * resolution;
+  }
+
+  /**
+   * Copies the outcome of a shot into a ShotResults if the cache holds it, and marks it as the
+   * most recently used.
+   *
+   * @return whether the cache held the shot.
+   */
+  boolean get(int x, int y, int radius, int speed, int dx, int dy, ShotResults results, int i) {
+    long key0 = pack(x, y);
+    long key1 = pack(radius, speed);
+    long key2 = pack(dx, dy);
+    long hash = hash(key0, key1, key2);
+    boolean hit = segment(hash).get(key0, key1, key2, (int) hash, results, i);
+    (hit ? hits : misses).increment();
+    return hit;
+  }
+
+  /**
+   * Stores the outcome of a shot from a ShotResults, evicting the least recently used outcome of
+   * its segment if the segment is full.
+   */
+  void put(int x, int y, int radius, int speed, int dx, int dy, ShotResults results, int i) {
+    long key0 = pack(x, y);
+    long key1 = pack(radius, speed);
+    long key2 = pack(dx, dy);
+    long hash = hash(key0, key1, key2);
+    if (segment(hash).put(key0, key1, key2, (int) hash, results, i)) {
+      evictions.increment();
+    }
+  }
+
+  private Segment segment(long hash) {
+    return segments[segmentShift == 64 ? 0 : (int) (hash >>> segmentShift)];
+  }
+
+  private static long pack(int high, int low) {
+    return (long) high << 32 | (low & 0xffffffffL);
+  }
+
+  private static long hash(long key0, long key1, long key2) {
+    long h = key0 * 0x9e3779b97f4a7c15L;
+    h = (h ^ key1) * 0xbf58476d1ce4e5b9L;
+    h = (h ^ key2) * 0x94d049bb133111ebL;
+    return h ^ (h >>> 31);
+  }
+
+  /**
+   * getter method to get the number of lookups that found their shot.
+   *
+   * @return hits.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * getter method to get the number of lookups that had to run their shot.
+   *
+   * @return misses.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * getter method to get the number of outcomes dropped to make room for new ones.
+   *
+   * @return evictions.
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * getter method to get the number of outcomes held.
+   *
+   * @return size.
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * getter method to get the number of outcomes the cache can hold.
+   *
+   * @return capacity.
+   */
+  public int getCapacity() {
+    return segments.length * segments[0].capacity;
+  }
+
+  /**
+   * getter method to get the resolution of the direction.
+   *
+   * @return resolution.
+   */
+  public double getResolution() {
+    return resolution;
+  }
+
+  /**
+   * getter method to get width.
+   *
+   * @return width.
+   */
+  public int getTableWidth() {
+    return width;
+  }
+
+  /**
+   * getter method to get height.
+   *
+   * @return height.
+   */
+  public int getTableHeight() {
+    return height;
+  }
+
+  /**
+   * getter method to get the simulation type.
+   *
+   * @return type.
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * A part of the cache with its own lock. Entries are slots of the columns; the table maps a
+   * hash to slot + 1 by linear probing, and prev and next chain the slots from the most to the
+   * least recently used.
+   */
+  private static final class Segment {
+
+    private final int capacity;
+    private final long[] key0;
+    private final long[] key1;
+    private final long[] key2;
+    private final int[] hashes;
+    private final double[] finalX;
+    private final double[] finalY;
+    private final int[] bounces;
+    private final double[] timeToRest;
+    private final byte[] lastEdge;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] table;
+    private final int mask;
+    private int size;
+    private int head = -1;
+    private int tail = -1;
+
+    private Segment(int capacity) {
+      this.capacity = capacity;
+      key0 = new long[capacity];
+      key1 = new long[capacity];
+      key2 = new long[capacity];
+      hashes = new int[capacity];
+      finalX = new double[capacity];
+      finalY = new double[capacity];
+      bounces = new int[capacity];
+      timeToRest = new double[capacity];
+      lastEdge = new byte[capacity];
+      prev = new int[capacity];
+      next = new int[capacity];
+      //at most half full, so probes stay short
+      table = new int[Integer.highestOneBit(capacity) * 4];
+      mask = table.length - 1;
+    }
+
+    private synchronized boolean get(long k0, long k1, long k2, int hash, ShotResults results,
+        int i) {
+      int index = find(k0, k1, k2, hash);
+      if (table[index] == 0) {
+        return false;
+      }
+      int slot = table[index] - 1;
+      results.set(i, finalX[slot], finalY[slot], bounces[slot], timeToRest[slot], lastEdge[slot]);
+      unlink(slot);
+      linkFirst(slot);
+      return true;
+    }
+
+    /**
+     * Stores an outcome.
+     *
+     * @return whether another outcome was evicted.
+     */
+    private synchronized boolean put(long k0, long k1, long k2, int hash, ShotResults results,
+        int i) {
+      int index = find(k0, k1, k2, hash);
+      boolean evicted = false;
+      int slot;
+      if (table[index] != 0) {
+        //another thread ran the same shot meanwhile
+        slot = table[index] - 1;
+        unlink(slot);
+      } else {
+        if (size < capacity) {
+          slot = size++;
+        } else {
+          slot = tail;
+          unlink(slot);
+          remove(slot);
+          evicted = true;
+          index = find(k0, k1, k2, hash);
+        }
+        key0[slot] = k0;
+        key1[slot] = k1;
+        key2[slot] = k2;
+        hashes[slot] = hash;
+        table[index] = slot + 1;
+      }
+      finalX[slot] = results.getFinalX(i);
+      finalY[slot] = results.getFinalY(i);
+      bounces[slot] = results.getBounces(i);
+      timeToRest[slot] = results.getTimeToRest(i);
+      lastEdge[slot] = results.getLastEdge(i);
+      linkFirst(slot);
+      return evicted;
+    }
+
+    private synchronized int size() {
+      return size;
+    }
+
+    /**
+     * Finds the index of the table that holds a key, or the empty index where it would go.
+     */
+    private int find(long k0, long k1, long k2, int hash) {
+      int index = hash & mask;
+      while (table[index] != 0) {
+        int slot = table[index] - 1;
+        if (key0[slot] == k0 && key1[slot] == k1 && key2[slot] == k2) {
+          break;
+        }
+        index = (index + 1) & mask;
+      }
+      return index;
+    }
+
+    /**
+     * Takes a slot out of the table, moving back the entries probed past it so that every entry
+     * can still be found from its home index.
+     */
+    private void remove(int slot) {
+      int hole = find(key0[slot], key1[slot], key2[slot], hashes[slot]);
+      table[hole] = 0;
+      int index = hole;
+      while (true) {
+        index = (index + 1) & mask;
+        if (table[index] == 0) {
+          return;
+        }
+        int home = hashes[table[index] - 1] & mask;
+        //the entry stays if its home lies cyclically in (hole, index]
+        boolean stays = hole <= index ? hole < home && home <= index : hole < home || home <= index;
+        if (!stays) {
+          table[hole] = table[index];
+          table[index] = 0;
+          hole = index;
+        }
+      }
+    }
+
+    private void unlink(int slot) {
+      int before = prev[slot];
+      int after = next[slot];
+      if (before >= 0) {
+        next[before] = after;
+      } else {
+        head = after;
+      }
+      if (after >= 0) {
+        prev[after] = before;
+      } else {
+        tail = before;
+      }
+    }
+
+    private void linkFirst(int slot) {
+      prev[slot] = -1;
+      next[slot] = head;
+      if (head >= 0) {
+        prev[head] = slot;
+      } else {
+        tail = slot;
+      }
+      head = slot;
+    }
+  }
+}
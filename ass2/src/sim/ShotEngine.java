@@ -0,0 +1,78 @@
+package sim;
+
+/**
+ * The ShotEngine interface is an engine that runs shots to rest, as compared by the
+ * DifferentialFuzzer. The engines of the simulator are available by name from engine.
+ */
+public interface ShotEngine {
+
+  /**
+   * Runs every shot of a batch to rest on one table.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, as for SimplePoolSimulator.
+   * @param shots  the shots to run.
+   * @return the outcome of every shot, in the order of the batch, with the shots the engine
+   *     rejects marked INVALID.
+   */
+  ShotResults run(int width, int height, String type, ShotBatch shots);
+
+  /**
+   * Gives an engine of the simulator by name: "advance" steps a SimplePoolSimulator edge by edge
+   * and marks shots still moving after ShotBatchEvaluator.MAX_STEPS steps CAPPED,
+   * "runToRest" runs it to rest in one call, "batch" is a ShotBatchEvaluator and "compact" a
+   * CompactShotEvaluator, both on the pool of the calling thread as in EvaluatorEngine, and kept
+   * by each thread while the table stays the same.
+   *
+   * @param name the name of the engine.
+   * @return the engine.
+   * @throws IllegalArgumentException If there is no engine with the name.
+   */
+  static ShotEngine engine(String name) throws IllegalArgumentException {
+    switch (name) {
+      case "advance":
+        return (width, height, type, shots) -> single(width, height, type, shots, false);
+      case "runToRest":
+        return (width, height, type, shots) -> single(width, height, type, shots, true);
+      case "batch":
+        return new EvaluatorEngine<>(ShotBatchEvaluator::new, ShotBatchEvaluator::evaluate);
+      case "compact":
+        return new EvaluatorEngine<>(CompactShotEvaluator::new, CompactShotEvaluator::evaluate);
+      default:
+        throw new IllegalArgumentException("invalid engine");
+    }
+  }
+
+  /**
+   * Runs shots one at a time on a SimplePoolSimulator.
+   */
+  private static ShotResults single(int width, int height, String type, ShotBatch shots,
+      boolean toRest) {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(width, height, type);
+    ShotResults results = new ShotResults(shots.size());
+    for (int i = 0; i < shots.size(); i++) {
+      try {
+        shots.startShot(i, simulator);
+      } catch (IllegalArgumentException e) {
+        results.set(i, Double.NaN, Double.NaN, -1, Double.NaN, ShotResults.INVALID);
+        continue;
+      }
+      if (toRest) {
+        simulator.runToRest();
+      } else {
+        for (int step = 0; step < ShotBatchEvaluator.MAX_STEPS; step++) {
+          if (simulator.getStatusCode() == Status.STATIONARY) {
+            break;
+          }
+          simulator.advance();
+        }
+      }
+      boolean rests = simulator.getStatusCode() == Status.STATIONARY;
+      results.set(i, simulator.getBallPositionX(), simulator.getBallPositionY(),
+          simulator.getBounceCount(), simulator.getElapsedTime(),
+          rests ? ShotResults.edgeCode(simulator.getLastEdge()) : ShotResults.CAPPED);
+    }
+    return results;
+  }
+}
@@ -0,0 +1,164 @@
+package sim;
+
+/**
+ * The ShotResults class holds the outcome of every shot of a ShotBatch as parallel primitive
+ * columns: where the ball came to rest, how many edges it hit, how long it took to stop and which
+ * edge it hit last. Compact results keep the position and time as floats, 17 bytes a shot instead
+ * of 29, for sweeps too wide to hold in double precision.
+ */
+public class ShotResults {
+
+  public static final byte NO_EDGE = 0;
+  public static final byte LEFT = 1;
+  public static final byte RIGHT = 2;
+  public static final byte BOTTOM = 3;
+  public static final byte TOP = 4;
+  /**
+   * Marks a shot the simulator rejected; its position and time are NaN.
+   */
+  public static final byte INVALID = -1;
+  /**
+   * Marks a shot an engine that only steps cut off after ShotBatchEvaluator.MAX_STEPS steps before
+   * it came to rest; its position, bounces and time are where it was cut off.
+   */
+  public static final byte CAPPED = -2;
+
+  //double columns, or null when the float columns are used instead
+  private final double[] finalX;
+  private final double[] finalY;
+  private final double[] timeToRest;
+  private final float[] compactX;
+  private final float[] compactY;
+  private final float[] compactTime;
+  private final int[] bounces;
+  private final byte[] lastEdge;
+
+  /**
+   * Constructs a ShotResults with room for the given number of shots.
+   *
+   * @param size number of shots.
+   */
+  public ShotResults(int size) {
+    this(size, false);
+  }
+
+  private ShotResults(int size, boolean compact) {
+    finalX = compact ? null : new double[size];
+    finalY = compact ? null : new double[size];
+    timeToRest = compact ? null : new double[size];
+    compactX = compact ? new float[size] : null;
+    compactY = compact ? new float[size] : null;
+    compactTime = compact ? new float[size] : null;
+    bounces = new int[size];
+    lastEdge = new byte[size];
+  }
+
+  /**
+   * Constructs a ShotResults that keeps the position and time of every shot as a float. Any
+   * engine can write into it, and the values it writes are rounded to the nearest float, which is
+   * well within the error bound of CompactShotEvaluator.
+   *
+   * @param size number of shots.
+   * @return the results.
+   */
+  public static ShotResults compact(int size) {
+    return new ShotResults(size, true);
+  }
+
+  void set(int i, double x, double y, int bounceCount, double time, byte edge) {
+    if (finalX != null) {
+      finalX[i] = x;
+      finalY[i] = y;
+      timeToRest[i] = time;
+    } else {
+      compactX[i] = (float) x;
+      compactY[i] = (float) y;
+      compactTime[i] = (float) time;
+    }
+    bounces[i] = bounceCount;
+    lastEdge[i] = edge;
+  }
+
+  /**
+   * getter method to get the number of shots.
+   *
+   * @return number of shots.
+   */
+  public int size() {
+    return bounces.length;
+  }
+
+  /**
+   * getter method to get the x where a shot came to rest.
+   *
+   * @param i index of the shot.
+   * @return final x.
+   */
+  public double getFinalX(int i) {
+    return finalX != null ? finalX[i] : compactX[i];
+  }
+
+  /**
+   * getter method to get the y where a shot came to rest.
+   *
+   * @param i index of the shot.
+   * @return final y.
+   */
+  public double getFinalY(int i) {
+    return finalY != null ? finalY[i] : compactY[i];
+  }
+
+  /**
+   * getter method to get the number of edges a shot hit.
+   *
+   * @param i index of the shot.
+   * @return bounce count, or -1 for a rejected shot.
+   */
+  public int getBounces(int i) {
+    return bounces[i];
+  }
+
+  /**
+   * getter method to get the time a shot took to stop.
+   *
+   * @param i index of the shot.
+   * @return time to rest.
+   */
+  public double getTimeToRest(int i) {
+    return timeToRest != null ? timeToRest[i] : compactTime[i];
+  }
+
+  /**
+   * getter method to get the edge a shot hit last.
+   *
+   * @param i index of the shot.
+   * @return one of the edge codes of this class.
+   */
+  public byte getLastEdge(int i) {
+    return lastEdge[i];
+  }
+
+  /**
+   * Converts an edge to its code.
+   *
+   * @param edge the edge, or null.
+   * @return the code of the edge.
+   */
+  static byte edgeCode(Edge edge) {
+    if (edge == null) {
+      return NO_EDGE;
+    }
+    switch (edge) {
+      case LEFT:
+        return LEFT;
+      case RIGHT:
+        return RIGHT;
+      case BOTTOM:
+        return BOTTOM;
+      case TOP:
+        return TOP;
+      default:
+        return NO_EDGE;
+    }
+  }
+}
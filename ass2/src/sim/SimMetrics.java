@@ -0,0 +1,148 @@
+package sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The SimMetrics class counts what the simulators do on their hot paths: the steps taken by
+ * advance and how long each one took, the times a step found the edge ahead on an axis out of
+ * reach, and the ties where the edges ahead on both axes were hit at the same time. Counters are
+ * striped LongAdders and latencies go into a LatencyHistogram striped the same way, so threads
+ * evaluating shots in parallel rarely write the same cache line. The metrics are read with
+ * snapshot, or over JMX as sim:type=SimMetrics.
+ *
+ * <p>Metrics are on unless the JVM is started with -Dsim.metrics=false. ENABLED is a constant, so
+ * when it is off the JIT drops every call site and the simulators run as if uninstrumented.
+ */
+public final class SimMetrics {
+
+  /**
+   * Whether metrics are recorded, read once from the sim.metrics system property.
+   */
+  public static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty("sim.metrics", "true"));
+
+  private static final LongAdder STEPS = new LongAdder();
+  private static final LongAdder COMPLEX_ROOTS = new LongAdder();
+  private static final LongAdder TIE_BREAKS = new LongAdder();
+  private static final LatencyHistogram STEP_NANOS = new LatencyHistogram();
+
+  static {
+    if (ENABLED) {
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+            .registerMBean(new View(), new ObjectName("sim:type=SimMetrics"));
+      } catch (JMException | SecurityException e) {
+        //another copy of the class is registered already, or JMX is not allowed
+      }
+    }
+  }
+
+  private SimMetrics() {
+  }
+
+  /**
+   * Marks the start of a step.
+   *
+   * @return the time to pass to stepEnd, or 0 when metrics are off.
+   */
+  static long stepStart() {
+    return ENABLED ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Counts a step and its latency.
+   *
+   * @param start the value stepStart returned.
+   */
+  static void stepEnd(long start) {
+    if (ENABLED) {
+      STEPS.increment();
+      STEP_NANOS.record(System.nanoTime() - start);
+    }
+  }
+
+  static void complexRoot() {
+    if (ENABLED) {
+      COMPLEX_ROOTS.increment();
+    }
+  }
+
+  /**
+   * Counts a tie-break if the times to two edges are the same and one is reached, so the edge
+   * picked is the x axis by the tie rule of Kinematics.nearest.
+   */
+  static void tieBreak(double first, double second) {
+    if (ENABLED && first == second && first != Double.POSITIVE_INFINITY) {
+      TIE_BREAKS.increment();
+    }
+  }
+
+  /**
+   * Copies the current metrics. Counts recorded meanwhile may or may not be included.
+   *
+   * @return the snapshot.
+   */
+  public static MetricsSnapshot snapshot() {
+    return new MetricsSnapshot(STEPS.sum(), COMPLEX_ROOTS.sum(), TIE_BREAKS.sum(),
+        STEP_NANOS.counts());
+  }
+
+  /**
+   * Sets every counter back to zero.
+   */
+  public static void reset() {
+    STEPS.reset();
+    COMPLEX_ROOTS.reset();
+    TIE_BREAKS.reset();
+    STEP_NANOS.reset();
+  }
+
+  /**
+   * The JMX view, which takes a snapshot for every attribute read.
+   */
+  private static final class View implements SimMetricsMXBean {
+
+    @Override
+    public boolean isEnabled() {
+      return ENABLED;
+    }
+
+    @Override
+    public long getSteps() {
+      return STEPS.sum();
+    }
+
+    @Override
+    public long getComplexRoots() {
+      return COMPLEX_ROOTS.sum();
+    }
+
+    @Override
+    public long getTieBreaks() {
+      return TIE_BREAKS.sum();
+    }
+
+    @Override
+    public long getStepNanosMedian() {
+      return snapshot().getStepNanos(0.5);
+    }
+
+    @Override
+    public long getStepNanos99() {
+      return snapshot().getStepNanos(0.99);
+    }
+
+    @Override
+    public long getStepNanosMax() {
+      return snapshot().getStepNanosMax();
+    }
+
+    @Override
+    public void reset() {
+      SimMetrics.reset();
+    }
+  }
+}
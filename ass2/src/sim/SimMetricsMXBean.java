@@ -0,0 +1,24 @@
+package sim;
+
+/**
+ * The SimMetricsMXBean interface is the view of SimMetrics published over JMX, under the name
+ * sim:type=SimMetrics.
+ */
+public interface SimMetricsMXBean {
+
+  boolean isEnabled();
+
+  long getSteps();
+
+  long getComplexRoots();
+
+  long getTieBreaks();
+
+  long getStepNanosMedian();
+
+  long getStepNanos99();
+
+  long getStepNanosMax();
+
+  void reset();
+}
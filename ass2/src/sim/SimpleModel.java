@@ -0,0 +1,12 @@
+package sim;
+
+/**
+ * The SimpleModel class is the "simple" physics model: the ball keeps its speed while rolling and
+ * loses 5 at every edge it hits.
+ */
+final class SimpleModel extends StraightLineModel {
+
+  SimpleModel() {
+    super(0, 5);
+  }
+}
@@ -1,51 +1,65 @@
 package sim;
 
+import java.util.stream.Stream;
+
 /**
  * The SimplePoolSimulator class represents a simple pool simulation with basic ball movement
  * physics. It implements the PoolSimulator interface.
  */
 public class SimplePoolSimulator implements PoolSimulator {
 
-  private int width;
-  private int height;
-  private double radius;
-  private double speed;
-  private double dx;
-  private double dy;
-  private double x;
-  private double y;
-  private final double f = 0.1;
-  private final double g = 9.8;
-  private String status;
-  private String type;
-  private String xfac;
+  /**
+   * Number of values snapshot writes into a buffer.
+   */
+  public static final int STATE_SIZE = 3 + Ball.STATE_SIZE;
+
+  private static final Status[] STATUSES = Status.values();
+
+  private final int width;
+  private final int height;
+  private final PhysicsModel model;
+  private final Ball ball;
+  private Status status;
+  //null until asked for, so shots nobody watches publish nothing
+  private LiveState live;
 
   /**
    * Constructs a SimplePoolSimulator with the specified width, height, and simulation type.
    *
    * @param width  The width of the pool table.
    * @param height The height of the pool table.
-   * @param type   The type of the simulation, either "simple" or "friction".
+   * @param type   The type of the simulation, "simple", "friction" or another name registered with
+   *               PhysicsModels.
    * @throws IllegalArgumentException If the width or height is negative, or the simulation type is
    *                                  invalid.
    */
 
   public SimplePoolSimulator(int width, int height, String type) throws IllegalArgumentException {
+    this(width, height, PhysicsModels.create(type));
+  }
+
+  /**
+   * Constructs a SimplePoolSimulator with the specified width, height, and physics model.
+   *
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param model  The physics model that moves the ball, not shared with other simulators.
+   * @throws IllegalArgumentException If the width or height is negative, or the model is null.
+   */
+  public SimplePoolSimulator(int width, int height, PhysicsModel model)
+      throws IllegalArgumentException {
     if ((width < 0) || (height < 0)) {
       throw new IllegalArgumentException("invalid height or width");
     }
-    if ((!type.equals("simple")) && (!type.equals("friction"))) {
+    if (model == null) {
       throw new IllegalArgumentException("invalid type");
     }
-    this.status = "Ball not set up";
-    this.type = type;
+    this.status = Status.NOT_SET_UP;
+    this.model = model;
+    this.ball = new Ball();
 
     this.width = width;
     this.height = height;
-    this.radius = Double.NEGATIVE_INFINITY;
-    this.x = Double.NEGATIVE_INFINITY;
-    this.y = Double.NEGATIVE_INFINITY;
-    this.speed = 0;
   }
 
   /**
@@ -72,212 +86,163 @@ public class SimplePoolSimulator implements PoolSimulator {
     if (x - radius < 0 || x + radius > width || y - radius < 0 || y + radius > height) {
       throw new IllegalArgumentException("The ball is not inside the table.");
     }
-    this.radius = radius;
-    this.x = x;
-    this.y = y;
-    this.speed = speed;
-    this.status = "Simulation started";
-    double mag = Math.sqrt(dx * dx + dy * dy);
-    this.dx = dx / mag;
-    this.dy = dy / mag;
+    this.ball.reset(x, y, radius, speed, dx, dy);
+    this.status = Status.STARTED;
+    publish();
   }
 
   /**
-   * Advances the simulation by updating ball positions and velocities based on collision rules.
-   * Contains two main cases and starts the implementation based on the type. Calls a helper private
-   * method to solve the quadratic equation.
+   * Starts the pool simulation with spin on the ball, for models that track it such as "spin".
+   * The spin is given as the velocity it would roll the ball at, along and across the direction.
+   *
+   * @param x      The initial X-coordinate of the ball.
+   * @param y      The initial Y-coordinate of the ball.
+   * @param radius The initial radius of the ball.
+   * @param speed  The initial speed of the ball.
+   * @param dx     The initial velocity in the X direction.
+   * @param dy     The initial velocity in the Y direction.
+   * @param follow The spin along the direction: the speed for a natural roll, 0 for a stun shot
+   *               and negative for draw.
+   * @param swerve The spin across the direction, positive to the left of it, which curves the
+   *               path to the left while the ball slides.
+   * @throws IllegalArgumentException If the radius is negative, speed is non-positive, the ball
+   *                                  is not inside the table or the spin is not finite.
+   */
+  public void start(int x, int y, int radius, int speed, double dx, double dy, double follow,
+      double swerve) throws IllegalArgumentException {
+    if (!Double.isFinite(follow) || !Double.isFinite(swerve)) {
+      throw new IllegalArgumentException("spin must be finite");
+    }
+    start(x, y, radius, speed, dx, dy);
+    ball.setSpin(ball.getDx() * follow - ball.getDy() * swerve,
+        ball.getDy() * follow + ball.getDx() * swerve);
+  }
+
+  /**
+   * Advances the simulation to the next event of the ball, usually the next edge it hits. The
+   * physics model chosen in the constructor moves the ball.
    */
 
   @Override
   public void advance() {
+    long start = SimMetrics.stepStart();
+    if (model.isMoving(ball)) {
+      Edge edge = model.step(ball, width, height);
+      this.status = edge != null ? Status.hit(edge) : Status.ROLLING;
+    }
+    if (!model.isMoving(ball)) {
+      this.status = Status.STATIONARY;
+    }
+    publish();
+    SimMetrics.stepEnd(start);
+  }
 
-    int xmin = 0;
-    int ymin = 0;
-    int xmax = this.width;
-    int ymax = this.height;
-    if (type.equals("simple") && speed > 0) {
-
-      double timeToHitRight = (xmax - this.radius - this.x) / (this.speed * Math.abs(this.dx));
-      double timeToHitLeft = (this.x - xmin - this.radius) / (this.speed * Math.abs(this.dx));
-      double timeToHitBottom = (this.y - ymin - this.radius) / (this.speed * Math.abs(this.dy));
-      double timeToHitTop = (ymax - this.y - this.radius) / (this.speed * Math.abs(this.dy));
-      double smallestTime = Double.MAX_VALUE;
-
-      xfac = "";
-      if ((this.dx > 0) && (this.dy > 0)) {
-        smallestTime = Math.min(timeToHitTop, timeToHitRight);
-        if (smallestTime == timeToHitTop) {
-          this.status = "Ball hit top edge";
-          this.xfac = "top";
-
-        } else {
-          this.status = "Ball hit right edge";
-          this.xfac = "right";
-        }
-      }
-      if ((this.dx > 0) && (this.dy < 0)) {
-        smallestTime = Math.min(timeToHitRight, timeToHitBottom);
-        if (smallestTime == timeToHitRight) {
-          this.status = "Ball hit right edge";
-          this.xfac = "right";
-        } else {
-          this.status = "Ball hit bottom edge";
-          this.xfac = "bottom";
-        }
+  /**
+   * Copies the state of the simulation into an immutable value.
+   *
+   * @return the snapshot.
+   */
+  @Override
+  public Snapshot snapshot() {
+    double[] state = new double[STATE_SIZE];
+    snapshot(state, 0);
+    return new Snapshot(SimplePoolSimulator.class, model.getClass(), state);
+  }
 
-      }
-      if ((this.dx < 0) && (this.dy < 0)) {
-        smallestTime = Math.min(timeToHitLeft, timeToHitBottom);
-        if (smallestTime == timeToHitLeft) {
-          this.status = "Ball hit left edge";
-          this.xfac = "left";
-        } else {
-          this.status = "Ball hit bottom edge";
-          this.xfac = "bottom";
-        }
-      }
-      if ((this.dx < 0) && (this.dy > 0)) {
-        smallestTime = Math.min(timeToHitLeft, timeToHitTop);
-        if (smallestTime == timeToHitLeft) {
-          this.status = "Ball hit left edge";
-          this.xfac = "left";
-        } else {
-          this.status = "Ball hit top edge";
-          this.xfac = "top";
-        }
-      }
-      if ((this.dx == 0) && (this.dy > 0)) {
-        smallestTime = timeToHitTop;
-        this.status = "Ball hit top edge";
-        this.xfac = "top";
-      }
-      if ((this.dx == 0) && (this.dy < 0)) {
-        smallestTime = timeToHitBottom;
-        this.status = "Ball hit bottom edge";
-        this.xfac = "bottom";
-      }
-      if ((this.dx > 0) && (this.dy == 0)) {
-        smallestTime = timeToHitRight;
-        this.status = "Ball hit right edge";
-        this.xfac = "right";
-      }
-      if ((this.dx < 0) && (this.dy == 0)) {
-        smallestTime = timeToHitLeft;
-        this.status = "Ball hit left edge";
-        this.xfac = "left";
-      }
+  /**
+   * Copies the state of the simulation into a buffer, without allocating.
+   *
+   * @param buffer receives STATE_SIZE values.
+   * @param offset where the first value goes.
+   */
+  public void snapshot(double[] buffer, int offset) {
+    buffer[offset] = width;
+    buffer[offset + 1] = height;
+    buffer[offset + 2] = status.ordinal();
+    ball.save(buffer, offset + 3);
+  }
 
-      double xDisp = this.speed * this.dx * smallestTime;
-      double yDisp = this.speed * this.dy * smallestTime;
-      this.x += xDisp;
-      this.y += yDisp;
-      if (xfac.equals("top") || xfac.equals("bottom")) {
-        this.dy = -1 * this.dy;
-      }
-      if (xfac.equals("left") || xfac.equals("right")) {
-        this.dx = -1 * this.dx;
-      }
-      this.speed = this.speed - 5;
+  /**
+   * Puts the simulation back in the state of a snapshot, so it continues exactly as it did after
+   * the snapshot was taken.
+   *
+   * @param snapshot a snapshot of a simulator with the same table and model.
+   * @throws IllegalArgumentException If the snapshot was taken from a different simulator.
+   */
+  @Override
+  public void restore(Snapshot snapshot) throws IllegalArgumentException {
+    restore(snapshot.stateFor(SimplePoolSimulator.class, model.getClass()), 0);
+  }
+
+  /**
+   * Puts the simulation back in the state written to a buffer by snapshot.
+   *
+   * @param buffer holds STATE_SIZE values.
+   * @param offset where the first value is.
+   * @throws IllegalArgumentException If the state is of a different table.
+   */
+  public void restore(double[] buffer, int offset) throws IllegalArgumentException {
+    if (buffer[offset] != width || buffer[offset + 1] != height) {
+      throw new IllegalArgumentException("snapshot of a different table");
     }
-    if (type.equals("friction") && this.speed > 0) {
-      double timeRight = Math.abs(
-          solve((f * g * dx) / 2, -1 * speed * dx, xmax - this.radius - this.x));
-      double timeLeft = Math.abs(
-          solve((f * g * dx) / 2, -1 * speed * dx, this.radius - this.x - xmin));
-      double timeBottom = Math.abs(
-          solve((f * g * dy) / 2, -1 * speed * dy, this.y - ymin - this.radius));
-      double timeTop = Math.abs(
-          solve((f * g * dy) / 2, -1 * speed * dy, ymax - this.radius - this.y));
-      double smalltime = Double.MAX_VALUE;
-      if (this.dx > 0 && this.dy > 0) {
-        if (timeTop >= 0 && timeRight >= 0) {
-
-          smalltime = Math.min(timeTop, timeRight);
-          if (smalltime - timeTop < 0.001) {
-            this.status = "Ball hit top edge";
-            this.xfac = "top";
-          } else {
-            this.status = "Ball hit right edge";
-            this.xfac = "right";
-          }
-        }
-      }
-      if ((this.dx > 0) && (this.dy < 0)) {
-        if (timeRight >= 0 && timeBottom >= 0) {
-          smalltime = Math.min(timeRight, timeBottom);
-          if (smalltime - timeRight < 0.001) {
-            this.status = "Ball hit right edge";
-            this.xfac = "right";
-          } else {
-            this.status = "Ball hit bottom edge";
-            this.xfac = "bottom";
-          }
-        }
-      }
-      if ((this.dx < 0) && (this.dy < 0)) {
-        if (timeLeft >= 0 && timeBottom >= 0) {
-          smalltime = Math.min(timeLeft, timeBottom);
-
-          if (smalltime - timeLeft < 0.001) {
-            this.status = "Ball hit left edge";
-            this.xfac = "left";
-          } else {
-            this.status = "Ball hit bottom edge";
-            this.xfac = "bottom";
-          }
-        }
-      }
-      if ((this.dx < 0) && (this.dy > 0)) {
-        if (timeTop >= 0 && timeLeft >= 0) {
-          smalltime = Math.min(timeLeft, timeTop);
-
-          if (smalltime - timeLeft < 0.001) {
-            this.status = "Ball hit left edge";
-            this.xfac = "left";
-          } else {
-            this.status = "Ball hit top edge";
-            this.xfac = "top";
-          }
-        }
-      }
+    this.status = STATUSES[(int) buffer[offset + 2]];
+    ball.load(buffer, offset + 3);
+    publish();
+  }
 
-      double xDisp =
-          this.speed * this.dx * smalltime - (((this.f * this.g) / 2) * this.dx * smalltime
-              * smalltime);
-      double yDisp =
-          this.speed * this.dy * smalltime - (((this.f * this.g) / 2) * this.dy * smalltime
-              * smalltime);
-      this.x += xDisp;
-      this.y += yDisp;
-      if (xfac.equals("top") || xfac.equals("bottom")) {
-        this.dy = -1 * this.dy;
-      }
-      if (xfac.equals("left") || xfac.equals("right")) {
-        this.dx = -1 * this.dx;
+  /**
+   * Runs the simulation until the ball comes to rest in a single call. See advanceTo.
+   */
+  public void runToRest() {
+    advanceTo(Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Advances the simulation to the given time since start, or until the ball comes to rest if
+   * that happens first. The models of StraightLineModel get there without stepping from edge to
+   * edge: with friction the resting place comes out in O(1), and the simple model walks its
+   * bounces at a few arithmetic operations each.
+   *
+   * @param time the time since start to advance to.
+   * @throws IllegalArgumentException If the time is before the current time.
+   */
+  public void advanceTo(double time) throws IllegalArgumentException {
+    if (time < ball.getTime()) {
+      throw new IllegalArgumentException("cannot go back in time");
+    }
+    if (model.isMoving(ball)) {
+      model.advanceTo(ball, width, height, time);
+      Edge edge = ball.getLastEdge();
+      if (edge != null) {
+        this.status = Status.hit(edge);
       }
-      this.speed = this.speed - (this.f * this.g * smalltime);
     }
-    if (this.speed <= 0) {
-      this.speed = 0;
-      this.status = "Ball is stationary";
+    if (!model.isMoving(ball)) {
+      this.status = Status.STATIONARY;
     }
-
+    publish();
   }
 
-  private double solve(double a, double b, double c) {
-    double d = b * b - 4 * a * c;
-    if (d > 0) {
-      double root1 = ((2 * c) / ((-1 * b) + Math.sqrt(d)));
-      double root2 = ((2 * c) / ((-1 * b) - Math.sqrt(d)));
-      //double mini = Math.min(root1,root2);
-      return Math.min(root1, root2);
-    } else if (d == 0) {
-      double root = (2 * c) / (-1 * b);
-      return root;
-    } else {
-      return -1; // No real roots (complex roots)
+  /**
+   * getter method to get the state of the simulation for other threads, published after every
+   * start, step and restore. The first call turns publishing on; make it on the thread that runs
+   * the simulation, then hand the result to the threads that read it.
+   *
+   * @return live state.
+   */
+  public LiveState live() {
+    if (live == null) {
+      live = new LiveState();
+      publish();
     }
+    return live;
+  }
 
+  private void publish() {
+    if (live != null) {
+      live.publish(ball.getX(), ball.getY(), getBallVelocityX(), getBallVelocityY(),
+          ball.getTime(), status);
+    }
   }
 
   /**
@@ -307,7 +272,7 @@ public class SimplePoolSimulator implements PoolSimulator {
    */
   @Override
   public double getBallPositionX() {
-    return this.x;
+    return ball.getX();
   }
 
   /**
@@ -317,7 +282,7 @@ public class SimplePoolSimulator implements PoolSimulator {
    */
   @Override
   public double getBallPositionY() {
-    return this.y;
+    return ball.getY();
   }
 
   /**
@@ -327,7 +292,7 @@ public class SimplePoolSimulator implements PoolSimulator {
    */
   @Override
   public double getBallRadius() {
-    return this.radius;
+    return ball.getRadius();
   }
 
   /**
@@ -337,7 +302,7 @@ public class SimplePoolSimulator implements PoolSimulator {
    */
   @Override
   public double getBallVelocityX() {
-    return this.speed * this.dx;
+    return ball.getSpeed() * ball.getDx();
   }
 
   /**
@@ -347,7 +312,7 @@ public class SimplePoolSimulator implements PoolSimulator {
    */
   @Override
   public double getBallVelocityY() {
-    return this.speed * this.dy;
+    return ball.getSpeed() * ball.getDy();
   }
 
   /**
@@ -357,6 +322,56 @@ public class SimplePoolSimulator implements PoolSimulator {
    */
   @Override
   public String getStatus() {
-    return "Status: " + this.status;
+    return this.status.getReport();
+  }
+
+  /**
+   * getter method to return status of the ball as a code.
+   *
+   * @return status.
+   */
+  @Override
+  public Status getStatusCode() {
+    return this.status;
+  }
+
+  /**
+   * Streams the events of the shot from where it is now: each element advances the simulation by
+   * one event, so nothing is simulated beyond what the stream consumes. The stream ends when the
+   * ball is at rest and can be consumed once.
+   *
+   * @return the events, with shot and ball 0.
+   */
+  @Override
+  public Stream<BounceEvent> events() {
+    return BounceSpliterator.stream(this, () -> new BounceEvent(0, 0, ball.getTime(),
+        getBallPositionX(), getBallPositionY(), getBallVelocityX(), getBallVelocityY(), status));
+  }
+
+  /**
+   * getter method to get the time simulated since start.
+   *
+   * @return elapsed time.
+   */
+  public double getElapsedTime() {
+    return ball.getTime();
+  }
+
+  /**
+   * getter method to get the number of edges hit since start.
+   *
+   * @return bounce count.
+   */
+  public int getBounceCount() {
+    return ball.getBounces();
+  }
+
+  /**
+   * getter method to get the edge hit by the last call to advance.
+   *
+   * @return the edge, or null before the first bounce.
+   */
+  public Edge getLastEdge() {
+    return ball.getLastEdge();
   }
 }
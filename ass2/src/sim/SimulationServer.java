@@ -0,0 +1,243 @@
+package sim;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SimulationServer class runs shots without a window, for game backends. It is a small HTTP
+ * server on one table and physics model:
+ *
+ * <p>POST /shots takes one shot per line, "x y radius speed dx dy" as for PoolSimulator.start, and
+ * streams back one line per shot in the same order, "finalX finalY bounces timeToRest lastEdge"
+ * with the codes of ShotResults. GET /stats reports the requests, shots and batches served, the
+ * throughput and the latency of requests.
+ *
+ * <p>Connections are multiplexed by the selector thread of the JDK server, and every request runs
+ * on a virtual thread when the JVM has them (JDK 21 and newer), or else on a small fixed pool.
+ * Shots of concurrent requests are gathered by a ShotBatcher and run together by a
+ * ShotBatchEvaluator, so thousands of short requests make a few large batches.
+ */
+public final class SimulationServer {
+
+  /**
+   * Most shots taken in one request.
+   */
+  public static final int MAX_SHOTS = 100000;
+
+  private static final int BATCH_SHOTS = 4096;
+  private static final long BATCH_DELAY_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+  private static final int FALLBACK_THREADS = 64;
+
+  private final HttpServer server;
+  private final ExecutorService requests;
+  private final ForkJoinPool pool;
+  private final ShotBatcher batcher;
+  private final boolean virtual;
+  private final LongAdder served = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final long started;
+
+  /**
+   * Constructs a SimulationServer and starts serving.
+   *
+   * @param port   The port to listen on, or 0 for any free port.
+   * @param width  The width of the pool table.
+   * @param height The height of the pool table.
+   * @param type   The type of the simulation, as for SimplePoolSimulator.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator.
+   * @throws IOException If the port cannot be opened.
+   */
+  public SimulationServer(int port, int width, int height, String type)
+      throws IllegalArgumentException, IOException {
+    this.pool = new ForkJoinPool();
+    ShotBatchEvaluator evaluator = new ShotBatchEvaluator(width, height, type, pool);
+    ExecutorService perTask = virtualThreads();
+    this.virtual = perTask != null;
+    this.requests = virtual ? perTask : Executors.newFixedThreadPool(FALLBACK_THREADS);
+    this.batcher = new ShotBatcher(evaluator, BATCH_SHOTS, BATCH_DELAY_NANOS);
+    this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    server.createContext("/shots", this::shots);
+    server.createContext("/stats", this::stats);
+    server.setExecutor(requests);
+    this.started = System.nanoTime();
+    server.start();
+  }
+
+  /**
+   * Starts a server on the command line.
+   *
+   * @param args port, width, height and type, by default 8080 400 200 friction.
+   * @throws IOException If the port cannot be opened.
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    int width = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+    int height = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    String type = args.length > 3 ? args[3] : "friction";
+    SimulationServer server = new SimulationServer(port, width, height, type);
+    System.out.println("Serving " + type + " shots on a " + width + "x" + height + " table at "
+        + "http://localhost:" + server.getPort() + "/shots");
+  }
+
+  /**
+   * Stops accepting requests, waits up to a second for the ones being served and stops.
+   */
+  public void stop() {
+    server.stop(1);
+    batcher.close();
+    requests.shutdown();
+    pool.shutdown();
+  }
+
+  /**
+   * getter method to get the port the server listens on.
+   *
+   * @return port.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * getter method to get whether requests run on virtual threads.
+   *
+   * @return true on virtual threads, false on the fallback pool.
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Reports the throughput and latency since the server started, as served by GET /stats.
+   *
+   * @return one "name value" pair per line.
+   */
+  public String report() {
+    long[] counts = latency.counts();
+    double seconds = (System.nanoTime() - started) / 1e9;
+    long shots = batcher.getShots();
+    long batches = batcher.getBatches();
+    return "requests " + served.sum() + "\n"
+        + "rejected " + rejected.sum() + "\n"
+        + "shots " + shots + "\n"
+        + "batches " + batches + "\n"
+        + "shotsPerBatch " + (batches == 0 ? 0 : (double) shots / batches) + "\n"
+        + "shotsPerSecond " + shots / seconds + "\n"
+        + "latencyMicrosMedian " + LatencyHistogram.percentile(counts, 0.5) / 1000 + "\n"
+        + "latencyMicros99 " + LatencyHistogram.percentile(counts, 0.99) / 1000 + "\n"
+        + "latencyMicrosMax " + LatencyHistogram.percentile(counts, 1) / 1000 + "\n"
+        + "virtualThreads " + virtual + "\n";
+  }
+
+  private void shots(HttpExchange exchange) throws IOException {
+    long start = System.nanoTime();
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        reply(exchange, 405, "use POST\n");
+        return;
+      }
+      ShotBatch shots;
+      try {
+        shots = parse(exchange);
+      } catch (IllegalArgumentException e) {
+        rejected.increment();
+        reply(exchange, 400, e.getMessage() + "\n");
+        return;
+      }
+      ShotResults results;
+      try {
+        results = batcher.run(shots);
+      } catch (InterruptedException | IllegalStateException e) {
+        reply(exchange, 503, "server is stopping\n");
+        return;
+      }
+      //chunked, so lines go out as they are written
+      exchange.getResponseHeaders().set("Content-Type", "text/plain");
+      exchange.sendResponseHeaders(200, 0);
+      try (Writer out = new BufferedWriter(
+          new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+        for (int i = 0; i < results.size(); i++) {
+          out.write(results.getFinalX(i) + " " + results.getFinalY(i) + " "
+              + results.getBounces(i) + " " + results.getTimeToRest(i) + " "
+              + results.getLastEdge(i) + "\n");
+        }
+      }
+      served.increment();
+      latency.record(System.nanoTime() - start);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void stats(HttpExchange exchange) throws IOException {
+    try {
+      reply(exchange, 200, report());
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static ShotBatch parse(HttpExchange exchange) throws IOException {
+    ShotBatch shots = new ShotBatch(16);
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+    String line;
+    while ((line = in.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      if (shots.size() == MAX_SHOTS) {
+        throw new IllegalArgumentException("more than " + MAX_SHOTS + " shots");
+      }
+      String[] fields = line.split("\\s+");
+      if (fields.length != 6) {
+        throw new IllegalArgumentException("expected x y radius speed dx dy: " + line);
+      }
+      try {
+        shots.add(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+            Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+            Double.parseDouble(fields[4]), Double.parseDouble(fields[5]));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("not a number: " + line);
+      }
+    }
+    return shots;
+  }
+
+  private static void reply(HttpExchange exchange, int code, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain");
+    exchange.sendResponseHeaders(code, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  /**
+   * Gives an executor that starts a virtual thread per task, looked up by reflection since the
+   * source targets JDK 11.
+   *
+   * @return the executor, or null before JDK 21.
+   */
+  private static ExecutorService virtualThreads() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
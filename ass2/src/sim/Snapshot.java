@@ -0,0 +1,42 @@
+package sim;
+
+/**
+ * The Snapshot class is an immutable copy of the state of a simulator, taken by
+ * PoolSimulator.snapshot and given back to restore. The state is a flat array of primitives, so
+ * taking or restoring a snapshot is a few array copies. A snapshot can only be restored into a
+ * simulator of the same kind, with the same physics model and table.
+ */
+public final class Snapshot {
+
+  private final Class<?> simulator;
+  private final Class<?> model;
+  private final double[] state;
+
+  Snapshot(Class<?> simulator, Class<?> model, double[] state) {
+    this.simulator = simulator;
+    this.model = model;
+    this.state = state;
+  }
+
+  /**
+   * Checks that the snapshot was taken from a simulator of a kind and model, and returns its
+   * state, which must not be changed.
+   *
+   * @throws IllegalArgumentException If the snapshot was taken from another kind of simulator.
+   */
+  double[] stateFor(Class<?> simulator, Class<?> model) throws IllegalArgumentException {
+    if (this.simulator != simulator || this.model != model) {
+      throw new IllegalArgumentException("snapshot of a different simulator");
+    }
+    return state;
+  }
+
+  /**
+   * getter method to get the size of the state.
+   *
+   * @return number of values held.
+   */
+  public int size() {
+    return state.length;
+  }
+}
@@ -0,0 +1,198 @@
+package sim;
+
+/**
+ * The SpinModel class is the "spin" physics model: the ball carries spin about the horizontal
+ * axes, which Ball keeps as the velocity the ball would roll at with it. While the ball moves at
+ * another velocity its contact point slips and it slides: friction of f_s * g acts against the
+ * slip, which keeps its direction and shrinks at 7/2 f_s * g, so the path is a parabola and the
+ * ball starts to roll after 2 |slip| / (7 f_s * g). Rolling, it moves as in the "friction" model,
+ * whose closed form also skips over the bounces of advanceTo. A ball struck in the middle starts
+ * without spin and rolls at 5/7 of its speed.
+ *
+ * <p>Both phases are solved in closed form, and the start of rolling is an event of its own,
+ * scheduled like an edge hit but returned from step as null, which the simulator reports as
+ * ROLLING, so a shot takes a few events whatever its spin. An edge mirrors the ball, spin and all,
+ * and keeps its speed. Drawn back, the ball passes through a moment of zero speed while it still
+ * slips; isMoving keeps it moving there, and a ball is at rest only once it has no slip either.
+ */
+final class SpinModel implements PhysicsModel {
+
+  private static final double G = 9.8;
+  private static final double SLIDING = 0.2 * G;
+  //the spin gains 5/2 of what the velocity loses, so the slip shrinks 7/2 times as fast
+  private static final double SPIN_RATE = 2.5 * SLIDING;
+  private static final double SLIP_RATE = 3.5 * SLIDING;
+
+  private final FrictionModel rolling = new FrictionModel();
+
+  /**
+   * Moves the ball to its next event: the next edge it hits, the moment it starts to roll, or
+   * where it comes to rest.
+   *
+   * @param ball   the ball to move.
+   * @param width  the width of the table.
+   * @param height the height of the table.
+   * @return the edge hit, or null if the ball started to roll or came to rest.
+   */
+  @Override
+  public Edge step(Ball ball, int width, int height) {
+    if (isRolling(ball)) {
+      Edge edge = rolling.step(ball, width, height);
+      followVelocity(ball);
+      return edge;
+    }
+    return slide(ball, width, height, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Tells whether the ball has not come to rest: it moves, or it is still while its spin drags it
+   * off.
+   *
+   * @param ball the ball.
+   * @return true if the ball is still moving.
+   */
+  @Override
+  public boolean isMoving(Ball ball) {
+    return ball.getSpeed() > 0 || !isRolling(ball);
+  }
+
+  /**
+   * Moves the ball to the given time since start, or until it comes to rest, an event at a time,
+   * and stops between two events where the time falls.
+   *
+   * @param ball   the ball to move.
+   * @param width  the width of the table.
+   * @param height the height of the table.
+   * @param time   the time since start to move to.
+   */
+  @Override
+  public void advanceTo(Ball ball, int width, int height, double time) {
+    while (isMoving(ball) && ball.getTime() < time) {
+      if (isRolling(ball)) {
+        rolling.advanceTo(ball, width, height, time);
+        followVelocity(ball);
+        return;
+      }
+      slide(ball, width, height, time - ball.getTime());
+    }
+  }
+
+  /**
+   * Tells whether the contact point of the ball does not slip, as the velocity and the spin are
+   * kept equal once it rolls. A ball without a direction rolls, so it stops as in "friction".
+   */
+  private static boolean isRolling(Ball ball) {
+    return !(Math.hypot(ball.getSpeed() * ball.getDx() - ball.getSpinX(),
+        ball.getSpeed() * ball.getDy() - ball.getSpinY()) > 0);
+  }
+
+  /**
+   * Sets the spin of a rolling ball to its velocity.
+   */
+  private static void followVelocity(Ball ball) {
+    ball.setSpin(ball.getSpeed() * ball.getDx(), ball.getSpeed() * ball.getDy());
+  }
+
+  /**
+   * Moves a sliding ball, whose velocity changes at a constant rate against the slip, to the next
+   * edge, to where it starts to roll, or for the given duration.
+   */
+  private static Edge slide(Ball ball, int width, int height, double limit) {
+    double vx = ball.getSpeed() * ball.getDx();
+    double vy = ball.getSpeed() * ball.getDy();
+    double slipX = vx - ball.getSpinX();
+    double slipY = vy - ball.getSpinY();
+    double slip = Math.hypot(slipX, slipY);
+    double ux = slipX / slip;
+    double uy = slipY / slip;
+    double end = slip / SLIP_RATE;
+    double x = ball.getX();
+    double y = ball.getY();
+    double r = ball.getRadius();
+    double ax = -SLIDING * ux;
+    double ay = -SLIDING * uy;
+    //the path curves, so it may reach either edge of an axis
+    double left = timeToEdge(x - r, -vx, -ax);
+    double right = timeToEdge(width - r - x, vx, ax);
+    double bottom = timeToEdge(y - r, -vy, -ay);
+    double top = timeToEdge(height - r - y, vy, ay);
+    double timeX = Math.min(left, right);
+    double timeY = Math.min(bottom, top);
+    SimMetrics.tieBreak(timeX, timeY);
+    double time = Math.min(Math.min(timeX, timeY), Math.min(end, limit));
+    Edge edge = null;
+    if (time == timeX) {
+      edge = left <= right ? Edge.LEFT : Edge.RIGHT;
+    } else if (time == timeY) {
+      edge = bottom <= top ? Edge.BOTTOM : Edge.TOP;
+    }
+    if (edge != null && time == 0 && 2 * r >= (edge.isVertical() ? width : height)) {
+      //wedged between two edges, the ball would bounce in place forever
+      ball.hit(edge);
+      ball.setSpeed(0);
+      ball.setSpin(0, 0);
+      return edge;
+    }
+    double endVx = vx + ax * time;
+    double endVy = vy + ay * time;
+    double endX = x + (vx + ax * time / 2) * time;
+    double endY = y + (vy + ay * time / 2) * time;
+    //land on the edge exactly, as StraightLineModel does
+    if (edge == Edge.LEFT || edge == Edge.RIGHT) {
+      endX = edge == Edge.RIGHT ? width - r : r;
+    } else if (edge != null) {
+      endY = edge == Edge.TOP ? height - r : r;
+    }
+    ball.moveTo(endX, endY);
+    ball.addTime(time);
+    double speed = Math.hypot(endVx, endVy);
+    if (speed > 0) {
+      ball.setDirection(endVx / speed, endVy / speed);
+    }
+    //at zero speed the ball keeps its direction, and the slip left makes it move on
+    ball.setSpeed(speed);
+    if (time == end) {
+      //rolling from now on, with no slip left
+      followVelocity(ball);
+    } else {
+      ball.setSpin(ball.getSpinX() + SPIN_RATE * ux * time,
+          ball.getSpinY() + SPIN_RATE * uy * time);
+    }
+    if (edge != null) {
+      hit(ball, edge);
+    }
+    return edge;
+  }
+
+  /**
+   * Bounces a ball off an edge, mirroring its spin with its direction.
+   */
+  private static void hit(Ball ball, Edge edge) {
+    ball.hit(edge);
+    if (edge.isVertical()) {
+      ball.setSpin(-1 * ball.getSpinX(), ball.getSpinY());
+    } else {
+      ball.setSpin(ball.getSpinX(), -1 * ball.getSpinY());
+    }
+  }
+
+  /**
+   * Time until a ball reaches an edge along one axis, moving towards it at a velocity that changes
+   * at a constant rate.
+   *
+   * @param gap      the distance to the edge.
+   * @param velocity the velocity towards the edge.
+   * @param rate     the rate the velocity towards the edge grows at.
+   * @return the time, or positive infinity if the ball does not reach the edge.
+   */
+  static double timeToEdge(double gap, double velocity, double rate) {
+    if (!(gap <= 0)) {
+      return Kinematics.travel(velocity, gap, -rate);
+    }
+    //at the edge: hit at once when moving into it, or when curving back after leaving it
+    if (velocity > 0 || (velocity == 0 && rate > 0)) {
+      return 0;
+    }
+    return rate > 0 ? -2 * velocity / rate : Double.POSITIVE_INFINITY;
+  }
+}
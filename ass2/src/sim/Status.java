@@ -0,0 +1,76 @@
+package sim;
+
+/**
+ * The Status enum lists the states a PoolSimulator reports through getStatusCode. Each state keeps
+ * the text getStatus returns for it, so polling the status does not build a string.
+ */
+public enum Status {
+  NOT_SET_UP("Ball not set up"),
+  STARTED("Simulation started"),
+  HIT_LEFT("Ball hit left edge"),
+  HIT_RIGHT("Ball hit right edge"),
+  HIT_BOTTOM("Ball hit bottom edge"),
+  HIT_TOP("Ball hit top edge"),
+  HIT_BALL("Ball hit ball"),
+  STOPPED("Ball stopped"),
+  STATIONARY("Ball is stationary"),
+  ROLLING("Ball started to roll");
+
+  private static final Status[] HITS = {HIT_LEFT, HIT_RIGHT, HIT_BOTTOM, HIT_TOP};
+
+  private final String message;
+  private final String report;
+
+  Status(String message) {
+    this.message = message;
+    this.report = "Status: " + message;
+  }
+
+  /**
+   * getter method to get the message of the state.
+   *
+   * @return message.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * getter method to get the text getStatus returns for the state.
+   *
+   * @return "Status: " followed by the message.
+   */
+  public String getReport() {
+    return report;
+  }
+
+  /**
+   * getter method to get the edge of a HIT state.
+   *
+   * @return the edge that was hit, or null for the other states.
+   */
+  public Edge getEdge() {
+    switch (this) {
+      case HIT_LEFT:
+        return Edge.LEFT;
+      case HIT_RIGHT:
+        return Edge.RIGHT;
+      case HIT_BOTTOM:
+        return Edge.BOTTOM;
+      case HIT_TOP:
+        return Edge.TOP;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Finds the state reported after a ball hits an edge.
+   *
+   * @param edge the edge that was hit.
+   * @return the matching HIT state.
+   */
+  public static Status hit(Edge edge) {
+    return HITS[edge.ordinal()];
+  }
+}
@@ -0,0 +1,290 @@
+package sim;
+
+/**
+ * The StraightLineModel class is the base of the physics models where the ball rolls in a straight
+ * line between edges, slowing down at a constant rate, and loses a fixed amount of speed at every
+ * hit. Its motion is known in closed form, which lets advanceTo skip over bounces by mirroring the
+ * table, and lets MultiBallPoolSimulator predict collisions between balls.
+ */
+public abstract class StraightLineModel implements PhysicsModel {
+
+  private final double deceleration;
+  private final double hitLoss;
+
+  /**
+   * Constructs a StraightLineModel.
+   *
+   * @param deceleration the rate the speed drops at while rolling, zero or more.
+   * @param hitLoss      the speed lost at every hit, zero or more.
+   */
+  protected StraightLineModel(double deceleration, double hitLoss) {
+    if (!(deceleration >= 0) || !(hitLoss >= 0)) {
+      throw new IllegalArgumentException("deceleration and loss cannot be negative");
+    }
+    this.deceleration = deceleration;
+    this.hitLoss = hitLoss;
+  }
+
+  /**
+   * getter method to get the deceleration.
+   *
+   * @return deceleration.
+   */
+  public final double getDeceleration() {
+    return deceleration;
+  }
+
+  /**
+   * getter method to get the speed lost at every hit.
+   *
+   * @return hit loss.
+   */
+  public final double getHitLoss() {
+    return hitLoss;
+  }
+
+  /**
+   * Distance rolled in a time, starting at a speed.
+   *
+   * @param speed the speed at the start.
+   * @param time  the time rolled.
+   * @return the distance, which stops growing once the ball is at rest.
+   */
+  public final double distance(double speed, double time) {
+    if (speed <= 0) {
+      return 0;
+    }
+    if (deceleration == 0) {
+      return speed * time;
+    }
+    double t = Math.min(time, timeToRest(speed));
+    return speed * t - (deceleration / 2) * t * t;
+  }
+
+  /**
+   * Time it takes to roll to rest.
+   *
+   * @param speed the speed at the start.
+   * @return the time, or positive infinity without deceleration.
+   */
+  public final double timeToRest(double speed) {
+    return deceleration == 0 ? Double.POSITIVE_INFINITY : speed / deceleration;
+  }
+
+  /**
+   * Time it takes to roll a distance.
+   *
+   * @param speed  the speed at the start.
+   * @param length the distance.
+   * @return the time, or positive infinity if the ball stops first or the distance is negative.
+   */
+  public final double timeToTravel(double speed, double length) {
+    return Kinematics.travel(speed, length, deceleration);
+  }
+
+  /**
+   * Speed after rolling for a time.
+   *
+   * @param speed the speed at the start.
+   * @param time  the time rolled.
+   * @return the speed, never below zero.
+   */
+  public final double speedAfter(double speed, double time) {
+    return deceleration == 0 ? speed : Math.max(0, speed - deceleration * time);
+  }
+
+  /**
+   * Moves the ball to the next edge it hits, or to where it comes to rest if it stops first. The
+   * times to the edge ahead on each axis come from Kinematics, and the ball lands exactly on the
+   * edge it hits.
+   *
+   * @param ball   the ball to move.
+   * @param width  the width of the table.
+   * @param height the height of the table.
+   * @return the edge hit, or null if the ball came to rest without hitting one.
+   */
+  @Override
+  public Edge step(Ball ball, int width, int height) {
+    double x = ball.getX();
+    double y = ball.getY();
+    double radius = ball.getRadius();
+    double speed = ball.getSpeed();
+    double dx = ball.getDx();
+    double dy = ball.getDy();
+    double timeX = Kinematics.timeToEdge(x, dx, width, radius, speed, deceleration);
+    double timeY = Kinematics.timeToEdge(y, dy, height, radius, speed, deceleration);
+    if (timeX == Double.POSITIVE_INFINITY && dx != 0) {
+      SimMetrics.complexRoot();
+    }
+    if (timeY == Double.POSITIVE_INFINITY && dy != 0) {
+      SimMetrics.complexRoot();
+    }
+    SimMetrics.tieBreak(timeX, timeY);
+    Edge edge = Kinematics.nearest(timeX, timeY, dx, dy);
+    if (edge == null) {
+      //no edge can be reached, so the ball rolls to rest, or cannot move without a direction
+      if (deceleration > 0) {
+        double travel = speed * speed / (2 * deceleration);
+        ball.moveTo(x + dx * travel, y + dy * travel);
+        ball.addTime(timeToRest(speed));
+      }
+      ball.setSpeed(0);
+      return null;
+    }
+    double time = Math.min(timeX, timeY);
+    boolean alongX = edge == Edge.LEFT || edge == Edge.RIGHT;
+    if (time == 0 && 2 * radius >= (alongX ? width : height)) {
+      //wedged between two edges, the ball would bounce in place forever
+      ball.hit(edge);
+      ball.setSpeed(0);
+      return edge;
+    }
+    double travel = distance(speed, time);
+    if (alongX) {
+      ball.moveTo(edge == Edge.RIGHT ? width - radius : radius, y + dy * travel);
+    } else {
+      ball.moveTo(x + dx * travel, edge == Edge.TOP ? height - radius : radius);
+    }
+    ball.addTime(time);
+    ball.hit(edge);
+    ball.setSpeed(speedAfter(speed, time) - hitLoss);
+    return edge;
+  }
+
+  /**
+   * Moves the ball to the given time since start, or until it comes to rest. The table is mirrored
+   * at every edge so the ball travels in a straight line, and the edges it hits are counted rather
+   * than found one at a time. Without a loss at each hit the ball travels speed^2 / (2 a) before
+   * it stops, so its resting place comes out in O(1). Otherwise the bounces are walked in order, at
+   * a few arithmetic operations each. Deceleration is applied exactly, so a ball that cannot reach
+   * the next edge stops short of it.
+   *
+   * @param ball   the ball to move.
+   * @param width  the width of the table.
+   * @param height the height of the table.
+   * @param time   the time since start to move to.
+   * @throws IllegalArgumentException If the time is infinite and the ball never comes to rest.
+   */
+  @Override
+  public void advanceTo(Ball ball, int width, int height, double time)
+      throws IllegalArgumentException {
+    double spanX = width - 2 * ball.getRadius();
+    double spanY = height - 2 * ball.getRadius();
+    if ((ball.getDx() != 0 && spanX <= 0) || (ball.getDy() != 0 && spanY <= 0)) {
+      //the ball fills the table along its direction and only bounces in place
+      PhysicsModel.super.advanceTo(ball, width, height, time);
+    } else if (ball.getSpeed() > 0 && hitLoss == 0) {
+      glide(ball, width, height, time - ball.getTime(), spanX, spanY);
+    } else if (ball.getSpeed() > 0) {
+      walk(ball, width, height, time - ball.getTime(), spanX, spanY);
+    }
+  }
+
+  private void glide(Ball ball, int width, int height, double duration, double spanX,
+      double spanY) {
+    double speed = ball.getSpeed();
+    double rest = timeToRest(speed);
+    double t = Math.min(duration, rest);
+    if (Double.isInfinite(t)) {
+      throw new IllegalArgumentException("the ball never comes to rest");
+    }
+    double travel = t == rest ? speed * speed / (2 * deceleration) : distance(speed, t);
+    long hitsX = crossings(start(ball.getX(), ball.getDx(), width, ball.getRadius()),
+        Math.abs(ball.getDx()) * travel, spanX);
+    long hitsY = crossings(start(ball.getY(), ball.getDy(), height, ball.getRadius()),
+        Math.abs(ball.getDy()) * travel, spanY);
+    unfold(ball, width, height, travel, hitsX, hitsY, spanX, spanY);
+    ball.addTime(t);
+    ball.setSpeed(t == rest ? 0 : speedAfter(speed, t));
+  }
+
+  private void walk(Ball ball, int width, int height, double duration, double spanX,
+      double spanY) {
+    double startX = start(ball.getX(), ball.getDx(), width, ball.getRadius());
+    double startY = start(ball.getY(), ball.getDy(), height, ball.getRadius());
+    double absDx = Math.abs(ball.getDx());
+    double absDy = Math.abs(ball.getDy());
+    double speed = ball.getSpeed();
+    long hitsX = 0;
+    long hitsY = 0;
+    double travel = 0;
+    while (speed > 0) {
+      //distance along the path to the next edge of each kind
+      double nextX = absDx > 0 ? ((hitsX + 1) * spanX - startX) / absDx : Double.POSITIVE_INFINITY;
+      double nextY = absDy > 0 ? ((hitsY + 1) * spanY - startY) / absDy : Double.POSITIVE_INFINITY;
+      double next = Math.min(nextX, nextY);
+      double leg = timeToTravel(speed, next - travel);
+      if (leg > duration || leg > timeToRest(speed)) {
+        double t = Math.min(duration, timeToRest(speed));
+        travel += distance(speed, t);
+        speed = speedAfter(speed, t);
+        ball.addTime(t);
+        break;
+      }
+      duration -= leg;
+      ball.addTime(leg);
+      travel = next;
+      if (nextX <= nextY) {
+        hitsX++;
+      } else {
+        hitsY++;
+      }
+      speed = speedAfter(speed, leg) - hitLoss;
+    }
+    unfold(ball, width, height, travel, hitsX, hitsY, spanX, spanY);
+    ball.setSpeed(speed);
+  }
+
+  /**
+   * Moves the ball a distance along its path given how many times it hits each kind of edge, and
+   * counts the hits.
+   */
+  private static void unfold(Ball ball, int width, int height, double travel, long hitsX,
+      long hitsY, double spanX, double spanY) {
+    double radius = ball.getRadius();
+    double dx = ball.getDx();
+    double dy = ball.getDy();
+    double startX = start(ball.getX(), dx, width, radius);
+    double startY = start(ball.getY(), dy, height, radius);
+    double lastX = hitsX > 0 ? (hitsX * spanX - startX) / Math.abs(dx) : -1;
+    double lastY = hitsY > 0 ? (hitsY * spanY - startY) / Math.abs(dy) : -1;
+    Edge last = null;
+    if (lastX >= 0 && lastX >= lastY) {
+      last = (hitsX % 2 == 1) == (dx > 0) ? Edge.RIGHT : Edge.LEFT;
+    } else if (lastY >= 0) {
+      last = (hitsY % 2 == 1) == (dy > 0) ? Edge.TOP : Edge.BOTTOM;
+    }
+    double foldX = fold(startX + Math.abs(dx) * travel, hitsX, spanX);
+    double foldY = fold(startY + Math.abs(dy) * travel, hitsY, spanY);
+    ball.moveTo(dx > 0 ? radius + foldX : width - radius - foldX,
+        dy > 0 ? radius + foldY : height - radius - foldY);
+    ball.setDirection(hitsX % 2 == 1 ? -1 * dx : dx, hitsY % 2 == 1 ? -1 * dy : dy);
+    ball.countHits(hitsX + hitsY, last);
+  }
+
+  /**
+   * Distance of the ball from the edge behind it, measured along one axis.
+   */
+  private static double start(double position, double direction, int size, double radius) {
+    return direction > 0 ? position - radius : size - radius - position;
+  }
+
+  /**
+   * Number of edges crossed along one axis when travelling from the given start on the unfolded
+   * table, where the edges lie at every multiple of the span.
+   */
+  private static long crossings(double start, double travel, double span) {
+    if (travel <= 0) {
+      return 0;
+    }
+    return (long) Math.floor((start + travel) / span);
+  }
+
+  /**
+   * Folds a position on the unfolded table back onto the table.
+   */
+  private static double fold(double unfolded, long hits, double span) {
+    double folded = hits % 2 == 0 ? unfolded - hits * span : (hits + 1) * span - unfolded;
+    return Math.max(0, Math.min(span, folded));
+  }
+}
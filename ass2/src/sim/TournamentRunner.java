@@ -0,0 +1,328 @@
+package sim;
+
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * The TournamentRunner class plays many independent tables at once, each with its own
+ * SimplePoolSimulator. The tables are split into one contiguous shard per worker thread, and a
+ * table is only ever touched by the worker of its shard: its simulator is built there and its
+ * shots are started there, so no table state crosses threads.
+ *
+ * <p>The tables move in lock-step rounds. In a round every worker starts the shots given to its
+ * tables since the last round and advances each of its moving tables by one step, then waits for
+ * the others. A table only depends on its own shots, so the outcomes and the steps of every round
+ * are the same for any number of workers; only the time a round takes changes, which is recorded
+ * per round for sizing hardware. A table still moving after ShotBatchEvaluator.MAX_STEPS steps of
+ * its shot is stopped and its outcome marked ShotResults.CAPPED.
+ */
+public final class TournamentRunner implements AutoCloseable {
+
+  private final int tables;
+  private final Shard[] shards;
+  private final CyclicBarrier barrier;
+  private final ShotResults results;
+  //shots for the next round, read by the workers during it
+  private ShotBatch pending;
+  private volatile boolean closed;
+  private int rounds;
+  private long[] roundSteps = new long[16];
+  private long[] roundNanos = new long[16];
+
+  /**
+   * Constructs a TournamentRunner and starts its workers. Every table is at rest until given a
+   * shot.
+   *
+   * @param width   The width of the pool tables.
+   * @param height  The height of the pool tables.
+   * @param type    The type of the simulation, as for SimplePoolSimulator.
+   * @param tables  The number of tables.
+   * @param workers The number of worker threads, at most one per table.
+   * @throws IllegalArgumentException If the table or type is rejected by SimplePoolSimulator, or
+   *                                  the tables or workers are not positive.
+   */
+  public TournamentRunner(int width, int height, String type, int tables, int workers)
+      throws IllegalArgumentException {
+    new SimplePoolSimulator(width, height, type);
+    if (tables <= 0 || workers <= 0) {
+      throw new IllegalArgumentException("tables and workers must be positive");
+    }
+    workers = Math.min(workers, tables);
+    this.tables = tables;
+    this.results = new ShotResults(tables);
+    this.barrier = new CyclicBarrier(workers + 1);
+    this.shards = new Shard[workers];
+    for (int s = 0; s < workers; s++) {
+      shards[s] = new Shard((int) ((long) tables * s / workers),
+          (int) ((long) tables * (s + 1) / workers));
+    }
+    for (int s = 0; s < workers; s++) {
+      Shard shard = shards[s];
+      Thread worker = new Thread(() -> work(shard, width, height, type), "tournament-shard-" + s);
+      worker.setDaemon(true);
+      worker.start();
+    }
+  }
+
+  /**
+   * Gives shots to the tables for the next round: shot i goes to table i, and tables past the
+   * last shot keep what they are doing. A table that is still moving starts over with its new
+   * shot, and a shot the simulator rejects leaves its table at rest with an INVALID outcome.
+   *
+   * @param shots the shots, at most one per table.
+   * @throws IllegalArgumentException If there are more shots than tables.
+   */
+  public void start(ShotBatch shots) throws IllegalArgumentException {
+    if (shots.size() > tables) {
+      throw new IllegalArgumentException("more shots than tables");
+    }
+    pending = shots;
+  }
+
+  /**
+   * Plays one round: starts the shots given since the last round and advances every moving table
+   * by one step.
+   *
+   * @return the number of tables still moving.
+   * @throws IllegalStateException If the runner is closed or a worker failed.
+   */
+  public int round() throws IllegalStateException {
+    if (closed) {
+      throw new IllegalStateException("runner is closed");
+    }
+    long start = System.nanoTime();
+    await();
+    //the workers play the round between the two barriers
+    await();
+    long nanos = System.nanoTime() - start;
+    pending = null;
+    long steps = 0;
+    int moving = 0;
+    for (Shard shard : shards) {
+      if (shard.failure != null) {
+        throw new IllegalStateException("worker failed", shard.failure);
+      }
+      steps += shard.steps;
+      moving += shard.moving;
+    }
+    if (rounds == roundSteps.length) {
+      roundSteps = Arrays.copyOf(roundSteps, rounds * 2);
+      roundNanos = Arrays.copyOf(roundNanos, rounds * 2);
+    }
+    roundSteps[rounds] = steps;
+    roundNanos[rounds] = nanos;
+    rounds++;
+    return moving;
+  }
+
+  /**
+   * Plays rounds until every table is at rest.
+   *
+   * @return the outcome of the last shot of every table, indexed by table.
+   * @throws IllegalStateException If the runner is closed or a worker failed.
+   */
+  public ShotResults runToRest() throws IllegalStateException {
+    while (round() > 0) {
+      continue;
+    }
+    return results;
+  }
+
+  /**
+   * Stops the workers. Call it from the thread that plays the rounds; rounds cannot be played
+   * afterwards.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    //the workers see closed once they pass the barrier of the next round
+    try {
+      barrier.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      barrier.reset();
+    } catch (BrokenBarrierException e) {
+      //the workers have stopped already
+    }
+  }
+
+  private void await() {
+    try {
+      barrier.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      closed = true;
+      barrier.reset();
+      throw new IllegalStateException("interrupted during a round", e);
+    } catch (BrokenBarrierException e) {
+      throw new IllegalStateException("runner is closed", e);
+    }
+  }
+
+  /**
+   * The loop of a worker thread: builds the simulators of its shard, then plays its part of every
+   * round until the runner is closed.
+   */
+  private void work(Shard shard, int width, int height, String type) {
+    SimplePoolSimulator[] simulators = new SimplePoolSimulator[shard.to - shard.from];
+    int[] steps = new int[simulators.length];
+    for (int i = 0; i < simulators.length; i++) {
+      simulators[i] = new SimplePoolSimulator(width, height, type);
+    }
+    try {
+      while (true) {
+        barrier.await();
+        if (closed) {
+          return;
+        }
+        try {
+          shard.play(pending, simulators, steps);
+        } catch (RuntimeException e) {
+          shard.failure = e;
+        }
+        barrier.await();
+      }
+    } catch (InterruptedException | BrokenBarrierException e) {
+      //the runner gave up on a round
+    }
+  }
+
+  /**
+   * getter method to get the outcome of the last shot of every table. A table only has an
+   * outcome once its shot has come to rest.
+   *
+   * @return results, indexed by table.
+   */
+  public ShotResults getResults() {
+    return results;
+  }
+
+  /**
+   * getter method to get the number of tables.
+   *
+   * @return tables.
+   */
+  public int getTableCount() {
+    return tables;
+  }
+
+  /**
+   * getter method to get the number of worker threads.
+   *
+   * @return workers.
+   */
+  public int getWorkerCount() {
+    return shards.length;
+  }
+
+  /**
+   * getter method to get the number of rounds played.
+   *
+   * @return rounds.
+   */
+  public int getRounds() {
+    return rounds;
+  }
+
+  /**
+   * getter method to get the steps played in a round, which is the same for any number of
+   * workers.
+   *
+   * @param round index of the round.
+   * @return steps.
+   */
+  public long getRoundSteps(int round) {
+    return roundSteps[round];
+  }
+
+  /**
+   * getter method to get the time a round took, from starting it until every worker was done.
+   *
+   * @param round index of the round.
+   * @return time in nanoseconds.
+   */
+  public long getRoundNanos(int round) {
+    return roundNanos[round];
+  }
+
+  /**
+   * Reports the throughput of every round.
+   *
+   * @return one "round steps micros stepsPerSecond" line per round.
+   */
+  public String report() {
+    StringBuilder report = new StringBuilder();
+    for (int r = 0; r < rounds; r++) {
+      report.append(r).append(' ').append(roundSteps[r]).append(' ')
+          .append(roundNanos[r] / 1000).append(' ')
+          .append(roundNanos[r] == 0 ? 0 : roundSteps[r] * 1e9 / roundNanos[r]).append('\n');
+    }
+    return report.toString();
+  }
+
+  /**
+   * The tables of one worker, with what it reports of each round. The worker writes the counts
+   * before the second barrier of a round and the runner reads them after it.
+   */
+  private final class Shard {
+
+    private final int from;
+    private final int to;
+    private long steps;
+    private int moving;
+    private RuntimeException failure;
+
+    private Shard(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Plays one round on the tables of the shard.
+     *
+     * @param shots      shots given since the last round, or null.
+     * @param simulators the simulator of every table of the shard.
+     * @param shotSteps  the steps taken by the shot of every table so far.
+     */
+    private void play(ShotBatch shots, SimplePoolSimulator[] simulators, int[] shotSteps) {
+      steps = 0;
+      moving = 0;
+      int started = shots == null ? 0 : Math.max(0, Math.min(to, shots.size()) - from);
+      for (int i = 0; i < simulators.length; i++) {
+        SimplePoolSimulator simulator = simulators[i];
+        int table = from + i;
+        if (i < started) {
+          try {
+            shots.startShot(table, simulator);
+            shotSteps[i] = 0;
+          } catch (IllegalArgumentException e) {
+            //the table stays as it was, so it is stopped by hand
+            shotSteps[i] = -1;
+            results.set(table, Double.NaN, Double.NaN, -1, Double.NaN, ShotResults.INVALID);
+            continue;
+          }
+        }
+        Status status = simulator.getStatusCode();
+        if (shotSteps[i] < 0 || status == Status.STATIONARY || status == Status.NOT_SET_UP) {
+          continue;
+        }
+        simulator.advance();
+        steps++;
+        shotSteps[i]++;
+        boolean rests = simulator.getStatusCode() == Status.STATIONARY;
+        if (rests || shotSteps[i] == ShotBatchEvaluator.MAX_STEPS) {
+          shotSteps[i] = -1;
+          results.set(table, simulator.getBallPositionX(), simulator.getBallPositionY(),
+              simulator.getBounceCount(), simulator.getElapsedTime(),
+              rests ? ShotResults.edgeCode(simulator.getLastEdge()) : ShotResults.CAPPED);
+        } else {
+          moving++;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,302 @@
+package sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The TrajectoryReader class replays a file written by TrajectoryWriter. The file is memory
+ * mapped, so any record can be read directly by its index without reading the ones before it. A
+ * single mapping holds at most 2 GB, so larger files are mapped in chunks of whole records. Reads
+ * do not move any buffer position, so one reader can be shared between threads.
+ *
+ * <p>A reader can follow a file a TrajectoryWriter is still writing: refresh takes in the records
+ * flushed since, mapping each chunk once when the file has grown past its end and reading only
+ * the new records after the last whole chunk into a buffer, so following a long run does not pile
+ * up mappings.
+ */
+public final class TrajectoryReader implements Closeable {
+
+  //largest chunk a mapping can hold, in whole records
+  private static final long CHUNK_BYTES = Integer.MAX_VALUE;
+
+  private final FileChannel channel;
+  private ByteBuffer[] chunks;
+  //the records after the last whole chunk of a refreshed file, or null
+  private ByteBuffer tail;
+  private final long recordsPerChunk;
+  private long size;
+  private final int tableWidth;
+  private final int tableHeight;
+
+  /**
+   * Opens a trajectory file.
+   *
+   * @param path the file to read.
+   * @throws IOException If the file cannot be read or is not a trajectory file.
+   */
+  public TrajectoryReader(Path path) throws IOException {
+    this(path, CHUNK_BYTES);
+  }
+
+  TrajectoryReader(Path path, long chunkBytes) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(TrajectoryWriter.HEADER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          break;
+        }
+      }
+      header.flip();
+      if (header.remaining() < TrajectoryWriter.HEADER_SIZE
+          || header.getLong() != TrajectoryWriter.MAGIC
+          || header.getInt() != TrajectoryWriter.VERSION
+          || header.getInt() != TrajectoryWriter.RECORD_SIZE) {
+        throw new IOException("not a trajectory file: " + path);
+      }
+      this.tableWidth = header.getInt();
+      this.tableHeight = header.getInt();
+      this.size = (channel.size() - TrajectoryWriter.HEADER_SIZE) / TrajectoryWriter.RECORD_SIZE;
+      this.recordsPerChunk = Math.max(1, chunkBytes / TrajectoryWriter.RECORD_SIZE);
+      int count = (int) ((size + recordsPerChunk - 1) / recordsPerChunk);
+      this.chunks = new ByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        chunks[i] = map(i, Math.min(recordsPerChunk, size - i * recordsPerChunk));
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private ByteBuffer map(int chunk, long records) throws IOException {
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+        TrajectoryWriter.HEADER_SIZE + chunk * recordsPerChunk * TrajectoryWriter.RECORD_SIZE,
+        records * TrajectoryWriter.RECORD_SIZE);
+    return mapped.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Takes in the records written to the file since it was opened or last refreshed. The records
+   * must not be read by other threads while this runs.
+   *
+   * @return the number of new records.
+   * @throws IOException If the file cannot be read.
+   */
+  public long refresh() throws IOException {
+    long grown = (channel.size() - TrajectoryWriter.HEADER_SIZE) / TrajectoryWriter.RECORD_SIZE;
+    if (grown <= size) {
+      return 0;
+    }
+    //first record not read yet
+    long read = size;
+    int whole = (int) (size / recordsPerChunk);
+    if (chunks.length > whole) {
+      //the last chunk was mapped short of its end, so its records go to the tail instead
+      chunks = Arrays.copyOf(chunks, whole);
+      read = whole * recordsPerChunk;
+    }
+    while ((chunks.length + 1) * recordsPerChunk <= grown) {
+      int chunk = chunks.length;
+      chunks = Arrays.copyOf(chunks, chunk + 1);
+      chunks[chunk] = map(chunk, recordsPerChunk);
+    }
+    long start = chunks.length * recordsPerChunk;
+    if (grown > start) {
+      readTail(start, Math.max(read, start), grown);
+    }
+    long added = grown - size;
+    size = grown;
+    return added;
+  }
+
+  /**
+   * Reads records into the tail, which holds the records from start on, keeping those before the
+   * first one read.
+   */
+  private void readTail(long start, long from, long to) throws IOException {
+    int keep = (int) ((from - start) * TrajectoryWriter.RECORD_SIZE);
+    int need = (int) ((to - start) * TrajectoryWriter.RECORD_SIZE);
+    if (tail == null || tail.capacity() < need) {
+      long doubled = tail == null ? 0 : 2L * tail.capacity();
+      int capacity = (int) Math.min(recordsPerChunk * TrajectoryWriter.RECORD_SIZE,
+          Math.max(need, doubled));
+      ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+      if (keep > 0) {
+        ByteBuffer kept = tail.duplicate();
+        kept.limit(keep);
+        grown.put(kept);
+        grown.clear();
+      }
+      tail = grown;
+    }
+    ByteBuffer window = tail.duplicate();
+    window.limit(need).position(keep);
+    long at = TrajectoryWriter.HEADER_SIZE + from * TrajectoryWriter.RECORD_SIZE;
+    while (window.hasRemaining()) {
+      int n = channel.read(window, at);
+      if (n < 0) {
+        throw new IOException("trajectory file shrank while it was read");
+      }
+      at += n;
+    }
+  }
+
+  /**
+   * getter method to get the number of records.
+   *
+   * @return number of records.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * getter method to get the width of the table.
+   *
+   * @return width.
+   */
+  public int getTableWidth() {
+    return tableWidth;
+  }
+
+  /**
+   * getter method to get the height of the table.
+   *
+   * @return height.
+   */
+  public int getTableHeight() {
+    return tableHeight;
+  }
+
+  /**
+   * getter method to get the time of a record.
+   *
+   * @param i index of the record.
+   * @return time.
+   */
+  public double getTime(long i) {
+    return chunk(i).getDouble(offset(i) + TrajectoryWriter.TIME);
+  }
+
+  /**
+   * getter method to get the ball of a record.
+   *
+   * @param i index of the record.
+   * @return index of the ball.
+   */
+  public int getBall(long i) {
+    return chunk(i).getInt(offset(i) + TrajectoryWriter.BALL);
+  }
+
+  /**
+   * getter method to get the edge of a record.
+   *
+   * @param i index of the record.
+   * @return one of the edge codes of ShotResults.
+   */
+  public byte getEdge(long i) {
+    return chunk(i).get(offset(i) + TrajectoryWriter.EDGE);
+  }
+
+  /**
+   * getter method to get the x of a record.
+   *
+   * @param i index of the record.
+   * @return x.
+   */
+  public double getX(long i) {
+    return chunk(i).getDouble(offset(i) + TrajectoryWriter.X);
+  }
+
+  /**
+   * getter method to get the y of a record.
+   *
+   * @param i index of the record.
+   * @return y.
+   */
+  public double getY(long i) {
+    return chunk(i).getDouble(offset(i) + TrajectoryWriter.Y);
+  }
+
+  /**
+   * getter method to get the velocity in the X direction of a record.
+   *
+   * @param i index of the record.
+   * @return vx.
+   */
+  public double getVelocityX(long i) {
+    return chunk(i).getDouble(offset(i) + TrajectoryWriter.VX);
+  }
+
+  /**
+   * getter method to get the velocity in the Y direction of a record.
+   *
+   * @param i index of the record.
+   * @return vy.
+   */
+  public double getVelocityY(long i) {
+    return chunk(i).getDouble(offset(i) + TrajectoryWriter.VY);
+  }
+
+  /**
+   * getter method to get the radius of a record.
+   *
+   * @param i index of the record.
+   * @return radius.
+   */
+  public double getRadius(long i) {
+    return chunk(i).getDouble(offset(i) + TrajectoryWriter.RADIUS);
+  }
+
+  /**
+   * Finds the first record at or after a time. Records are written in time order, so this is a
+   * binary search.
+   *
+   * @param time the time to look for.
+   * @return index of the record, or size if every record is earlier.
+   */
+  public long find(double time) {
+    long lo = 0;
+    long hi = size;
+    while (lo < hi) {
+      long mid = (lo + hi) >>> 1;
+      if (getTime(mid) < time) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private ByteBuffer chunk(long i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("record " + i + " of " + size);
+    }
+    int chunk = (int) (i / recordsPerChunk);
+    return chunk < chunks.length ? chunks[chunk] : tail;
+  }
+
+  private int offset(long i) {
+    return (int) (i % recordsPerChunk) * TrajectoryWriter.RECORD_SIZE;
+  }
+
+  /**
+   * Closes the file. The records must not be read afterwards.
+   *
+   * @throws IOException If the file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
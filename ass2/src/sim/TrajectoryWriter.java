@@ -0,0 +1,166 @@
+package sim;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The TrajectoryWriter class streams the events of a simulation to a binary file that
+ * TrajectoryReader replays. The file starts with a header holding the table size, followed by one
+ * fixed-width little-endian record per event: time, ball, edge code, x, y, vx, vy and radius.
+ * Records go through one direct buffer, so recording uses the same memory however long the run
+ * is. The record count is not stored; it follows from the file size, so a file cut short by a
+ * crash still replays up to its last whole record.
+ */
+public final class TrajectoryWriter implements Closeable, Flushable {
+
+  //reads as "POOLTRAJ" at the start of the file
+  static final long MAGIC = 0x4a4152544c4f4f50L;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int RECORD_SIZE = 56;
+  //offsets of the fields in a record
+  static final int TIME = 0;
+  static final int BALL = 8;
+  static final int EDGE = 12;
+  static final int X = 16;
+  static final int Y = 24;
+  static final int VX = 32;
+  static final int VY = 40;
+  static final int RADIUS = 48;
+
+  private static final int BUFFERED_RECORDS = 1024;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private long size;
+
+  /**
+   * Creates or replaces a trajectory file.
+   *
+   * @param path        the file to write.
+   * @param tableWidth  the width of the table of the simulation.
+   * @param tableHeight the height of the table of the simulation.
+   * @throws IOException If the file cannot be written.
+   */
+  public TrajectoryWriter(Path path, int tableWidth, int tableHeight) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    this.buffer = ByteBuffer.allocateDirect(BUFFERED_RECORDS * RECORD_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putLong(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(tableWidth)
+        .putInt(tableHeight).putLong(0);
+  }
+
+  /**
+   * Appends one record.
+   *
+   * @param time   the time of the event.
+   * @param ball   the index of the ball.
+   * @param x      the x of the ball.
+   * @param y      the y of the ball.
+   * @param vx     the velocity of the ball in the X direction.
+   * @param vy     the velocity of the ball in the Y direction.
+   * @param radius the radius of the ball.
+   * @param edge   the edge the ball hit, one of the edge codes of ShotResults.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(double time, int ball, double x, double y, double vx, double vy,
+      double radius, byte edge) throws IOException {
+    if (buffer.remaining() < RECORD_SIZE) {
+      drain();
+    }
+    buffer.putDouble(time).putInt(ball).put(edge).put((byte) 0).putShort((short) 0)
+        .putDouble(x).putDouble(y).putDouble(vx).putDouble(vy).putDouble(radius);
+    size++;
+  }
+
+  /**
+   * Appends the current state of the ball of a simulator as ball 0, with the edge its status
+   * names.
+   *
+   * @param time      the time to record the state at.
+   * @param simulator the simulator to record.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(double time, PoolSimulator simulator) throws IOException {
+    write(time, 0, simulator.getBallPositionX(), simulator.getBallPositionY(),
+        simulator.getBallVelocityX(), simulator.getBallVelocityY(), simulator.getBallRadius(),
+        ShotResults.edgeCode(simulator.getStatusCode().getEdge()));
+  }
+
+  /**
+   * Appends the balls that took part in the last event of a multi ball simulator.
+   *
+   * @param simulator the simulator to record.
+   * @throws IOException If the file cannot be written.
+   */
+  public void writeEvent(MultiBallPoolSimulator simulator) throws IOException {
+    byte edge = ShotResults.edgeCode(simulator.getStatusCode().getEdge());
+    int ball = simulator.getEventBall();
+    if (ball >= 0) {
+      writeBall(simulator, ball, edge);
+    }
+    int other = simulator.getEventOther();
+    if (other >= 0) {
+      writeBall(simulator, other, edge);
+    }
+  }
+
+  private void writeBall(MultiBallPoolSimulator simulator, int ball, byte edge)
+      throws IOException {
+    write(simulator.getTime(), ball, simulator.getBallPositionX(ball),
+        simulator.getBallPositionY(ball), simulator.getBallVelocityX(ball),
+        simulator.getBallVelocityY(ball), simulator.getBallRadius(ball), edge);
+  }
+
+  /**
+   * getter method to get the number of records written.
+   *
+   * @return number of records.
+   */
+  public long size() {
+    return size;
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Writes the buffered records to the file, where a TrajectoryReader refreshed afterwards sees
+   * them. It does not wait for them to reach the disk.
+   *
+   * @throws IOException If the file cannot be written.
+   */
+  @Override
+  public void flush() throws IOException {
+    drain();
+  }
+
+  /**
+   * Writes the buffered records and closes the file.
+   *
+   * @throws IOException If the file cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    try {
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+}
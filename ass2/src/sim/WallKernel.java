@@ -0,0 +1,84 @@
+package sim;
+
+/**
+ * The WallKernel class finds, for a range of balls in a BallStore, the time until each ball hits
+ * the nearest edge of the table and which edge that is, with the formula of Kinematics that the
+ * models step with too. The distance to the edge ahead on each axis is stretched to a length along
+ * the path, as Kinematics.lengthToEdge does: a ball that rounding put slightly past an edge is at
+ * it, and an edge that is not ahead or cannot be reached comes out as positive infinity.
+ * MultiBallPoolSimulator predicts the edge hits of its balls with it.
+ *
+ * <p>The loop picks edges and the minimum with selects only, so the JIT can keep it free of
+ * branches. On JDK 17 create returns a subclass built on the Vector API that runs several balls per
+ * instruction; it is compiled into the multi-release jar and needs the JVM to be started with
+ * --add-modules jdk.incubator.vector. Both give the same times bit for bit.
+ */
+class WallKernel {
+
+  //edge codes, the ordinals of Edge as in Ball.save
+  static final byte NONE = -1;
+  static final byte LEFT = (byte) Edge.LEFT.ordinal();
+  static final byte RIGHT = (byte) Edge.RIGHT.ordinal();
+  static final byte BOTTOM = (byte) Edge.BOTTOM.ordinal();
+  static final byte TOP = (byte) Edge.TOP.ordinal();
+
+  WallKernel() {
+  }
+
+  /**
+   * Gives the fastest kernel this JVM can run.
+   *
+   * @return the Vector API kernel if it can be loaded, otherwise a scalar one.
+   */
+  static WallKernel create() {
+    try {
+      return (WallKernel) Class.forName("sim.VectorWallKernel").getDeclaredConstructor()
+          .newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      //not running from the multi-release jar on JDK 17, or without the incubator module
+      return new WallKernel();
+    }
+  }
+
+  /**
+   * Finds the nearest edge of every ball in a range. A ball hits an edge on the x axis when the
+   * times to both edges are equal.
+   *
+   * @param balls        the balls, as of their own times.
+   * @param from         the first ball.
+   * @param to           one past the last ball.
+   * @param deceleration the deceleration of the model, 0 for the simple model.
+   * @param width        the width of the table.
+   * @param height       the height of the table.
+   * @param time         receives the time to the edge, or positive infinity if the ball does not
+   *                     reach one, at the index of each ball.
+   * @param edge         receives the edge code, or NONE, at the index of each ball.
+   */
+  void nearestWalls(BallStore balls, int from, int to, double deceleration, int width,
+      int height, double[] time, byte[] edge) {
+    double[] x = balls.x;
+    double[] y = balls.y;
+    double[] vx = balls.vx;
+    double[] vy = balls.vy;
+    double[] radius = balls.radius;
+    double[] speed = balls.speed;
+    for (int i = from; i < to; i++) {
+      double r = radius[i];
+      double v = speed[i];
+      boolean right = vx[i] > 0;
+      boolean top = vy[i] > 0;
+      double aheadX = right ? width - r - x[i] : x[i] - r;
+      double aheadY = top ? height - r - y[i] : y[i] - r;
+      //no velocity on an axis makes the length infinite or NaN, both of which travel does not reach
+      double timeX = Kinematics.travel(v, Math.max(0, aheadX) / (Math.abs(vx[i]) / v),
+          deceleration);
+      double timeY = Kinematics.travel(v, Math.max(0, aheadY) / (Math.abs(vy[i]) / v),
+          deceleration);
+      double t = Math.min(timeX, timeY);
+      byte edgeX = right ? RIGHT : LEFT;
+      byte edgeY = top ? TOP : BOTTOM;
+      time[i] = t;
+      edge[i] = t == Double.POSITIVE_INFINITY ? NONE : timeX <= timeY ? edgeX : edgeY;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * The AimOptimizerTest class contains JUnit test cases for the AimOptimizer class.
+ */
+public class AimOptimizerTest {
+
+  /**
+   * Without friction the ball passes the target at the lowest speed that survives its banks.
+   */
+  @Test
+  public void simpleShotPassesTarget() {
+    AimOptimizer optimizer = new AimOptimizer(400, 200, "simple", 100);
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "simple");
+    Random random = new Random(1);
+    for (int n = 0; n < 50; n++) {
+      double targetX = 10 + random.nextDouble() * 380;
+      double targetY = 10 + random.nextDouble() * 180;
+      Aim aim = optimizer.aim(60, 50, 10, targetX, targetY, 3, false);
+      assertEquals(0, aim.getMiss(), 1e-6);
+      assertEquals(0, aim.getBanks());
+      assertEquals(1, aim.getSpeed());
+
+      simulator.start(60, 50, 10, aim.getSpeed(), aim.getDx(), aim.getDy());
+      simulator.advanceTo(aim.getTime());
+      assertEquals(targetX, simulator.getBallPositionX(), 1e-6);
+      assertEquals(targetY, simulator.getBallPositionY(), 1e-6);
+    }
+  }
+
+  /**
+   * A bank shot hits as many edges as asked for, and starts fast enough to survive them.
+   */
+  @Test
+  public void bankShotSurvivesItsBanks() {
+    AimOptimizer optimizer = new AimOptimizer(400, 200, "simple", 100);
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "simple");
+    for (int banks = 1; banks <= 4; banks++) {
+      Aim aim = optimizer.aim(300, 150, 10, 120, 40, banks, banks, false);
+      assertEquals(banks, aim.getBanks());
+      assertEquals(0, aim.getMiss(), 1e-6);
+      assertEquals(5 * banks + 1, aim.getSpeed());
+
+      simulator.start(300, 150, 10, aim.getSpeed(), aim.getDx(), aim.getDy());
+      simulator.advanceTo(aim.getTime());
+      assertEquals(120, simulator.getBallPositionX(), 1e-6);
+      assertEquals(40, simulator.getBallPositionY(), 1e-6);
+      assertEquals(banks, simulator.getBounceCount());
+    }
+  }
+
+  /**
+   * With friction a resting place of some shot is found again exactly, banks and all.
+   */
+  @Test
+  public void frictionShotStopsOnTarget() {
+    AimOptimizer optimizer = new AimOptimizer(400, 200, "friction", 200);
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "friction");
+    Random random = new Random(2);
+    for (int n = 0; n < 30; n++) {
+      simulator.start(100, 100, 8, 10 + random.nextInt(60), random.nextDouble() - 0.5,
+          random.nextDouble() - 0.5);
+      simulator.runToRest();
+      double targetX = simulator.getBallPositionX();
+      double targetY = simulator.getBallPositionY();
+      int banks = simulator.getBounceCount();
+
+      Aim aim = optimizer.aim(100, 100, 8, targetX, targetY, banks, true);
+      assertTrue(aim.getMiss() + " at " + n, aim.getMiss() < 1e-6);
+      assertTrue(aim.getBanks() <= banks);
+      simulator.start(100, 100, 8, aim.getSpeed(), aim.getDx(), aim.getDy());
+      simulator.runToRest();
+      assertEquals(targetX, simulator.getBallPositionX(), 1e-6);
+      assertEquals(targetY, simulator.getBallPositionY(), 1e-6);
+    }
+  }
+
+  /**
+   * Models without the geometry of StraightLineModel are swept and refined.
+   */
+  @Test
+  public void otherModelsAreSwept() {
+    PhysicsModels.register("aim-test", () -> new PhysicsModel() {
+      private final PhysicsModel friction = PhysicsModels.create("friction");
+
+      @Override
+      public Edge step(Ball ball, int width, int height) {
+        return friction.step(ball, width, height);
+      }
+    });
+    AimOptimizer optimizer = new AimOptimizer(400, 200, "aim-test", 100);
+    Aim aim = optimizer.aim(100, 100, 10, 250, 140, 0, false);
+    assertTrue(Double.toString(aim.getMiss()), aim.getMiss() < 1e-6);
+    assertEquals(0, aim.getBanks());
+    assertEquals(150 / Math.hypot(150, 40), aim.getDx(), 1e-6);
+  }
+
+  /**
+   * A target the ball cannot be centred on is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTargetOutsideTable() {
+    new AimOptimizer(400, 200, "simple", 100).aim(100, 100, 10, 395, 100, 1, false);
+  }
+
+  /**
+   * A start that overlaps an edge is rejected, and the rejected call does not disturb the next
+   * one on the same thread.
+   */
+  @Test
+  public void testBallOutsideTable() {
+    AimOptimizer optimizer = new AimOptimizer(400, 200, "simple", 100);
+    try {
+      optimizer.aim(5, 100, 10, 200, 100, 0, false);
+      fail("a ball across the left edge was accepted");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The ball is not inside the table.", e.getMessage());
+    }
+    Aim aim = optimizer.aim(100, 100, 10, 250, 100, 0, false);
+    assertTrue(Double.toString(aim.getMiss()), aim.getMiss() < 1e-6);
+  }
+
+  /**
+   * A negative radius is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRadius() {
+    new AimOptimizer(400, 200, "simple", 100).aim(100, 100, -1, 200, 100, 0, false);
+  }
+
+  /**
+   * Banks out of order are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBanksOutOfOrder() {
+    new AimOptimizer(400, 200, "simple", 100).aim(100, 100, 10, 200, 100, 2, 1, false);
+  }
+}
@@ -0,0 +1,134 @@
+package sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The BallViewTest class paints the table panel of BallView headless into an image.
+ */
+public class BallViewTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void headless() {
+    System.setProperty("java.awt.headless", "true");
+  }
+
+  private TrajectoryReader record() throws IOException {
+    Path file = folder.newFile().toPath();
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "simple");
+    simulator.start(50, 60, 12, 200, 0.7, -0.4);
+    try (TrajectoryWriter writer = new TrajectoryWriter(file, 400, 200)) {
+      long steps = 0;
+      while (simulator.getStatusCode() != Status.STATIONARY) {
+        writer.write(steps++, simulator);
+        simulator.advance();
+      }
+      writer.write(steps, simulator);
+    }
+    return new TrajectoryReader(file);
+  }
+
+  private static BallView.TablePanel panel(TrajectoryReader frames) {
+    BallView.TablePanel panel = new BallView.TablePanel(400, 200);
+    panel.frames = frames;
+    Dimension size = panel.getPreferredSize();
+    panel.setSize(size);
+    return panel;
+  }
+
+  private static int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+
+  /**
+   * Paints a step on a new panel, the way the first paint of the view does.
+   */
+  private static int[] paintAt(TrajectoryReader frames, long step) {
+    BallView.TablePanel panel = panel(frames);
+    panel.moveTo(step);
+    BufferedImage image = new BufferedImage(panel.getWidth(), panel.getHeight(),
+        BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    panel.paintComponent(g);
+    g.dispose();
+    return pixels(image);
+  }
+
+  /**
+   * The live producer hands over every ball of a multi ball simulator at each step, ending with
+   * where they came to rest.
+   */
+  @Test
+  public void liveStepsRecordEveryBall() throws IOException {
+    MultiBallPoolSimulator simulator = new MultiBallPoolSimulator(200, 100, "friction");
+    simulator.start(20, 50, 5, 30, 1, 0);
+    simulator.addBall(100, 50, 5);
+    FrameRing ring = new FrameRing(1024);
+    BallView.extractBallPositions(simulator, ring);
+    Path file = folder.newFile().toPath();
+    try (TrajectoryWriter writer = new TrajectoryWriter(file, 200, 100)) {
+      ring.drainTo(writer);
+    }
+    assertTrue(ring.isDrained());
+    try (TrajectoryReader frames = new TrajectoryReader(file)) {
+      long size = frames.size();
+      assertTrue(size > 2);
+      assertEquals(0, size % 2);
+      for (long i = 0; i < size; i++) {
+        assertEquals(i % 2, frames.getBall(i));
+        assertEquals(i / 2, frames.getTime(i), 0);
+      }
+      assertEquals(simulator.getBallPositionX(0), frames.getX(size - 2), 0);
+      assertEquals(simulator.getBallPositionX(1), frames.getX(size - 1), 0);
+    }
+  }
+
+  /**
+   * Repainting only the area moveTo reports gives the image a full paint of the step would, going
+   * forward a step at a time and then back.
+   */
+  @Test
+  public void dirtyAreasMatchFullPaint() throws IOException {
+    try (TrajectoryReader frames = record()) {
+      assertTrue(frames.size() > 8);
+      BallView.TablePanel panel = panel(frames);
+      BufferedImage image = new BufferedImage(panel.getWidth(), panel.getHeight(),
+          BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = image.createGraphics();
+      panel.paintComponent(g);
+      long last = frames.size() - 1;
+      for (long i = 2; i <= last; i++) {
+        Rectangle dirty = panel.moveTo(i);
+        assertNotNull(dirty);
+        Graphics2D clipped = (Graphics2D) g.create();
+        clipped.clip(dirty);
+        panel.paintComponent(clipped);
+        clipped.dispose();
+      }
+      assertArrayEquals(paintAt(frames, last), pixels(image));
+
+      Rectangle dirty = panel.moveTo(3);
+      assertTrue(dirty.contains(0, 0, panel.getWidth(), panel.getHeight()));
+      g.setClip(dirty);
+      panel.paintComponent(g);
+      g.dispose();
+      assertArrayEquals(paintAt(frames, 3), pixels(image));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * The BounceSpliteratorTest class contains JUnit test cases for the event stream of a simulator.
+ */
+public class BounceSpliteratorTest {
+
+  /**
+   * The event stream yields the same states as advancing by hand, and ends at rest.
+   */
+  @Test
+  public void eventsMatchAdvance() {
+    ShotFixture.forEachType(type -> {
+      SimplePoolSimulator manual = new SimplePoolSimulator(400, 200, type);
+      manual.start(100, 100, 10, 90, 1, 0.3);
+      SimplePoolSimulator streamed = new SimplePoolSimulator(400, 200, type);
+      streamed.start(100, 100, 10, 90, 1, 0.3);
+
+      List<BounceEvent> events = streamed.events().collect(Collectors.toList());
+      for (BounceEvent event : events) {
+        manual.advance();
+        assertEquals(manual.getBallPositionX(), event.getX(), 0);
+        assertEquals(manual.getBallPositionY(), event.getY(), 0);
+        assertEquals(manual.getElapsedTime(), event.getTime(), 0);
+        assertEquals(manual.getStatusCode(), event.getStatus());
+      }
+      assertEquals(Status.STATIONARY, manual.getStatusCode());
+      assertEquals(Status.STATIONARY, events.get(events.size() - 1).getStatus());
+    });
+  }
+
+  /**
+   * The event stream only simulates the events it is asked for.
+   */
+  @Test
+  public void eventsAreLazy() {
+    SimplePoolSimulator obj = new SimplePoolSimulator(400, 200, "simple");
+    obj.start(100, 100, 10, 90, 1, 0.3);
+    Edge edge = obj.events().map(BounceEvent::getEdge).findFirst().get();
+    assertEquals(Edge.RIGHT, edge);
+    assertEquals(1, obj.getBounceCount());
+  }
+}
@@ -0,0 +1,100 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The CompactShotEvaluatorTest class checks the CompactShotEvaluator against the double-precision
+ * SimplePoolSimulator.
+ */
+public class CompactShotEvaluatorTest {
+
+  private static void checkAgainstDouble(String type, boolean compactColumns) {
+    ShotBatch random = ShotFixture.randomShots(20000, 17, 1000, 500, 300);
+    ShotBatch shots = compactColumns ? ShotBatch.compact(16) : new ShotBatch(16);
+    for (int i = 0; i < random.size(); i++) {
+      shots.add(random.getX(i), random.getY(i), random.getRadius(i), random.getSpeed(i),
+          random.getDx(i), random.getDy(i));
+    }
+    //rejected, without a direction and as wide as the table
+    shots.add(-5, 100, 5, 10, 1, 0);
+    shots.add(100, 100, 5, 10, 0, 0);
+    shots.add(500, 250, 250, 10, 1, 1);
+    CompactShotEvaluator compact = new CompactShotEvaluator(1000, 500, type);
+    ShotResults results =
+        compactColumns ? ShotResults.compact(shots.size()) : new ShotResults(shots.size());
+    compact.evaluate(shots, results);
+
+    SimplePoolSimulator simulator = new SimplePoolSimulator(1000, 500, type);
+    int differentBounces = 0;
+    for (int i = 0; i < shots.size(); i++) {
+      try {
+        shots.startShot(i, simulator);
+        simulator.runToRest();
+      } catch (IllegalArgumentException e) {
+        assertEquals(ShotResults.INVALID, results.getLastEdge(i));
+        continue;
+      }
+      int bounces = simulator.getBounceCount();
+      double error = Math.hypot(simulator.getBallPositionX() - results.getFinalX(i),
+          simulator.getBallPositionY() - results.getFinalY(i));
+      assertTrue(type + " shot " + i, !(error > compact.positionError(bounces)));
+      double time = simulator.getElapsedTime();
+      assertEquals(time, results.getTimeToRest(i),
+          time * compact.timeError(bounces));
+      if (bounces != results.getBounces(i)) {
+        differentBounces++;
+      }
+    }
+    assertTrue(differentBounces <= shots.size() / 1000);
+  }
+
+  /**
+   * Every outcome of every model is within the documented bound.
+   */
+  @Test
+  public void testWithinBound() {
+    ShotFixture.forEachType(type -> checkAgainstDouble(type, false));
+  }
+
+  /**
+   * A compact batch and compact results, which hold the sweep in floats, stay within the bound
+   * of the shots they hold.
+   */
+  @Test
+  public void testCompactColumnsWithinBound() {
+    ShotFixture.forEachType(type -> checkAgainstDouble(type, true));
+  }
+
+  /**
+   * A short leg next to the far edge of a long table keeps its precision, found by the
+   * DifferentialFuzzer.
+   */
+  @Test
+  public void testShortLegOnLongTable() {
+    ShotBatch shots = new ShotBatch(1);
+    shots.add(17600, 1, 0, 16, 0.0807, -0.9867);
+    ShotResults results = new CompactShotEvaluator(17601, 4, "simple").evaluate(shots);
+    SimplePoolSimulator simulator = new SimplePoolSimulator(17601, 4, "simple");
+    shots.startShot(0, simulator);
+    simulator.runToRest();
+    double time = simulator.getElapsedTime();
+    assertEquals(time, results.getTimeToRest(0), time * 0x1p-16 * (simulator.getBounceCount() + 1));
+  }
+
+  /**
+   * A shot still moving after MAX_STEPS passes is marked capped where it was cut off.
+   */
+  @Test
+  public void testCappedShot() {
+    ShotBatch shots = new ShotBatch(2);
+    shots.add(500, 10, 10, 3000, 1, 1);
+    shots.add(500, 10, 10, 30, 1, 0);
+    ShotResults results = new CompactShotEvaluator(1000, 21, "friction").evaluate(shots);
+    assertEquals(ShotResults.CAPPED, results.getLastEdge(0));
+    assertEquals(ShotBatchEvaluator.MAX_STEPS, results.getBounces(0));
+    assertTrue(results.getLastEdge(1) != ShotResults.CAPPED);
+  }
+}
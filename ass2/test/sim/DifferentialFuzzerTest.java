@@ -0,0 +1,182 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * The DifferentialFuzzerTest class checks that the DifferentialFuzzer passes engines that agree
+ * and catches and shrinks one that does not.
+ */
+public class DifferentialFuzzerTest {
+
+  /**
+   * Runs the shots on advance and moves every ball one unit to the right.
+   */
+  private static ShotResults shifted(int width, int height, String type, ShotBatch shots) {
+    ShotResults results = ShotEngine.engine("advance").run(width, height, type, shots);
+    for (int i = 0; i < results.size(); i++) {
+      results.set(i, results.getFinalX(i) + 1, results.getFinalY(i), results.getBounces(i),
+          results.getTimeToRest(i), results.getLastEdge(i));
+    }
+    return results;
+  }
+
+  /**
+   * Runs the shots on runToRest and marks every valid one cut off.
+   */
+  private static ShotResults capped(int width, int height, String type, ShotBatch shots) {
+    ShotResults results = ShotEngine.engine("runToRest").run(width, height, type, shots);
+    for (int i = 0; i < results.size(); i++) {
+      if (results.getLastEdge(i) == ShotResults.INVALID) {
+        continue;
+      }
+      results.set(i, results.getFinalX(i), results.getFinalY(i), results.getBounces(i),
+          results.getTimeToRest(i), ShotResults.CAPPED);
+    }
+    return results;
+  }
+
+  private static void checkAgrees(String engine, String type) {
+    DifferentialFuzzer fuzzer = new DifferentialFuzzer(ShotEngine.engine("advance"),
+        ShotEngine.engine(engine), type, 1e-4, false);
+    FuzzReport report = fuzzer.run(5, 200, 50);
+    assertEquals(10000, report.getShots());
+    assertEquals(engine + " " + type + "\n" + report, 0, report.getMismatches());
+    assertEquals(0, report.getCapped());
+    assertNull(report.getReproducer());
+    assertTrue(report.getWorstPosition() <= 1e-4);
+  }
+
+  /**
+   * The engines of the simulator agree with advance on both models.
+   */
+  @Test
+  public void testEnginesAgree() {
+    for (String engine : new String[] {"runToRest", "batch", "compact"}) {
+      checkAgrees(engine, "simple");
+      checkAgrees(engine, "friction");
+    }
+  }
+
+  /**
+   * An engine that misplaces every ball is caught and shrunk to a small table.
+   */
+  @Test
+  public void testShiftedEngineShrinks() {
+    DifferentialFuzzer fuzzer = new DifferentialFuzzer(ShotEngine.engine("advance"),
+        DifferentialFuzzerTest::shifted, "friction", 1e-4, false);
+    FuzzReport report = fuzzer.run(5, 50, 20);
+    //a unit is within the tolerance on large tables
+    assertTrue(report.getMismatches() > 0);
+    String reproducer = report.getReproducer();
+    assertNotNull(reproducer);
+    assertTrue(reproducer, reproducer.startsWith("new SimplePoolSimulator(1, 1, \"friction\")"));
+  }
+
+  /**
+   * A candidate cut off at MAX_STEPS diverges, and a reference cut off leaves the shot uncompared,
+   * both counted as capped.
+   */
+  @Test
+  public void testCappedShots() {
+    FuzzReport report = new DifferentialFuzzer(ShotEngine.engine("runToRest"),
+        DifferentialFuzzerTest::capped, "friction", 1e-4, false).run(5, 20, 10);
+    assertTrue(report.getInvalid() < 200);
+    assertEquals(200 - report.getInvalid(), report.getCapped());
+    assertEquals(report.getCapped(), report.getMismatches());
+    assertNotNull(report.getReproducer());
+    report = new DifferentialFuzzer(DifferentialFuzzerTest::capped,
+        ShotEngine.engine("runToRest"), "friction", 1e-4, false).run(5, 20, 10);
+    assertEquals(200 - report.getInvalid(), report.getCapped());
+    assertEquals(0, report.getMismatches());
+    assertNull(report.getReproducer());
+  }
+
+  /**
+   * The shot the fuzzer shrank to from seed 1 of runToRest against advance on "friction": a wide
+   * ball with 8 units to spare bounces 118035 times, so advance cuts it off while runToRest and
+   * batch run it to rest on the top edge.
+   */
+  @Test
+  public void testShrunkCappedShot() {
+    ShotBatch shots = new ShotBatch(1);
+    shots.add(13058, 9313, 9308, 1364, -0.0908500675325532, 0.8829513014766674);
+    ShotResults cut = ShotEngine.engine("advance").run(47046, 18624, "friction", shots);
+    assertEquals(ShotResults.CAPPED, cut.getLastEdge(0));
+    assertEquals(ShotBatchEvaluator.MAX_STEPS, cut.getBounces(0));
+    ShotResults rest = ShotEngine.engine("runToRest").run(47046, 18624, "friction", shots);
+    assertEquals(ShotResults.TOP, rest.getLastEdge(0));
+    assertEquals(118035, rest.getBounces(0));
+    ShotResults batch = ShotEngine.engine("batch").run(47046, 18624, "friction", shots);
+    assertEquals(ShotResults.TOP, batch.getLastEdge(0));
+    assertEquals(118035, batch.getBounces(0));
+    assertEquals(rest.getFinalX(0), batch.getFinalX(0), 1e-6);
+    assertEquals(rest.getTimeToRest(0), batch.getTimeToRest(0), 1e-9);
+  }
+
+  /**
+   * The same seed gives the same report, whether the tables run on one thread or several.
+   */
+  @Test
+  public void testReproducible() {
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool several = new ForkJoinPool(4);
+    try {
+      FuzzReport first = new DifferentialFuzzer(ShotEngine.engine("advance"),
+          ShotEngine.engine("compact"), "simple", 1e-9, true, single).run(11, 100, 20);
+      FuzzReport second = new DifferentialFuzzer(ShotEngine.engine("advance"),
+          ShotEngine.engine("compact"), "simple", 1e-9, true, several).run(11, 100, 20);
+      assertTrue(first.getMismatches() > 0);
+      assertEquals(first.toString(), second.toString());
+    } finally {
+      single.shutdown();
+      several.shutdown();
+    }
+  }
+
+  /**
+   * An evaluator engine keeps one evaluator per thread while the table stays the same, and builds
+   * it on the pool of the calling thread, so a fuzzer worker does not run it on the common pool.
+   */
+  @Test
+  public void testEvaluatorReused() throws Exception {
+    EvaluatorEngine<ShotBatchEvaluator> engine =
+        new EvaluatorEngine<>(ShotBatchEvaluator::new, ShotBatchEvaluator::evaluate);
+    ShotBatchEvaluator outside = engine.evaluator(400, 200, "friction");
+    assertSame(outside, engine.evaluator(400, 200, "friction"));
+    assertNotSame(outside, engine.evaluator(400, 201, "friction"));
+    assertNotSame(engine.evaluator(400, 200, "friction"), engine.evaluator(400, 200, "simple"));
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      ShotBatch shots = ShotFixture.randomShots(100, 3, 400, 200, 200);
+      ShotResults expected = engine.run(400, 200, "friction", shots);
+      ShotResults inside = pool.submit(() -> {
+        ShotBatchEvaluator first = engine.evaluator(400, 200, "friction");
+        assertSame(first, engine.evaluator(400, 200, "friction"));
+        assertNotSame(outside, first);
+        return engine.run(400, 200, "friction", shots);
+      }).get();
+      for (int i = 0; i < shots.size(); i++) {
+        assertEquals(expected.getFinalX(i), inside.getFinalX(i), 0);
+        assertEquals(expected.getBounces(i), inside.getBounces(i));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Unknown engines are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownEngine() {
+    ShotEngine.engine("teleport");
+  }
+}
@@ -0,0 +1,84 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The FrameRingTest class contains JUnit test cases for the FrameRing class.
+ */
+public class FrameRingTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * A full ring refuses frames until the consumer takes some, and keeps their order across the
+   * wrap.
+   */
+  @Test
+  public void fullRingWrapsInOrder() throws IOException {
+    Path file = folder.newFile("ring.bin").toPath();
+    FrameRing ring = new FrameRing(4);
+    TrajectoryWriter writer = new TrajectoryWriter(file, 10, 10);
+    for (int i = 0; i < 4; i++) {
+      assertTrue(ring.offer(i, i % 2, i, -i, 1));
+    }
+    assertFalse(ring.offer(4, 0, 4, -4, 1));
+    assertEquals(4, ring.drainTo(writer));
+    assertTrue(ring.offer(4, 0, 4, -4, 1));
+    assertTrue(ring.offer(5, 1, 5, -5, 1));
+    ring.close();
+    assertFalse(ring.isDrained());
+    assertEquals(2, ring.drainTo(writer));
+    assertTrue(ring.isDrained());
+    writer.close();
+    try (TrajectoryReader frames = new TrajectoryReader(file)) {
+      assertEquals(6, frames.size());
+      for (int i = 0; i < 6; i++) {
+        assertEquals(i, frames.getTime(i), 0);
+        assertEquals(i % 2, frames.getBall(i));
+        assertEquals(i, frames.getX(i), 0);
+        assertEquals(-i, frames.getY(i), 0);
+      }
+    }
+  }
+
+  /**
+   * Every frame a producer thread offers reaches the consumer once and in order.
+   */
+  @Test
+  public void framesCrossThreadsInOrder() throws InterruptedException, IOException {
+    int count = 200000;
+    Path file = folder.newFile("ring.bin").toPath();
+    FrameRing ring = new FrameRing(64);
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        while (!ring.offer(i, 0, i, 2 * i, 1)) {
+          Thread.yield();
+        }
+      }
+      ring.close();
+    });
+    producer.start();
+    TrajectoryWriter writer = new TrajectoryWriter(file, 10, 10);
+    while (!ring.isDrained()) {
+      ring.drainTo(writer);
+    }
+    producer.join();
+    writer.close();
+    try (TrajectoryReader frames = new TrajectoryReader(file)) {
+      assertEquals(count, frames.size());
+      for (int i = 0; i < count; i++) {
+        assertEquals(i, frames.getX(i), 0);
+        assertEquals(2 * i, frames.getY(i), 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * The KinematicsTest class contains JUnit test cases for the Kinematics class.
+ */
+public class KinematicsTest {
+
+  /**
+   * An edge behind the ball, or one it stops short of, is never reached.
+   */
+  @Test
+  public void testUnreachable() {
+    assertEquals(Double.POSITIVE_INFINITY, Kinematics.travel(10, -1, 0), 0);
+    //10^2 / (2 * 0.98) is about 51
+    assertEquals(Double.POSITIVE_INFINITY, Kinematics.travel(10, 52, 0.98), 0);
+    assertEquals(Double.POSITIVE_INFINITY, Kinematics.timeToEdge(50, 0, 100, 5, 10, 0), 0);
+    assertNull(Kinematics.nearest(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 1, 1));
+  }
+
+  /**
+   * Reachable edges come out as the smaller root of the motion, and the x axis wins a tie.
+   */
+  @Test
+  public void testReachable() {
+    double t = Kinematics.travel(10, 50, 0.98);
+    assertEquals(50, 10 * t - 0.49 * t * t, 1e-9);
+    assertEquals(5, Kinematics.travel(10, 50, 0), 0);
+    assertEquals(Float.POSITIVE_INFINITY, Kinematics.travel(10f, 52f, 0.98f), 0);
+    assertEquals(Edge.RIGHT, Kinematics.nearest(2, 2, 1, 1));
+    assertEquals(Edge.BOTTOM, Kinematics.nearest(3, 2, -1, -1));
+    //a ball at the edge behind it is heading away from it
+    assertEquals(0.9, Kinematics.timeToEdge(5, 1, 100, 5, 100, 0), 1e-12);
+  }
+}
@@ -0,0 +1,79 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+/**
+ * The LiveStateTest class contains JUnit test cases for the LiveState class.
+ */
+public class LiveStateTest {
+
+  /**
+   * The live state follows the getters of the simulator step by step.
+   */
+  @Test
+  public void testFollowsSimulator() {
+    SimplePoolSimulator obj = new SimplePoolSimulator(400, 200, "friction");
+    LiveState live = obj.live();
+    double[] state = new double[LiveState.SIZE];
+    assertEquals(Status.NOT_SET_UP, live.read(state));
+
+    obj.start(100, 100, 10, 90, 1, 0.3);
+    long version = live.getVersion();
+    while (obj.getStatusCode() != Status.STATIONARY) {
+      obj.advance();
+      assertEquals(++version, live.getVersion());
+      assertEquals(obj.getStatusCode(), live.read(state));
+      assertEquals(obj.getBallPositionX(), state[0], 0);
+      assertEquals(obj.getBallPositionY(), state[1], 0);
+      assertEquals(obj.getBallVelocityX(), state[2], 0);
+      assertEquals(obj.getBallVelocityY(), state[3], 0);
+      assertEquals(obj.getElapsedTime(), state[4], 0);
+    }
+  }
+
+  /**
+   * Readers racing a writer only ever see the values of a single step.
+   */
+  @Test
+  public void testNoTornReads() throws InterruptedException {
+    LiveState live = new LiveState();
+    AtomicBoolean done = new AtomicBoolean();
+    Thread[] readers = new Thread[3];
+    boolean[] torn = new boolean[readers.length];
+    for (int r = 0; r < readers.length; r++) {
+      int id = r;
+      readers[r] = new Thread(() -> {
+        double[] state = new double[LiveState.SIZE];
+        while (!done.get()) {
+          Status status = live.read(state);
+          double step = state[0];
+          if (status == Status.NOT_SET_UP) {
+            continue;
+          }
+          if (state[1] != 2 * step || state[2] != -step || state[3] != step + 1
+              || state[4] != step / 2
+              || status != (step % 2 == 0 ? Status.HIT_LEFT : Status.HIT_RIGHT)) {
+            torn[id] = true;
+          }
+        }
+      });
+      readers[r].start();
+    }
+    for (int i = 0; i < 2000000; i++) {
+      live.publish(i, 2.0 * i, -i, i + 1.0, i / 2.0,
+          i % 2 == 0 ? Status.HIT_LEFT : Status.HIT_RIGHT);
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertEquals(2000000, live.getVersion());
+    for (boolean t : torn) {
+      assertFalse(t);
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * The MultiBallPoolSimulatorTest class contains JUnit test cases for the MultiBallPoolSimulator
+ * class and its broad phase grid.
+ */
+public class MultiBallPoolSimulatorTest {
+
+  /**
+   * A lone cue ball should follow the same bounces as the single ball simulator.
+   */
+  @Test
+  public void singleBallMatchesSimpleSimulator() {
+    SimplePoolSimulator single = new SimplePoolSimulator(400, 400, "simple");
+    MultiBallPoolSimulator multi = new MultiBallPoolSimulator(400, 400, "simple");
+    single.start(100, 100, 20, 60, 1.1, -2);
+    multi.start(100, 100, 20, 60, 1.1, -2);
+
+    while (single.getStatusCode() != Status.STATIONARY) {
+      single.advance();
+      multi.advance();
+      assertEquals(single.getBallPositionX(), multi.getBallPositionX(), 1e-9);
+      assertEquals(single.getBallPositionY(), multi.getBallPositionY(), 1e-9);
+      assertEquals(single.getBallVelocityX(), multi.getBallVelocityX(), 1e-9);
+      assertEquals(single.getBallVelocityY(), multi.getBallVelocityY(), 1e-9);
+    }
+    assertEquals("Status: Ball is stationary", multi.getStatus());
+  }
+
+  /**
+   * A head-on hit passes the speed of the cue ball on to the ball at rest.
+   */
+  @Test
+  public void headOnCollisionSwapsVelocity() {
+    MultiBallPoolSimulator obj = new MultiBallPoolSimulator(200, 100, "simple");
+    obj.start(20, 50, 5, 30, 1, 0);
+    assertEquals(1, obj.addBall(100, 50, 5));
+
+    obj.advance();
+    assertEquals(Status.HIT_BALL, obj.getStatusCode());
+    assertEquals("Status: Ball 0 hit ball 1", obj.getStatus());
+    assertSame(obj.getStatus(), obj.getStatus());
+    assertEquals(90, obj.getBallPositionX(0), 1e-9);
+    assertEquals(0, obj.getBallVelocityX(0), 1e-9);
+    assertEquals(25, obj.getBallVelocityX(1), 1e-9);
+    assertEquals(0, obj.getBallVelocityY(1), 1e-9);
+  }
+
+  /**
+   * Friction brings the ball hit by the cue ball to rest at a known distance.
+   */
+  @Test
+  public void frictionCollisionAndRest() {
+    MultiBallPoolSimulator obj = new MultiBallPoolSimulator(400, 100, "friction");
+    obj.start(20, 50, 5, 20, 1, 0);
+    obj.addBall(60, 50, 5);
+
+    obj.advance();
+    assertEquals("Status: Ball 0 hit ball 1", obj.getStatus());
+    double contactSpeed = Math.sqrt(400 - 2 * 0.98 * 30);
+    assertEquals(contactSpeed, obj.getBallVelocityX(1), 1e-6);
+
+    obj.advance();
+    assertEquals("Status: Ball is stationary", obj.getStatus());
+    double rest = 60 + contactSpeed * contactSpeed / (2 * 0.98);
+    assertEquals(rest, obj.getBallPositionX(1), 1e-6);
+  }
+
+  /**
+   * Racking a ball on top of another one is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOverlappingBall() {
+    MultiBallPoolSimulator obj = new MultiBallPoolSimulator(200, 100, "simple");
+    obj.addBall(50, 50, 5);
+    obj.addBall(55, 50, 5);
+  }
+
+  /**
+   * A full rack broken in friction mode settles without any balls overlapping or leaving the
+   * table.
+   */
+  @Test
+  public void breakShotKeepsBallsApart() {
+    MultiBallPoolSimulator obj = new MultiBallPoolSimulator(800, 400, "friction");
+    obj.start(150, 200, 10, 120, 1, 0.01);
+    for (int row = 0; row < 5; row++) {
+      for (int k = 0; k <= row; k++) {
+        obj.addBall(550 + 18 * row, 200 - 11 * row + 22 * k, 10);
+      }
+    }
+    int steps = 0;
+    while (obj.getStatusCode() != Status.STATIONARY && steps < 100000) {
+      obj.advance();
+      steps++;
+    }
+    assertEquals("Status: Ball is stationary", obj.getStatus());
+    for (int i = 0; i < obj.getBallCount(); i++) {
+      double x = obj.getBallPositionX(i);
+      double y = obj.getBallPositionY(i);
+      assertTrue(x >= 10 - 1e-6 && x <= 790 + 1e-6 && y >= 10 - 1e-6 && y <= 390 + 1e-6);
+      for (int j = i + 1; j < obj.getBallCount(); j++) {
+        double sx = obj.getBallPositionX(j) - x;
+        double sy = obj.getBallPositionY(j) - y;
+        assertTrue(Math.sqrt(sx * sx + sy * sy) >= 20 - 1e-6);
+      }
+    }
+  }
+
+  /**
+   * Hundreds of balls shot in random directions settle without overlapping.
+   */
+  @Test
+  public void largeTableSettles() {
+    Random random = new Random(11);
+    MultiBallPoolSimulator obj = new MultiBallPoolSimulator(2000, 1000, "friction");
+    obj.start(1000, 500, 6, 80, 1, 0.3);
+    for (int row = 0; row < 20; row++) {
+      for (int col = 0; col < 20; col++) {
+        obj.addBall(60 + 95 * col, 60 + 47 * row, 6, random.nextInt(60),
+            random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+      }
+    }
+    int steps = 0;
+    while (obj.getStatusCode() != Status.STATIONARY) {
+      obj.advance();
+      steps++;
+    }
+    assertTrue(steps > obj.getBallCount());
+    for (int i = 0; i < obj.getBallCount(); i++) {
+      assertEquals(0, obj.getBallVelocityX(i), 0);
+      for (int j = i + 1; j < obj.getBallCount(); j++) {
+        double sx = obj.getBallPositionX(j) - obj.getBallPositionX(i);
+        double sy = obj.getBallPositionY(j) - obj.getBallPositionY(i);
+        assertTrue(Math.sqrt(sx * sx + sy * sy) >= 12 - 1e-6);
+      }
+    }
+  }
+
+  /**
+   * The grid reports every ball whose path comes within reach of the path of a given ball, and
+   * forgets a path once it is replaced.
+   */
+  @Test
+  public void gridFindsCrossingPaths() {
+    Random random = new Random(7);
+    int n = 300;
+    double[][] paths = new double[n][];
+    BroadPhaseGrid grid = new BroadPhaseGrid();
+    grid.reset(1000, 600, 30, n);
+    for (int i = 0; i < n; i++) {
+      double x = random.nextDouble() * 1000;
+      double y = random.nextDouble() * 600;
+      double length = random.nextDouble() * (i % 10 == 0 ? 400 : 40);
+      double angle = random.nextDouble() * 2 * Math.PI;
+      paths[i] = new double[]{x, y, x + length * Math.cos(angle), y + length * Math.sin(angle),
+          1 + random.nextDouble() * 5};
+      grid.insertPath(i, paths[i][0], paths[i][1], paths[i][2], paths[i][3], paths[i][4]);
+    }
+    grid.insertPath(0, 0, 0, 0, 0, 1);
+    paths[0] = new double[]{0, 0, 0, 0, 1};
+
+    for (int a = 0; a < n; a++) {
+      Set<Integer> found = new HashSet<>();
+      grid.forEachNeighbour(a, other -> assertTrue(found.add(other)));
+      for (int b = 0; b < n; b++) {
+        if (b != a && segmentDistance(paths[a], paths[b]) <= paths[a][4] + paths[b][4]) {
+          assertTrue(a + " misses " + b, found.contains(b));
+        }
+      }
+    }
+  }
+
+  private static double segmentDistance(double[] p, double[] q) {
+    double best = Double.POSITIVE_INFINITY;
+    for (int k = 0; k <= 1000; k++) {
+      double t = k / 1000.0;
+      double x = p[0] + (p[2] - p[0]) * t;
+      double y = p[1] + (p[3] - p[1]) * t;
+      best = Math.min(best, pointDistance(x, y, q));
+    }
+    return best;
+  }
+
+  private static double pointDistance(double x, double y, double[] q) {
+    double sx = q[2] - q[0];
+    double sy = q[3] - q[1];
+    double len = sx * sx + sy * sy;
+    double t = len == 0 ? 0 : Math.max(0, Math.min(1, ((x - q[0]) * sx + (y - q[1]) * sy) / len));
+    double px = q[0] + sx * t - x;
+    double py = q[1] + sy * t - y;
+    return Math.sqrt(px * px + py * py);
+  }
+
+  /**
+   * Events come out of the queue in time order, including after stale ones are compacted away.
+   */
+  @Test
+  public void eventQueueOrdersByTime() {
+    Random random = new Random(3);
+    EventQueue queue = new EventQueue();
+    for (int i = 0; i < 1000; i++) {
+      queue.push(random.nextDouble(), i, -1, i % 2, 0, 0);
+    }
+    queue.compact((ball, other, ballCount, otherCount) -> ballCount == 0);
+    assertEquals(500, queue.size());
+    double last = Double.NEGATIVE_INFINITY;
+    while (queue.poll()) {
+      assertTrue(queue.time() >= last);
+      assertEquals(0, queue.ball() % 2);
+      last = queue.time();
+    }
+  }
+
+  /**
+   * A rack restored from a snapshot goes through the same events as the run it was taken from.
+   */
+  @Test
+  public void restoredRackMatches() {
+    MultiBallPoolSimulator obj = new MultiBallPoolSimulator(800, 400, "friction");
+    obj.start(150, 200, 10, 120, 1, 0.01);
+    for (int row = 0; row < 5; row++) {
+      for (int k = 0; k <= row; k++) {
+        obj.addBall(550 + 18 * row, 200 - 11 * row + 22 * k, 10);
+      }
+    }
+    for (int i = 0; i < 5; i++) {
+      obj.advance();
+    }
+    Snapshot snapshot = obj.snapshot();
+    double[][] expected = new double[20][];
+    for (int step = 0; step < expected.length; step++) {
+      obj.advance();
+      expected[step] = new double[]{obj.getTime(), obj.getEventBall(), obj.getBallPositionX(3)};
+    }
+
+    MultiBallPoolSimulator copy = new MultiBallPoolSimulator(800, 400, "friction");
+    copy.restore(snapshot);
+    assertEquals(obj.getBallCount(), copy.getBallCount());
+    for (double[] event : expected) {
+      copy.advance();
+      assertEquals(event[0], copy.getTime(), 1e-9);
+      assertEquals((int) event[1], copy.getEventBall());
+      assertEquals(event[2], copy.getBallPositionX(3), 1e-9);
+    }
+  }
+}
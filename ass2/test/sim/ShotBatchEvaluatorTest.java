@@ -0,0 +1,82 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * The ShotBatchEvaluatorTest class contains JUnit test cases for the ShotBatchEvaluator class.
+ */
+public class ShotBatchEvaluatorTest {
+
+  private static void checkAgainstSingleSimulator(String type) {
+    ShotBatch shots = ShotFixture.randomShots(5000, 42, 400, 200, 80);
+    ShotResults results = new ShotBatchEvaluator(400, 200, type, new ForkJoinPool(4))
+        .evaluate(shots);
+
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, type);
+    for (int i = 0; i < shots.size(); i++) {
+      shots.startShot(i, simulator);
+      while (simulator.getStatusCode() != Status.STATIONARY) {
+        simulator.advance();
+      }
+      assertEquals(simulator.getBallPositionX(), results.getFinalX(i), 0);
+      assertEquals(simulator.getBallPositionY(), results.getFinalY(i), 0);
+      assertEquals(simulator.getBounceCount(), results.getBounces(i));
+      assertEquals(simulator.getElapsedTime(), results.getTimeToRest(i), 0);
+      assertEquals(ShotResults.edgeCode(simulator.getLastEdge()), results.getLastEdge(i));
+    }
+  }
+
+  /**
+   * The parallel batch gives exactly the results of running each shot on its own.
+   */
+  @Test
+  public void batchMatchesSingleSimulator() {
+    ShotFixture.forEachType(ShotBatchEvaluatorTest::checkAgainstSingleSimulator);
+  }
+
+  /**
+   * A shot with millions of bounces is run to rest, not cut off after MAX_STEPS events.
+   */
+  @Test
+  public void longShotRunsToRest() {
+    ShotBatch shots = new ShotBatch(1);
+    shots.add(500, 10, 10, 3000, 1, 1);
+    ShotResults results = new ShotBatchEvaluator(1000, 21, "friction").evaluate(shots);
+
+    SimplePoolSimulator simulator = new SimplePoolSimulator(1000, 21, "friction");
+    shots.startShot(0, simulator);
+    simulator.runToRest();
+    assertTrue(results.getBounces(0) > ShotBatchEvaluator.MAX_STEPS);
+    assertEquals(simulator.getBounceCount(), results.getBounces(0));
+    assertEquals(simulator.getElapsedTime(), results.getTimeToRest(0), 1e-9);
+    assertEquals(ShotResults.edgeCode(simulator.getLastEdge()), results.getLastEdge(0));
+  }
+
+  /**
+   * A shot the simulator rejects is marked invalid without stopping the rest of the batch.
+   */
+  @Test
+  public void invalidShotIsMarked() {
+    ShotBatch shots = new ShotBatch(2);
+    shots.add(2, 2, 1, 10, 1, 1);
+    shots.add(2, 3, 74, 5, 0, 2);
+    ShotResults results = new ShotBatchEvaluator(10, 10, "simple").evaluate(shots);
+
+    assertEquals(2, results.getBounces(0));
+    assertEquals(ShotResults.INVALID, results.getLastEdge(1));
+    assertEquals(-1, results.getBounces(1));
+    assertEquals(Double.NaN, results.getFinalX(1), 0);
+  }
+
+  /**
+   * A table the simulator rejects is rejected when the evaluator is built.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalType() {
+    new ShotBatchEvaluator(10, 10, "xyz");
+  }
+}
@@ -0,0 +1,33 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * The ShotBatchSpliteratorTest class contains JUnit test cases for the event stream of a
+ * ShotBatch.
+ */
+public class ShotBatchSpliteratorTest {
+
+  /**
+   * The last event of every shot in a parallel event stream is the outcome of the shot.
+   */
+  @Test
+  public void testParallelEvents() {
+    ShotBatch shots = ShotFixture.randomShots(2000, 11, 400, 200, 80);
+    ShotResults results = new ShotBatchEvaluator(400, 200, "friction").evaluate(shots);
+    Map<Integer, BounceEvent> last = shots.events(400, 200, "friction").parallel()
+        .collect(Collectors.toMap(BounceEvent::getShot, e -> e, (a, b) -> b));
+    assertEquals(shots.size(), last.size());
+    for (int i = 0; i < shots.size(); i++) {
+      BounceEvent event = last.get(i);
+      assertEquals(Status.STATIONARY, event.getStatus());
+      assertEquals(results.getFinalX(i), event.getX(), 0);
+      assertEquals(results.getFinalY(i), event.getY(), 0);
+      assertEquals(results.getTimeToRest(i), event.getTime(), 0);
+    }
+  }
+}
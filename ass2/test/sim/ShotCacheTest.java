@@ -0,0 +1,106 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * The ShotCacheTest class contains JUnit test cases for the ShotCache class.
+ */
+public class ShotCacheTest {
+
+  /**
+   * A cached batch gives the outcomes of its shots with rounded directions, and runs each distinct
+   * shot once.
+   */
+  @Test
+  public void cachedBatchMatchesRoundedShots() {
+    ShotBatch distinct = ShotFixture.randomShots(200, 9, 400, 200, 80);
+    ShotBatch shots = new ShotBatch(16);
+    for (int i = 0; i < 1000; i++) {
+      int s = i % distinct.size();
+      //a nudge far below the resolution gives the same entry
+      shots.add(distinct.getX(s), distinct.getY(s), distinct.getRadius(s), distinct.getSpeed(s),
+          distinct.getDx(s) * (1 + 1e-9 * i), distinct.getDy(s) * (1 + 1e-9 * i));
+    }
+    ShotCache cache = new ShotCache(400, 200, "friction", 1000, 1e-4);
+    ShotBatchEvaluator evaluator = new ShotBatchEvaluator(cache, new ForkJoinPool(4));
+    evaluator.evaluate(shots);
+    long misses = cache.getMisses();
+    assertEquals(1000, cache.getHits() + misses);
+    //workers may run the same shot at once before either has stored it
+    assertEquals(true, misses >= 200 && misses <= 800);
+    assertEquals(200, cache.size());
+    ShotResults results = evaluator.evaluate(shots);
+    assertEquals(misses, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+
+    ShotBatch rounded = new ShotBatch(16);
+    for (int i = 0; i < shots.size(); i++) {
+      double mag = Math.hypot(shots.getDx(i), shots.getDy(i));
+      rounded.add(shots.getX(i), shots.getY(i), shots.getRadius(i), shots.getSpeed(i),
+          cache.direction(cache.quantize(shots.getDx(i) / mag)),
+          cache.direction(cache.quantize(shots.getDy(i) / mag)));
+    }
+    ShotResults expected = new ShotBatchEvaluator(400, 200, "friction").evaluate(rounded);
+    for (int i = 0; i < shots.size(); i++) {
+      assertEquals(expected.getFinalX(i), results.getFinalX(i), 0);
+      assertEquals(expected.getFinalY(i), results.getFinalY(i), 0);
+      assertEquals(expected.getBounces(i), results.getBounces(i));
+      assertEquals(expected.getLastEdge(i), results.getLastEdge(i));
+    }
+  }
+
+  /**
+   * A full cache drops the outcome used least recently.
+   */
+  @Test
+  public void cacheEvictsLeastRecentlyUsed() {
+    ShotCache cache = new ShotCache(10, 10, "simple", 2, 0.5);
+    ShotResults results = new ShotResults(1);
+    results.set(0, 1, 2, 3, 4, ShotResults.TOP);
+    cache.put(1, 1, 1, 1, 0, 1, results, 0);
+    cache.put(2, 2, 1, 1, 0, 1, results, 0);
+    assertEquals(true, cache.get(1, 1, 1, 1, 0, 1, results, 0));
+    cache.put(3, 3, 1, 1, 0, 1, results, 0);
+    assertEquals(false, cache.get(2, 2, 1, 1, 0, 1, results, 0));
+    assertEquals(true, cache.get(1, 1, 1, 1, 0, 1, results, 0));
+    assertEquals(true, cache.get(3, 3, 1, 1, 0, 1, results, 0));
+    assertEquals(1, cache.getEvictions());
+    assertEquals(2, cache.size());
+    assertEquals(3, results.getBounces(0));
+  }
+
+  /**
+   * Recent outcomes stay findable however many others were evicted before them.
+   */
+  @Test
+  public void cacheKeepsRecentOutcomes() {
+    Random random = new Random(4);
+    ShotCache cache = new ShotCache(10, 10, "simple", 64, 1e-3);
+    ShotResults results = new ShotResults(1);
+    int[] recent = new int[8];
+    for (int n = 0; n < 20000; n++) {
+      int key = random.nextInt(5000);
+      results.set(0, key, 0, key, 0, ShotResults.NO_EDGE);
+      cache.put(key, 0, 1, 1, key % 7, 1, results, 0);
+      recent[n % recent.length] = key;
+    }
+    assertEquals(64, cache.size());
+    for (int key : recent) {
+      results.set(0, -1, 0, -1, 0, ShotResults.NO_EDGE);
+      assertEquals(true, cache.get(key, 0, 1, 1, key % 7, 1, results, 0));
+      assertEquals(key, results.getBounces(0));
+    }
+  }
+
+  /**
+   * A resolution that would round every direction away is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalResolution() {
+    new ShotCache(10, 10, "simple", 8, 1);
+  }
+}
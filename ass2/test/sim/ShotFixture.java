@@ -0,0 +1,55 @@
+package sim;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * The ShotFixture class holds the random shots and the runs over every model that the tests of
+ * the simulator and the batch engines share.
+ */
+final class ShotFixture {
+
+  /**
+   * The models every engine runs.
+   */
+  static final String[] TYPES = {"simple", "friction"};
+
+  private ShotFixture() {
+  }
+
+  /**
+   * Makes random shots that start inside a table, at least 20 from its edges, in any direction.
+   *
+   * @param count    the number of shots.
+   * @param seed     the seed of the shots.
+   * @param width    the width of the table.
+   * @param height   the height of the table.
+   * @param maxSpeed the highest speed of a shot.
+   * @return the shots, in a batch that grew to hold them.
+   */
+  static ShotBatch randomShots(int count, long seed, int width, int height, int maxSpeed) {
+    Random random = new Random(seed);
+    ShotBatch shots = new ShotBatch(16);
+    for (int i = 0; i < count; i++) {
+      shots.add(20 + random.nextInt(width - 40), 20 + random.nextInt(height - 40),
+          1 + random.nextInt(15), 1 + random.nextInt(maxSpeed), random.nextDouble() - 0.5,
+          random.nextDouble() - 0.5);
+    }
+    return shots;
+  }
+
+  /**
+   * Runs a check once for every model, naming the model when it fails.
+   *
+   * @param check the check, given the type of the model.
+   */
+  static void forEachType(Consumer<String> check) {
+    for (String type : TYPES) {
+      try {
+        check.accept(type);
+      } catch (AssertionError e) {
+        throw new AssertionError(type + ": " + e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+/**
+ * The SimMetricsTest class contains JUnit test cases for SimMetrics and its latency histogram.
+ */
+public class SimMetricsTest {
+
+  /**
+   * Every duration falls in a bucket whose upper bound is at most 12.5% above it.
+   */
+  @Test
+  public void bucketsBoundTheirValues() {
+    for (long nanos = 0; nanos < 1_000_000_000_000L; nanos = nanos * 3 / 2 + 1) {
+      int bucket = LatencyHistogram.bucket(nanos);
+      long highest = LatencyHistogram.highest(bucket);
+      assertTrue(nanos + " in " + bucket, highest >= nanos && highest <= nanos + nanos / 8);
+      assertTrue(bucket == 0 || LatencyHistogram.highest(bucket - 1) < nanos);
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+  }
+
+  /**
+   * Percentiles of a snapshot come from the counts of the buckets.
+   */
+  @Test
+  public void snapshotPercentiles() {
+    long[] counts = new long[LatencyHistogram.BUCKETS];
+    for (long nanos = 1; nanos <= 100; nanos++) {
+      counts[LatencyHistogram.bucket(nanos * 1000)]++;
+    }
+    MetricsSnapshot snapshot = new MetricsSnapshot(100, 0, 0, counts);
+    assertEquals(LatencyHistogram.highest(LatencyHistogram.bucket(50_000)),
+        snapshot.getStepNanos(0.5));
+    assertEquals(LatencyHistogram.highest(LatencyHistogram.bucket(99_000)),
+        snapshot.getStepNanos(0.99));
+    assertEquals(LatencyHistogram.highest(LatencyHistogram.bucket(100_000)),
+        snapshot.getStepNanosMax());
+    assertEquals(0, new MetricsSnapshot(0, 0, 0, new long[3]).getStepNanos(0.5));
+  }
+
+  /**
+   * Durations recorded by many threads into their stripes all show up in the summed counts, and
+   * reset clears every stripe.
+   */
+  @Test
+  public void stripesAreSummed() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram(4);
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      long nanos = 1000L * (t + 1);
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 10000; i++) {
+          histogram.record(nanos);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long[] counts = histogram.counts();
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    assertEquals(80000, total);
+    for (int t = 0; t < threads.length; t++) {
+      assertTrue(counts[LatencyHistogram.bucket(1000L * (t + 1))] >= 10000);
+    }
+    histogram.reset();
+    assertEquals(0, LatencyHistogram.percentile(histogram.counts(), 1));
+  }
+
+  /**
+   * Steps and roots of a friction shot are counted and published over JMX.
+   */
+  @Test
+  public void frictionShotIsCounted() throws Exception {
+    MetricsSnapshot before = SimMetrics.snapshot();
+    SimplePoolSimulator obj = new SimplePoolSimulator(400, 200, "friction");
+    obj.start(100, 100, 10, 30, 1, 1);
+    int steps = 0;
+    while (obj.getStatusCode() != Status.STATIONARY) {
+      obj.advance();
+      steps++;
+    }
+    MetricsSnapshot after = SimMetrics.snapshot();
+    if (!SimMetrics.ENABLED) {
+      assertEquals(before.getSteps(), after.getSteps());
+      return;
+    }
+    assertTrue(after.getSteps() - before.getSteps() >= steps);
+    //the ball stops short of both edges it heads for
+    assertTrue(after.getComplexRoots() - before.getComplexRoots() >= 2);
+    assertTrue(after.getStepNanosMax() > 0);
+
+    Object jmxSteps = ManagementFactory.getPlatformMBeanServer()
+        .getAttribute(new ObjectName("sim:type=SimMetrics"), "Steps");
+    assertTrue((Long) jmxSteps >= after.getSteps());
+  }
+
+  /**
+   * Counts the tie-breaks of one step of a shot from the middle of a square table.
+   */
+  private static long tieBreaks(String type, double dx, double dy) {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 400, type);
+    simulator.start(200, 200, 10, 100, dx, dy);
+    long before = SimMetrics.snapshot().getTieBreaks();
+    simulator.advance();
+    return SimMetrics.snapshot().getTieBreaks() - before;
+  }
+
+  /**
+   * A step towards a corner counts one tie-break and a step towards an edge none, in every
+   * direction quadrant for every model. A step that misses the corner by a hair is no tie.
+   */
+  @Test
+  public void tieBreaksCountedOncePerStep() {
+    for (String type : new String[] {"simple", "friction", "spin"}) {
+      for (int sx = -1; sx <= 1; sx += 2) {
+        for (int sy = -1; sy <= 1; sy += 2) {
+          String shot = type + " " + sx + " " + sy;
+          assertEquals(shot, SimMetrics.ENABLED ? 1 : 0, tieBreaks(type, sx, sy));
+          assertEquals(shot, 0, tieBreaks(type, sx, 0.5 * sy));
+          assertEquals(shot, 0, tieBreaks(type, sx, (1 + 1e-9) * sy));
+        }
+      }
+    }
+  }
+}
@@ -275,18 +275,30 @@ public class SimplePoolSimulatorTest {
   }
 
   /**
-   * Tests starting the simulation with zero velocity in the Y-direction. Verifies that the
-   * simulation can start with zero velocity in the Y-direction and advances accordingly.
+   * Starts a friction shot at speed 10 near the bottom left corner of a small table. The ball
+   * still moves when it reaches the first edge, so it bounces there, and comes to rest later.
    */
-
-  @Test
-  public void checkzeroDyFr() {
+  private static void checkFrictionStops(double dx, double dy, Status first) {
     SimplePoolSimulator obj = new SimplePoolSimulator(10, 10, "friction");
 
-    obj.start(2, 2, 1, 10, 1, 0);
+    obj.start(2, 2, 1, 10, dx, dy);
 
     obj.advance();
+    assertEquals(first, obj.getStatusCode());
+    obj.runToRest();
+    assertEquals(Status.STATIONARY, obj.getStatusCode());
     assertEquals(0, obj.getBallVelocityX(), 0.001);
+    assertEquals(0, obj.getBallVelocityY(), 0.001);
+  }
+
+  /**
+   * Tests starting the simulation with zero velocity in the Y-direction. Verifies that the
+   * simulation can start with zero velocity in the Y-direction and advances accordingly.
+   */
+
+  @Test
+  public void checkzeroDyFr() {
+    checkFrictionStops(1, 0, Status.HIT_RIGHT);
   }
 
   /**
@@ -294,12 +306,7 @@ public class SimplePoolSimulatorTest {
    */
   @Test
   public void checkNegativeDxFr() {
-    SimplePoolSimulator obj = new SimplePoolSimulator(10, 10, "friction");
-
-    obj.start(2, 2, 1, 10, -2, 1);
-
-    obj.advance();
-    assertEquals(0, obj.getBallVelocityX(), 0.001);
+    checkFrictionStops(-2, 1, Status.HIT_LEFT);
   }
 
   /**
@@ -307,12 +314,7 @@ public class SimplePoolSimulatorTest {
    */
   @Test
   public void checkNegativeDyFr() {
-    SimplePoolSimulator obj = new SimplePoolSimulator(10, 10, "friction");
-
-    obj.start(2, 2, 1, 10, 2, -1);
-
-    obj.advance();
-    assertEquals(0, obj.getBallVelocityX(), 0.001);
+    checkFrictionStops(2, -1, Status.HIT_BOTTOM);
   }
 
   /**
@@ -320,12 +322,7 @@ public class SimplePoolSimulatorTest {
    */
   @Test
   public void checkNegativeXYfr() {
-    SimplePoolSimulator obj = new SimplePoolSimulator(10, 10, "friction");
-
-    obj.start(2, 2, 1, 10, -2, -1);
-
-    obj.advance();
-    assertEquals(0, obj.getBallVelocityX(), 0.001);
+    checkFrictionStops(-2, -1, Status.HIT_LEFT);
   }
 
   /**
@@ -333,24 +330,162 @@ public class SimplePoolSimulatorTest {
    */
   @Test
   public void checkPositiveXYfr() {
-    SimplePoolSimulator obj = new SimplePoolSimulator(10, 10, "friction");
+    checkFrictionStops(2, 1, Status.HIT_RIGHT);
+  }
 
-    obj.start(2, 2, 1, 10, 2, 1);
+  /**
+   * Test for complex root case: a slow ball stops short of the edge ahead, so the time to reach
+   * it has no real root and the first advance brings it to rest.
+   */
+  @Test
+  public void testComplexRootCase() {
+    SimplePoolSimulator obj = new SimplePoolSimulator(100, 10, "friction");
+
+    obj.start(5, 5, 2, 5, 10, 1);
 
     obj.advance();
+    assertEquals(Status.STATIONARY, obj.getStatusCode());
     assertEquals(0, obj.getBallVelocityX(), 0.001);
   }
 
+  private static void checkRunToRestMatchesAdvance(String type) {
+    SimplePoolSimulator stepped = new SimplePoolSimulator(400, 200, type);
+    SimplePoolSimulator unfolded = new SimplePoolSimulator(400, 200, type);
+    ShotBatch shots = ShotFixture.randomShots(1000, 7, 400, 200, 200);
+    for (int i = 0; i < shots.size(); i++) {
+      shots.startShot(i, stepped);
+      shots.startShot(i, unfolded);
+      while (stepped.getStatusCode() != Status.STATIONARY) {
+        stepped.advance();
+      }
+      unfolded.runToRest();
+      assertEquals(stepped.getBallPositionX(), unfolded.getBallPositionX(), 1e-6);
+      assertEquals(stepped.getBallPositionY(), unfolded.getBallPositionY(), 1e-6);
+      assertEquals(stepped.getBounceCount(), unfolded.getBounceCount());
+      assertEquals(stepped.getElapsedTime(), unfolded.getElapsedTime(), 1e-9);
+      assertEquals(stepped.getLastEdge(), unfolded.getLastEdge());
+      assertEquals("Status: Ball is stationary", unfolded.getStatus());
+    }
+  }
+
   /**
-   * Test for complex root case.
+   * Running to rest in one call ends where stepping edge by edge ends, also where friction stops
+   * the ball short of an edge.
    */
   @Test
-  public void testComplexRootCase() {
-    SimplePoolSimulator obj = new SimplePoolSimulator(100, 10, "friction");
+  public void runToRestMatchesAdvance() {
+    ShotFixture.forEachType(SimplePoolSimulatorTest::checkRunToRestMatchesAdvance);
+  }
 
-    obj.start(5, 2, 10, 5, 10, 1);
+  /**
+   * With friction the ball travels speed^2 / (2 f g), folded back at the edges.
+   */
+  @Test
+  public void runToRestWithFriction() {
+    SimplePoolSimulator obj = new SimplePoolSimulator(100, 100, "friction");
+
+    //travels 49 / 1.96 = 25 before it stops, short of the right edge
+    obj.start(20, 50, 1, 7, 1, 0);
+    obj.runToRest();
+    assertEquals(45, obj.getBallPositionX(), 1e-9);
+    assertEquals(0, obj.getBounceCount());
+    assertEquals(7 / 0.98, obj.getElapsedTime(), 1e-9);
+
+    //travels 4900, which is 50 crossings of the 98 wide span and back to the start
+    obj.start(50, 50, 1, 98, 1, 0);
+    obj.runToRest();
+    assertEquals(50, obj.getBallPositionX(), 1e-6);
+    assertEquals(50, obj.getBounceCount());
+    assertEquals(Edge.LEFT, obj.getLastEdge());
+    assertEquals(0, obj.getBallVelocityX(), 0);
+  }
 
+  /**
+   * Advancing part of the way and then to rest ends where running to rest at once ends.
+   */
+  @Test
+  public void advanceToThenRunToRest() {
+    SimplePoolSimulator whole = new SimplePoolSimulator(300, 200, "friction");
+    SimplePoolSimulator split = new SimplePoolSimulator(300, 200, "friction");
+    whole.start(40, 70, 5, 60, 0.8, 0.3);
+    split.start(40, 70, 5, 60, 0.8, 0.3);
+    whole.runToRest();
+    split.advanceTo(20);
+    assertEquals(20, split.getElapsedTime(), 1e-12);
+    split.runToRest();
+    assertEquals(whole.getBallPositionX(), split.getBallPositionX(), 1e-6);
+    assertEquals(whole.getBallPositionY(), split.getBallPositionY(), 1e-6);
+    assertEquals(whole.getBounceCount(), split.getBounceCount());
+    assertEquals(whole.getElapsedTime(), split.getElapsedTime(), 1e-9);
+  }
+
+  /**
+   * A model registered under a new name can be picked by name, and is used for every step.
+   */
+  @Test
+  public void registeredModelIsUsed() {
+    PhysicsModels.register("stopping", () -> (ball, width, height) -> {
+      ball.setSpeed(0);
+      return null;
+    });
+    SimplePoolSimulator obj = new SimplePoolSimulator(10, 10, "stopping");
+    obj.start(5, 5, 1, 10, 1, 1);
+    assertEquals("Status: Simulation started", obj.getStatus());
     obj.advance();
-    assertEquals(0, obj.getBallVelocityX(), 0.001);
+    assertEquals("Status: Ball is stationary", obj.getStatus());
+    assertEquals(5, obj.getBallPositionX(), 0);
+  }
+
+  /**
+   * Only models that roll in straight lines can drive several balls.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void multiBallRejectsOtherModels() {
+    PhysicsModels.register("stopping for many", () -> (ball, width, height) -> null);
+    new MultiBallPoolSimulator(10, 10, "stopping for many");
+  }
+
+  /**
+   * Every branch taken from a snapshot continues exactly like the run the snapshot was taken from.
+   */
+  @Test
+  public void restoredBranchesMatch() {
+    for (String type : new String[]{"simple", "friction"}) {
+      SimplePoolSimulator obj = new SimplePoolSimulator(400, 200, type);
+      obj.start(100, 100, 10, 90, 1.3, -0.7);
+      obj.advance();
+      obj.advance();
+      Snapshot snapshot = obj.snapshot();
+      double[] buffer = new double[SimplePoolSimulator.STATE_SIZE + 1];
+      obj.snapshot(buffer, 1);
+      obj.runToRest();
+      double x = obj.getBallPositionX();
+      double time = obj.getElapsedTime();
+      int bounces = obj.getBounceCount();
+
+      for (int branch = 0; branch < 2; branch++) {
+        if (branch == 0) {
+          obj.restore(snapshot);
+        } else {
+          obj.restore(buffer, 1);
+        }
+        assertEquals(2, obj.getBounceCount());
+        obj.runToRest();
+        assertEquals(x, obj.getBallPositionX(), 0);
+        assertEquals(time, obj.getElapsedTime(), 0);
+        assertEquals(bounces, obj.getBounceCount());
+        assertEquals(Status.STATIONARY, obj.getStatusCode());
+      }
+    }
+  }
+
+  /**
+   * A snapshot cannot be restored into a simulator with a different model.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void restoreRejectsOtherModel() {
+    SimplePoolSimulator obj = new SimplePoolSimulator(400, 200, "simple");
+    obj.start(100, 100, 10, 90, 1, 1);
+    new SimplePoolSimulator(400, 200, "friction").restore(obj.snapshot());
   }
-}
\ No newline at end of file
+}
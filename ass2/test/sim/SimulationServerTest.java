@@ -0,0 +1,125 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ * The SimulationServerTest class contains JUnit test cases for the SimulationServer class.
+ */
+public class SimulationServerTest {
+
+  private static HttpURLConnection open(SimulationServer server, String path) throws IOException {
+    URL url = new URL("http://localhost:" + server.getPort() + path);
+    return (HttpURLConnection) url.openConnection();
+  }
+
+  private static List<String> post(SimulationServer server, String body) throws IOException {
+    HttpURLConnection connection = open(server, "/shots");
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    List<String> lines = new ArrayList<>();
+    lines.add(Integer.toString(connection.getResponseCode()));
+    if (connection.getResponseCode() == 200) {
+      try (BufferedReader in = new BufferedReader(
+          new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          lines.add(line);
+        }
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Many concurrent requests get the outcomes a lone simulator gives, and share batches.
+   */
+  @Test
+  public void concurrentRequestsMatchSimulator() throws Exception {
+    SimulationServer server = new SimulationServer(0, 400, 200, "friction");
+    ExecutorService clients = Executors.newFixedThreadPool(32);
+    try {
+      List<Future<?>> done = new ArrayList<>();
+      for (int r = 0; r < 200; r++) {
+        long seed = r;
+        done.add(clients.submit(() -> {
+          Random random = new Random(seed);
+          StringBuilder body = new StringBuilder();
+          int[][] starts = new int[5][];
+          double[][] directions = new double[5][];
+          for (int i = 0; i < starts.length; i++) {
+            starts[i] = new int[]{20 + random.nextInt(360), 20 + random.nextInt(160),
+                1 + random.nextInt(15), 1 + random.nextInt(80)};
+            directions[i] = new double[]{random.nextDouble() + 0.01, -random.nextDouble() - 0.01};
+            body.append(starts[i][0]).append(' ').append(starts[i][1]).append(' ')
+                .append(starts[i][2]).append(' ').append(starts[i][3]).append(' ')
+                .append(directions[i][0]).append(' ').append(directions[i][1]).append('\n');
+          }
+          List<String> lines = post(server, body.toString());
+          assertEquals("200", lines.get(0));
+          assertEquals(starts.length + 1, lines.size());
+          SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "friction");
+          for (int i = 0; i < starts.length; i++) {
+            simulator.start(starts[i][0], starts[i][1], starts[i][2], starts[i][3],
+                directions[i][0], directions[i][1]);
+            while (simulator.getStatusCode() != Status.STATIONARY) {
+              simulator.advance();
+            }
+            String[] fields = lines.get(i + 1).split(" ");
+            assertEquals(simulator.getBallPositionX(), Double.parseDouble(fields[0]), 0);
+            assertEquals(simulator.getBallPositionY(), Double.parseDouble(fields[1]), 0);
+            assertEquals(simulator.getBounceCount(), Integer.parseInt(fields[2]));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> request : done) {
+        request.get();
+      }
+      String report = server.report();
+      assertTrue(report, report.contains("requests 200\n"));
+      assertTrue(report, report.contains("shots 1000\n"));
+    } finally {
+      clients.shutdown();
+      server.stop();
+    }
+  }
+
+  /**
+   * A malformed shot is rejected with a bad request, and the stats are served.
+   */
+  @Test
+  public void badShotIsRejected() throws Exception {
+    SimulationServer server = new SimulationServer(0, 400, 200, "simple");
+    try {
+      assertEquals("400", post(server, "1 2 3\n").get(0));
+      HttpURLConnection connection = open(server, "/stats");
+      assertEquals(200, connection.getResponseCode());
+      try (BufferedReader in = new BufferedReader(
+          new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+        assertEquals("requests 0", in.readLine());
+        assertEquals("rejected 1", in.readLine());
+      }
+    } finally {
+      server.stop();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * The SpinModelTest class contains JUnit test cases for the "spin" physics model.
+ */
+public class SpinModelTest {
+
+  /**
+   * A ball struck in the middle slides, then rolls at 5/7 of its speed after 2 v / (7 f_s g), as
+   * an event that hits no edge and is reported as ROLLING.
+   */
+  @Test
+  public void testStunShotStartsToRoll() {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(100000, 1000, "spin");
+    simulator.start(1000, 500, 5, 100, 1, 0);
+    simulator.advance();
+    double slide = 2 * 100 / (7 * 0.2 * 9.8);
+    assertEquals(slide, simulator.getElapsedTime(), 1e-9);
+    assertEquals(100 * 5.0 / 7, simulator.getBallVelocityX(), 1e-9);
+    assertEquals(1000 + 100 * slide - 0.98 * slide * slide, simulator.getBallPositionX(), 1e-9);
+    assertNull(simulator.getLastEdge());
+    assertEquals(Status.ROLLING, simulator.getStatusCode());
+    simulator.advance();
+    assertEquals(Status.STATIONARY, simulator.getStatusCode());
+  }
+
+  /**
+   * The events of a shot that hits edges while sliding and then rolls name an edge once per
+   * bounce, and the start of rolling is an event of its own.
+   */
+  @Test
+  public void testEventsReportRolling() {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "spin");
+    simulator.start(100, 100, 5, 300, 1, 0.3, -200, 150);
+    List<BounceEvent> events = simulator.events().collect(Collectors.toList());
+    long hits = events.stream().filter(e -> e.getEdge() != null).count();
+    assertEquals(simulator.getBounceCount(), hits);
+    long rolls = events.stream().filter(e -> e.getStatus() == Status.ROLLING).count();
+    assertEquals(1, rolls);
+    assertEquals(Status.STATIONARY, events.get(events.size() - 1).getStatus());
+  }
+
+  /**
+   * Drawn straight back, the ball stops for a moment with its spin still on: at that time its
+   * speed is zero, yet it is not at rest and comes back.
+   */
+  @Test
+  public void testDrawStopsForAMoment() {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(100000, 100000, "spin");
+    simulator.start(5000, 50000, 5, 100, 1, 0, -300, 0);
+    simulator.advanceTo(100 / (0.2 * 9.8));
+    assertEquals(0, simulator.getBallVelocityX(), 0);
+    assertEquals(0, simulator.getBallVelocityY(), 0);
+    assertNotEquals(Status.STATIONARY, simulator.getStatusCode());
+    double turned = simulator.getBallPositionX();
+    Snapshot still = simulator.snapshot();
+    simulator.advance();
+    assertEquals(Status.ROLLING, simulator.getStatusCode());
+    assertTrue(simulator.getBallVelocityX() < 0);
+    simulator.runToRest();
+    assertTrue(simulator.getBallPositionX() < turned);
+    double rest = simulator.getBallPositionX();
+    simulator.restore(still);
+    simulator.runToRest();
+    assertEquals(rest, simulator.getBallPositionX(), 0);
+  }
+
+  /**
+   * A ball given its natural roll moves as in the friction model.
+   */
+  @Test
+  public void testNaturalRollIsFriction() {
+    SimplePoolSimulator spin = new SimplePoolSimulator(400, 200, "spin");
+    SimplePoolSimulator friction = new SimplePoolSimulator(400, 200, "friction");
+    spin.start(100, 100, 5, 300, 1, 0.3, 300, 0);
+    friction.start(100, 100, 5, 300, 1, 0.3);
+    spin.runToRest();
+    friction.runToRest();
+    assertEquals(friction.getBallPositionX(), spin.getBallPositionX(), 1e-9);
+    assertEquals(friction.getBallPositionY(), spin.getBallPositionY(), 1e-9);
+    assertEquals(friction.getBounceCount(), spin.getBounceCount());
+  }
+
+  /**
+   * Enough draw brings the ball back, and swerve curves it to the left of its direction.
+   */
+  @Test
+  public void testDrawAndSwerve() {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(100000, 100000, "spin");
+    simulator.start(5000, 50000, 5, 100, 1, 0, -300, 0);
+    simulator.advance();
+    assertTrue(simulator.getBallVelocityX() < 0);
+    double turned = simulator.getBallPositionX();
+    simulator.runToRest();
+    assertTrue(simulator.getBallPositionX() < turned);
+    assertEquals(50000, simulator.getBallPositionY(), 0);
+    simulator.start(5000, 50000, 5, 100, 1, 0, 0, 50);
+    simulator.runToRest();
+    assertTrue(simulator.getBallPositionY() > 50000);
+  }
+
+  /**
+   * A shot with spin takes a few events per edge, and advanceTo stops between them where stepping
+   * would.
+   */
+  @Test
+  public void testAdvanceToMatchesSteps() {
+    SimplePoolSimulator stepped = new SimplePoolSimulator(400, 200, "spin");
+    stepped.start(100, 100, 5, 300, 1, 0.3, 200, 150);
+    int events = 0;
+    while (stepped.getStatusCode() != Status.STATIONARY) {
+      stepped.advance();
+      events++;
+    }
+    assertTrue(events <= stepped.getBounceCount() + 2);
+    SimplePoolSimulator jumped = new SimplePoolSimulator(400, 200, "spin");
+    jumped.start(100, 100, 5, 300, 1, 0.3, 200, 150);
+    jumped.advanceTo(0.5);
+    assertEquals(0.5, jumped.getElapsedTime(), 0);
+    jumped.runToRest();
+    assertEquals(stepped.getBounceCount(), jumped.getBounceCount());
+    assertEquals(stepped.getBallPositionX(), jumped.getBallPositionX(), 1e-6);
+    assertEquals(stepped.getBallPositionY(), jumped.getBallPositionY(), 1e-6);
+    assertEquals(stepped.getElapsedTime(), jumped.getElapsedTime(), 1e-9);
+  }
+
+  /**
+   * A snapshot keeps the spin, so a restored shot slides the same way again.
+   */
+  @Test
+  public void testSnapshotKeepsSpin() {
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "spin");
+    simulator.start(100, 100, 5, 300, 1, 0.3, -100, 80);
+    Snapshot snapshot = simulator.snapshot();
+    simulator.runToRest();
+    double x = simulator.getBallPositionX();
+    double y = simulator.getBallPositionY();
+    simulator.restore(snapshot);
+    simulator.runToRest();
+    assertEquals(x, simulator.getBallPositionX(), 0);
+    assertEquals(y, simulator.getBallPositionY(), 0);
+  }
+
+  /**
+   * The time to an edge on a curved path: ahead, never reached, and curving back to the edge the
+   * ball is leaving.
+   */
+  @Test
+  public void testTimeToEdge() {
+    assertEquals(2, SpinModel.timeToEdge(2, 0, 1), 1e-12);
+    assertEquals(Double.POSITIVE_INFINITY, SpinModel.timeToEdge(10, -1, 0), 0);
+    assertEquals(0, SpinModel.timeToEdge(0, 1, -1), 0);
+    assertEquals(4, SpinModel.timeToEdge(0, -2, 1), 1e-12);
+  }
+
+  /**
+   * Spin must be finite.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInfiniteSpin() {
+    new SimplePoolSimulator(400, 200, "spin").start(100, 100, 5, 10, 1, 0,
+        Double.POSITIVE_INFINITY, 0);
+  }
+}
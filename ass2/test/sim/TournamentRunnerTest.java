@@ -0,0 +1,103 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * The TournamentRunnerTest class contains JUnit test cases for the TournamentRunner class.
+ */
+public class TournamentRunnerTest {
+
+  /**
+   * The outcomes and the steps of every round are the same for any number of workers, and match
+   * the ShotBatchEvaluator.
+   */
+  @Test
+  public void testReproducible() {
+    ShotBatch shots = ShotFixture.randomShots(3000, 5, 400, 200, 80);
+    //one shot off the table
+    shots.add(500, 100, 5, 10, 1, 0);
+    ShotResults expected = new ShotBatchEvaluator(400, 200, "friction").evaluate(shots);
+    long[] steps = null;
+    for (int workers : new int[] {1, 3, 8}) {
+      try (TournamentRunner runner =
+          new TournamentRunner(400, 200, "friction", shots.size(), workers)) {
+        runner.start(shots);
+        ShotResults results = runner.runToRest();
+        for (int i = 0; i < shots.size(); i++) {
+          assertEquals(expected.getFinalX(i), results.getFinalX(i), 0);
+          assertEquals(expected.getFinalY(i), results.getFinalY(i), 0);
+          assertEquals(expected.getBounces(i), results.getBounces(i));
+          assertEquals(expected.getTimeToRest(i), results.getTimeToRest(i), 0);
+          assertEquals(expected.getLastEdge(i), results.getLastEdge(i));
+        }
+        long[] rounds = new long[runner.getRounds()];
+        for (int r = 0; r < rounds.length; r++) {
+          rounds[r] = runner.getRoundSteps(r);
+        }
+        if (steps == null) {
+          steps = rounds;
+        } else {
+          assertEquals(Arrays.toString(steps), Arrays.toString(rounds));
+        }
+        assertEquals(rounds.length, runner.report().split("\n").length);
+      }
+    }
+  }
+
+  /**
+   * Tables without a new shot keep their outcome across later rounds.
+   */
+  @Test
+  public void testPartialShots() {
+    try (TournamentRunner runner = new TournamentRunner(400, 200, "simple", 4, 2)) {
+      ShotBatch first = new ShotBatch(4);
+      for (int i = 0; i < 4; i++) {
+        first.add(100, 100, 10, 30 + i, 1, 0.5);
+      }
+      runner.start(first);
+      runner.runToRest();
+      double x = runner.getResults().getFinalX(3);
+
+      ShotBatch second = new ShotBatch(1);
+      second.add(200, 50, 5, 40, -1, 1);
+      runner.start(second);
+      ShotResults results = runner.runToRest();
+      assertEquals(x, results.getFinalX(3), 0);
+
+      SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "simple");
+      simulator.start(200, 50, 5, 40, -1, 1);
+      simulator.runToRest();
+      assertEquals(simulator.getBallPositionX(), results.getFinalX(0), 1e-9);
+    }
+  }
+
+  /**
+   * A table still moving after MAX_STEPS steps of its shot is stopped and marked capped, and the
+   * other tables finish their shots.
+   */
+  @Test
+  public void testCappedShot() {
+    try (TournamentRunner runner = new TournamentRunner(1000, 21, "friction", 2, 2)) {
+      ShotBatch shots = new ShotBatch(2);
+      shots.add(500, 10, 10, 3000, 1, 1);
+      shots.add(500, 10, 10, 30, 1, 0);
+      runner.start(shots);
+      ShotResults results = runner.runToRest();
+      assertEquals(ShotResults.CAPPED, results.getLastEdge(0));
+      assertEquals(ShotBatchEvaluator.MAX_STEPS, results.getBounces(0));
+      ShotResults expected = new ShotBatchEvaluator(1000, 21, "friction").evaluate(shots);
+      assertEquals(expected.getFinalX(1), results.getFinalX(1), 0);
+      assertEquals(expected.getLastEdge(1), results.getLastEdge(1));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyShots() {
+    try (TournamentRunner runner = new TournamentRunner(400, 200, "simple", 1, 1)) {
+      runner.start(ShotFixture.randomShots(2, 1, 400, 200, 80));
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The TrajectoryTest class contains JUnit test cases for TrajectoryWriter and TrajectoryReader.
+ */
+public class TrajectoryTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Every step of a run reads back exactly as it was recorded, across chunks of the mapping.
+   */
+  @Test
+  public void recordedRunReadsBack() throws IOException {
+    Path file = folder.newFile().toPath();
+    SimplePoolSimulator simulator = new SimplePoolSimulator(400, 200, "simple");
+    simulator.start(50, 60, 5, 200, 0.7, -0.4);
+    SimplePoolSimulator replay = new SimplePoolSimulator(400, 200, "simple");
+    replay.start(50, 60, 5, 200, 0.7, -0.4);
+    try (TrajectoryWriter writer = new TrajectoryWriter(file, 400, 200)) {
+      while (simulator.getStatusCode() != Status.STATIONARY) {
+        simulator.advance();
+        writer.write(simulator.getElapsedTime(), simulator);
+      }
+      assertEquals(40, writer.size());
+    }
+
+    //a chunk of 3 records forces reads from many mappings
+    try (TrajectoryReader reader = new TrajectoryReader(file, 3 * TrajectoryWriter.RECORD_SIZE)) {
+      assertEquals(40, reader.size());
+      assertEquals(400, reader.getTableWidth());
+      assertEquals(200, reader.getTableHeight());
+      for (long i = 0; i < reader.size(); i++) {
+        replay.advance();
+        assertEquals(replay.getElapsedTime(), reader.getTime(i), 0);
+        assertEquals(0, reader.getBall(i));
+        assertEquals(replay.getBallPositionX(), reader.getX(i), 0);
+        assertEquals(replay.getBallPositionY(), reader.getY(i), 0);
+        assertEquals(replay.getBallVelocityX(), reader.getVelocityX(i), 0);
+        assertEquals(replay.getBallVelocityY(), reader.getVelocityY(i), 0);
+        assertEquals(5, reader.getRadius(i), 0);
+        assertEquals(ShotResults.edgeCode(replay.getStatusCode().getEdge()), reader.getEdge(i));
+      }
+      assertEquals(10, reader.find(reader.getTime(10)));
+      assertEquals(11, reader.find(reader.getTime(10) + 1e-9));
+      assertEquals(reader.size(), reader.find(Double.POSITIVE_INFINITY));
+    }
+  }
+
+  /**
+   * A reader refreshed as a file grows takes in every record flushed since, whether it lands in
+   * the tail or fills a chunk, including a chunk first mapped short of its end.
+   */
+  @Test
+  public void refreshFollowsGrowingFile() throws IOException {
+    Path file = folder.newFile().toPath();
+    try (TrajectoryWriter writer = new TrajectoryWriter(file, 400, 200)) {
+      for (int i = 0; i < 4; i++) {
+        writer.write(i, 0, i, -i, 0, 0, 1, ShotResults.NO_EDGE);
+      }
+      writer.flush();
+      try (TrajectoryReader reader = new TrajectoryReader(file,
+          3 * TrajectoryWriter.RECORD_SIZE)) {
+        assertEquals(4, reader.size());
+        assertEquals(0, reader.refresh());
+        int written = 4;
+        for (int batch = 1; batch <= 8; batch++) {
+          for (int i = 0; i < batch; i++) {
+            writer.write(written, 0, written, -written, 0, 0, 1, ShotResults.NO_EDGE);
+            written++;
+          }
+          writer.flush();
+          assertEquals(batch, reader.refresh());
+          assertEquals(written, reader.size());
+          for (int i = 0; i < written; i++) {
+            assertEquals(i, reader.getTime(i), 0);
+            assertEquals(i, reader.getX(i), 0);
+            assertEquals(-i, reader.getY(i), 0);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Both balls of a collision are recorded with the time of the event.
+   */
+  @Test
+  public void collisionRecordsBothBalls() throws IOException {
+    Path file = folder.newFile().toPath();
+    MultiBallPoolSimulator simulator = new MultiBallPoolSimulator(200, 100, "simple");
+    simulator.start(20, 50, 5, 30, 1, 0);
+    simulator.addBall(100, 50, 5);
+    simulator.advance();
+    try (TrajectoryWriter writer = new TrajectoryWriter(file, 200, 100)) {
+      writer.writeEvent(simulator);
+    }
+    try (TrajectoryReader reader = new TrajectoryReader(file)) {
+      assertEquals(2, reader.size());
+      assertEquals(0, reader.getBall(0));
+      assertEquals(1, reader.getBall(1));
+      assertEquals(simulator.getTime(), reader.getTime(1), 0);
+      assertEquals(25, reader.getVelocityX(1), 1e-9);
+      assertEquals(ShotResults.NO_EDGE, reader.getEdge(1));
+    }
+  }
+
+  /**
+   * A file that was not written by TrajectoryWriter is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testNotATrajectory() throws IOException {
+    new TrajectoryReader(folder.newFile().toPath());
+  }
+}
@@ -0,0 +1,152 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * The WallKernelTest class contains JUnit test cases for WallKernel and the kernel create picks.
+ */
+public class WallKernelTest {
+
+  private static final int WIDTH = 400;
+  private static final int HEIGHT = 200;
+
+  private static BallStore randomBalls(int count, long seed) {
+    Random random = new Random(seed);
+    BallStore balls = new BallStore(count);
+    for (int i = 0; i < count; i++) {
+      double radius = 1 + random.nextInt(15);
+      double x = radius + random.nextDouble() * (WIDTH - 2 * radius);
+      double y = radius + random.nextDouble() * (HEIGHT - 2 * radius);
+      double speed = i % 17 == 0 ? 0 : 1 + random.nextInt(80);
+      double angle = random.nextDouble() * 2 * Math.PI;
+      double vx = i % 13 == 0 ? 0 : speed * Math.cos(angle);
+      double vy = i % 11 == 0 ? 0 : speed * Math.sin(angle);
+      balls.add(x, y, radius, vx, vy, 0);
+    }
+    return balls;
+  }
+
+  /**
+   * Without deceleration the kernel finds the edge and time of the simple model.
+   */
+  @Test
+  public void simpleMatchesModelStep() {
+    BallStore balls = randomBalls(1000, 5);
+    double[] time = new double[balls.size()];
+    byte[] edge = new byte[balls.size()];
+    new WallKernel().nearestWalls(balls, 0, balls.size(), 0, WIDTH, HEIGHT, time, edge);
+
+    SimpleModel model = new SimpleModel();
+    Ball ball = new Ball();
+    for (int i = 0; i < balls.size(); i++) {
+      if (balls.speed[i] == 0) {
+        assertEquals(WallKernel.NONE, edge[i]);
+        assertEquals(Double.POSITIVE_INFINITY, time[i], 0);
+        continue;
+      }
+      ball.reset(balls.x[i], balls.y[i], balls.radius[i], balls.speed[i], balls.vx[i],
+          balls.vy[i]);
+      Edge expected = model.step(ball, WIDTH, HEIGHT);
+      assertEquals(expected.ordinal(), edge[i]);
+      assertEquals(ball.getTime(), time[i], 1e-9 * ball.getTime());
+    }
+  }
+
+  /**
+   * With friction the kernel finds the edge reached first, or none if the ball stops short.
+   */
+  @Test
+  public void frictionMatchesTimeToTravel() {
+    BallStore balls = randomBalls(1000, 6);
+    double[] time = new double[balls.size()];
+    byte[] edge = new byte[balls.size()];
+    StraightLineModel model = new FrictionModel();
+    new WallKernel().nearestWalls(balls, 0, balls.size(), model.getDeceleration(), WIDTH, HEIGHT,
+        time, edge);
+
+    int stopped = 0;
+    for (int i = 0; i < balls.size(); i++) {
+      double speed = balls.speed[i];
+      double timeX = Double.POSITIVE_INFINITY;
+      double timeY = Double.POSITIVE_INFINITY;
+      if (balls.vx[i] != 0) {
+        timeX = model.timeToTravel(speed, Kinematics.lengthToEdge(balls.x[i],
+            balls.vx[i] / speed, WIDTH, balls.radius[i]));
+      }
+      if (balls.vy[i] != 0) {
+        timeY = model.timeToTravel(speed, Kinematics.lengthToEdge(balls.y[i],
+            balls.vy[i] / speed, HEIGHT, balls.radius[i]));
+      }
+      double expected = Math.min(timeX, timeY);
+      assertEquals(expected, time[i], 1e-9 * expected);
+      if (expected == Double.POSITIVE_INFINITY) {
+        assertEquals(WallKernel.NONE, edge[i]);
+        stopped++;
+      } else {
+        Edge hit = timeX <= timeY ? (balls.vx[i] > 0 ? Edge.RIGHT : Edge.LEFT)
+            : (balls.vy[i] > 0 ? Edge.TOP : Edge.BOTTOM);
+        assertEquals(hit.ordinal(), edge[i]);
+      }
+    }
+    assertEquals(true, stopped > 100);
+  }
+
+  /**
+   * A ball that rounding put a hair past the edge it moves to is at that edge, in the scalar
+   * kernel and the one create picks, as in Kinematics.lengthToEdge.
+   */
+  @Test
+  public void ballPastItsEdgeHitsAtOnce() {
+    BallStore balls = new BallStore(16);
+    for (int i = 0; i < 16; i++) {
+      //past the left edge, or past the top edge
+      if (i % 2 == 0) {
+        balls.add(5 - 1e-9, 100, 5, -30, 4, 0);
+      } else {
+        balls.add(200, HEIGHT - 5 + 1e-9, 5, 3, 40, 0);
+      }
+    }
+    for (WallKernel kernel : new WallKernel[]{new WallKernel(), WallKernel.create()}) {
+      for (double deceleration : new double[]{0, 0.98}) {
+        double[] time = new double[balls.size()];
+        byte[] edge = new byte[balls.size()];
+        kernel.nearestWalls(balls, 0, balls.size(), deceleration, WIDTH, HEIGHT, time, edge);
+        for (int i = 0; i < balls.size(); i++) {
+          String name = kernel.getClass() + " " + i;
+          assertEquals(name, 0, time[i], 0);
+          assertEquals(name, i % 2 == 0 ? WallKernel.LEFT : WallKernel.TOP, edge[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * The kernel create picks gives the scalar results bit for bit, on ranges that do not fill
+   * whole vectors. The run of the multi-release jar sets sim.vectorKernel, so it must have picked
+   * the Vector API kernel.
+   */
+  @Test
+  public void createdKernelMatchesScalar() {
+    BallStore balls = randomBalls(1003, 7);
+    WallKernel created = WallKernel.create();
+    if (Boolean.getBoolean("sim.vectorKernel")) {
+      assertEquals("sim.VectorWallKernel", created.getClass().getName());
+    }
+    for (double deceleration : new double[]{0, 0.98}) {
+      double[] expectedTime = new double[balls.size()];
+      byte[] expectedEdge = new byte[balls.size()];
+      new WallKernel().nearestWalls(balls, 3, balls.size(), deceleration, WIDTH, HEIGHT,
+          expectedTime, expectedEdge);
+      double[] time = new double[balls.size()];
+      byte[] edge = new byte[balls.size()];
+      created.nearestWalls(balls, 3, balls.size(), deceleration, WIDTH, HEIGHT, time, edge);
+      for (int i = 0; i < balls.size(); i++) {
+        assertEquals(created.getClass() + " " + i, expectedTime[i], time[i], 0);
+        assertEquals(created.getClass() + " " + i, expectedEdge[i], edge[i]);
+      }
+    }
+  }
+}